@@ -0,0 +1,48 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Synthetic customer-record payloads of a given serialized size. */
+final class BenchmarkPayloads {
+
+  /** Serialized size of one record, used to size the record list. */
+  private static final int RECORD_BYTES = 160;
+
+  private BenchmarkPayloads() {}
+
+  /** Parses sizes such as {@code 1KB}, {@code 100KB} or {@code 50MB}. */
+  static int parseSize(String size) {
+    var unit = size.substring(size.length() - 2);
+    var value = Integer.parseInt(size.substring(0, size.length() - 2));
+    return switch (unit) {
+      case "KB" -> value * 1024;
+      case "MB" -> value * 1024 * 1024;
+      default -> throw new IllegalArgumentException("Unknown size unit: " + size);
+    };
+  }
+
+  static Map<String, Object> ofSize(int bytes) {
+    int count = Math.max(1, bytes / RECORD_BYTES);
+    List<Map<String, Object>> customers = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      var customer = new LinkedHashMap<String, Object>();
+      customer.put("id", i);
+      customer.put("name", "John Doe " + i);
+      customer.put("email", "john.doe." + i + "@example.com");
+      customer.put("phone", "+1 555 010 " + String.format("%04d", i % 10_000));
+      customer.put("note", "Called about invoice " + i + ", asked for a callback.");
+      customer.put("active", i % 2 == 0);
+      customers.add(customer);
+    }
+    return Map.of("customers", customers);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import io.camunda.connector.runtime.test.outbound.OutboundConnectorContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Full {@link SkyflowDetectConnector#execute} calls against an in-process Skyflow stub.
+ *
+ * <p>The stub answers immediately and echoes the payload as the processed file, so the numbers
+ * are the connector's own cost: binding, encoding, HTTP and decoding. The request journal is
+ * disabled so large request bodies are not retained between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConnectorExecuteBenchmark {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String RUN_ID = "bench-run";
+
+  @Param({"1KB", "100KB", "1MB", "10MB", "50MB"})
+  public String payloadSize;
+
+  @Param({"DEIDENTIFY", "REIDENTIFY"})
+  public SkyflowOperationType operation;
+
+  private WireMockServer skyflow;
+  private SkyflowDetectConnector connector;
+  private SkyflowRequest request;
+
+  @Setup
+  public void setUp() throws Exception {
+    skyflow = new WireMockServer(options().dynamicPort().disableRequestJournal());
+    skyflow.start();
+
+    var payload = BenchmarkPayloads.ofSize(BenchmarkPayloads.parseSize(payloadSize));
+    var processedFile = PayloadCodecBenchmark.base64(MAPPER.writeValueAsString(payload));
+    stubSkyflow(processedFile);
+
+    connector = new SkyflowDetectConnector();
+    request =
+        new SkyflowRequest(
+            new SkyflowAuthentication(
+                "http://localhost:" + skyflow.port(), "vault-123", "bench-token"),
+            operation,
+            payload,
+            "vault_token",
+            null,
+            false,
+            10,
+            5,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null);
+  }
+
+  @TearDown
+  public void tearDown() {
+    skyflow.stop();
+  }
+
+  @Benchmark
+  public Object execute() throws Exception {
+    var context = OutboundConnectorContextBuilder.create().variables(request).build();
+    return connector.execute(context);
+  }
+
+  private void stubSkyflow(String processedFile) throws Exception {
+    skyflow.stubFor(
+        post(urlEqualTo("/v1/detect/deidentify/file/structured_text"))
+            .willReturn(json(MAPPER.writeValueAsString(Map.of("run_id", RUN_ID)))));
+    skyflow.stubFor(
+        get(urlEqualTo("/v1/detect/runs/" + RUN_ID + "?vault_id=vault-123"))
+            .willReturn(
+                json(
+                    MAPPER.writeValueAsString(
+                        PayloadCodecBenchmark.runStatus(processedFile)))));
+    skyflow.stubFor(
+        post(urlEqualTo("/v1/detect/reidentify/file"))
+            .willReturn(
+                json(
+                    MAPPER.writeValueAsString(
+                        Map.of(
+                            "status",
+                            "SUCCESS",
+                            "output_type",
+                            "UNKNOWN",
+                            "output",
+                            Map.of(
+                                "processed_file",
+                                processedFile,
+                                "processed_file_type",
+                                "reidentified_file"))))));
+  }
+
+  private static ResponseDefinitionBuilder json(String body) {
+    return aResponse()
+        .withStatus(200)
+        .withHeader("Content-Type", "application/json")
+        .withBody(body);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import io.camunda.connector.runtime.test.outbound.OutboundConnectorContextBuilder;
+import io.camunda.connector.skyflow.batch.SkyflowMicroBatcher;
+import io.camunda.connector.skyflow.http.SkyflowTransportRegistry;
+import io.camunda.connector.skyflow.http.SkyflowTransportSettings;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import io.camunda.connector.skyflow.polling.SkyflowRunCompletionEngine;
+import io.camunda.connector.skyflow.runs.SkyflowRunStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Load test: {@code inFlight} jobs execute at the same time, each holding its Skyflow run open
+ * for at least one poll interval, once with platform and once with virtual threads.
+ *
+ * <p>In platform mode every job blocks a platform thread, as on a runtime with one job worker
+ * thread per active job, and the connector uses its fixed executors. In virtual mode both the
+ * callers and the connector ({@code skyflow.virtualThreads}) use virtual threads. One operation
+ * is one wave of {@code inFlight} jobs, so jobs per second are {@code inFlight} divided by the
+ * reported time; a mode that cannot sustain a level shows up as a wave taking much longer than
+ * the simulated run duration, or as the fork running out of memory or threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InFlightRunsBenchmark {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String RUN_ID = "load-run";
+  private static final int POLL_INTERVAL_MS = 200;
+  private static final int SKYFLOW_LATENCY_MS = 20;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  @Param({"100", "1000", "5000"})
+  public int inFlight;
+
+  private WireMockServer skyflow;
+  private SkyflowServices services;
+  private SkyflowDetectConnector connector;
+  private ExecutorService callers;
+  private SkyflowRequest request;
+
+  @Setup
+  public void setUp() throws Exception {
+    skyflow =
+        new WireMockServer(
+            options()
+                .dynamicPort()
+                .disableRequestJournal()
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(16));
+    skyflow.start();
+    stubSkyflow();
+
+    boolean virtual = threads.equals("virtual");
+    var defaults = SkyflowTransportSettings.defaults();
+    var shared = SkyflowServices.shared();
+    services =
+        new SkyflowServices(
+            new SkyflowTransportRegistry(
+                new SkyflowTransportSettings(
+                    defaults.connectTimeout(),
+                    defaults.maxConcurrentRequests(),
+                    defaults.idleTimeout(),
+                    defaults.executorThreads(),
+                    virtual)),
+            new SkyflowRunCompletionEngine(),
+            shared.durationModel(),
+            new SkyflowMicroBatcher(virtual),
+            shared.tokenCache(),
+            SkyflowMetrics.NOOP,
+            // every job sends the same payload; remembered runs would let jobs share them
+            SkyflowRunStore.NONE,
+            shared.runWatchers(),
+            shared.bearerTokens(),
+            shared.admission());
+    connector = new SkyflowDetectConnector(services);
+    callers =
+        virtual
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(inFlight);
+    request =
+        new SkyflowRequest(
+            new SkyflowAuthentication(
+                "http://localhost:" + skyflow.port(), "vault-123", "bench-token"),
+            SkyflowOperationType.DEIDENTIFY,
+            BenchmarkPayloads.ofSize(1024),
+            "vault_token",
+            null,
+            false,
+            POLL_INTERVAL_MS,
+            20,
+            SkyflowPollingStrategy.FIXED,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null);
+  }
+
+  @TearDown
+  public void tearDown() {
+    callers.shutdownNow();
+    services.batcher().close();
+    services.completionEngine().close();
+    services.transports().close();
+    skyflow.stop();
+  }
+
+  @Benchmark
+  public int wave() throws Exception {
+    var jobs = new ArrayList<Future<Object>>(inFlight);
+    for (int i = 0; i < inFlight; i++) {
+      jobs.add(
+          callers.submit(
+              () ->
+                  connector.execute(
+                      OutboundConnectorContextBuilder.create().variables(request).build())));
+    }
+    for (var job : jobs) {
+      job.get();
+    }
+    return jobs.size();
+  }
+
+  private void stubSkyflow() throws Exception {
+    var processedFile =
+        PayloadCodecBenchmark.base64(MAPPER.writeValueAsString(BenchmarkPayloads.ofSize(1024)));
+    skyflow.stubFor(
+        post(urlEqualTo("/v1/detect/deidentify/file/structured_text"))
+            .willReturn(json(MAPPER.writeValueAsString(Map.of("run_id", RUN_ID)))));
+    skyflow.stubFor(
+        get(urlEqualTo("/v1/detect/runs/" + RUN_ID + "?vault_id=vault-123"))
+            .willReturn(
+                json(
+                    MAPPER.writeValueAsString(
+                        PayloadCodecBenchmark.runStatus(processedFile)))));
+  }
+
+  private static ResponseDefinitionBuilder json(String body) {
+    return aResponse()
+        .withStatus(200)
+        .withFixedDelay(SKYFLOW_LATENCY_MS)
+        .withHeader("Content-Type", "application/json")
+        .withBody(body);
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.skyflow.dto.SkyflowDeidentifyStructuredTextRequest;
+import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
+import io.camunda.connector.skyflow.dto.SkyflowFile;
+import io.camunda.connector.skyflow.http.SkyflowFileBodyPublisher;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode paths of the connector without any HTTP.
+ *
+ * <p>The {@code *Dto} benchmarks bind the full request and response DTOs with the base64 file
+ * inline, the way the connector did before bodies and responses were streamed. They are the
+ * baseline for the streamed {@code encodeRequestBody} and {@code decodeRunStatus}. Run with
+ * {@code -prof gc} to compare their {@code gc.alloc.rate.norm}, the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PayloadCodecBenchmark {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Param({"1KB", "100KB", "1MB", "10MB", "50MB"})
+  public String payloadSize;
+
+  private Map<String, Object> payload;
+  private String payloadJson;
+  private SkyflowDeidentifyStructuredTextRequest envelope;
+  private byte[] runStatusResponse;
+
+  @Setup
+  public void setUp() throws Exception {
+    payload = BenchmarkPayloads.ofSize(BenchmarkPayloads.parseSize(payloadSize));
+    payloadJson = MAPPER.writeValueAsString(payload);
+    envelope = envelope(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER);
+    runStatusResponse = MAPPER.writeValueAsBytes(runStatus(base64(payloadJson)));
+  }
+
+  @Benchmark
+  public Map<String, Object> coerceMapPayload() {
+    return SkyflowDetectConnector.coercePayload(payload);
+  }
+
+  @Benchmark
+  public Map<String, Object> coerceStringPayload() {
+    return SkyflowDetectConnector.coercePayload(payloadJson);
+  }
+
+  @Benchmark
+  public long encodeRequestBody() throws Exception {
+    var body = SkyflowFileBodyPublisher.of(MAPPER, envelope, payload);
+    body.writeTo(OutputStream.nullOutputStream());
+    return body.payloadBytes();
+  }
+
+  @Benchmark
+  public byte[] serializeRequestDto() throws Exception {
+    return MAPPER.writeValueAsBytes(envelope(base64(MAPPER.writeValueAsString(payload))));
+  }
+
+  @Benchmark
+  public Map<String, Object> decodeRunStatus() throws Exception {
+    return SkyflowResponseDecoder.decode(
+            MAPPER,
+            new ByteArrayInputStream(runStatusResponse),
+            SkyflowDetectRunStatusResponse.class)
+        .requireProcessedFile();
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public Map<String, Object> deserializeRunStatusDto() throws Exception {
+    var status = MAPPER.readValue(runStatusResponse, SkyflowDetectRunStatusResponse.class);
+    var decoded = Base64.getDecoder().decode(status.output().get(0).processedFile());
+    return MAPPER.readValue(decoded, Map.class);
+  }
+
+  private static SkyflowDeidentifyStructuredTextRequest envelope(String base64) {
+    return new SkyflowDeidentifyStructuredTextRequest(
+        new SkyflowFile(base64, "json"),
+        "vault-123",
+        new SkyflowDeidentifyStructuredTextRequest.TokenType("vault_token"),
+        null);
+  }
+
+  static SkyflowDetectRunStatusResponse runStatus(String processedFile) {
+    return new SkyflowDetectRunStatusResponse(
+        "SUCCESS",
+        "UNKNOWN",
+        List.of(
+            new SkyflowDetectRunStatusResponse.OutputItem(
+                processedFile, "redacted_file", "json")),
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
+  }
+
+  static String base64(String json) {
+    return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.runtime.test.outbound.OutboundConnectorContextBuilder;
+import io.camunda.connector.skyflow.batch.SkyflowMicroBatcher;
+import io.camunda.connector.skyflow.http.SkyflowTransportRegistry;
+import io.camunda.connector.skyflow.http.SkyflowTransportSettings;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import io.camunda.connector.skyflow.polling.SkyflowRunCompletionEngine;
+import io.camunda.connector.skyflow.runs.SkyflowRunStore;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load driver: runs {@code jobs} connector executions, {@code concurrency} at a time, against
+ * the in-process {@link SkyflowSimulator} (or a real vault given as {@code vaultUri}), then
+ * reports throughput, latency percentiles, outcomes, platform thread counts and heap usage.
+ *
+ * <p>Options are {@code key=value} arguments:
+ *
+ * <ul>
+ *   <li>{@code concurrency} (100), {@code jobs} (10 times the concurrency), {@code warmupJobs}
+ *       (the concurrency)
+ *   <li>{@code operation} ({@code DEIDENTIFY} or {@code REIDENTIFY}), {@code payload} (1KB),
+ *       {@code threads} ({@code virtual} or {@code platform}, as in {@link
+ *       InFlightRunsBenchmark})
+ *   <li>{@code pollIntervalMs} (200), {@code maxPollAttempts} (50), {@code syncMaxChars}
+ *   <li>{@code transport} ({@code shared}, or {@code perJob} for a new transport registry, and so
+ *       a new {@code HttpClient} and connection pool, per job as before the shared registry)
+ *   <li>{@code vaultUri}, {@code vaultId} and {@code apiToken} to load a real vault instead
+ *   <li>the simulator settings of {@link SkyflowSimulator.Settings#of(Map)}
+ * </ul>
+ *
+ * <p>Every job is timed from submission of its execution until it returns or throws, so time
+ * spent waiting for the rate limiter, retries and polls is part of the latency.
+ */
+public final class SkyflowLoadDriver {
+
+  private static final long MB = 1024 * 1024;
+
+  private SkyflowLoadDriver() {}
+
+  public static void main(String[] args) throws Exception {
+    var options = new HashMap<String, String>();
+    for (var arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 1) {
+        throw new IllegalArgumentException("Expected key=value but got: " + arg);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "100"));
+    int jobs = Integer.parseInt(options.getOrDefault("jobs", String.valueOf(concurrency * 10)));
+    int warmupJobs =
+        Integer.parseInt(options.getOrDefault("warmupJobs", String.valueOf(concurrency)));
+    boolean virtual = options.getOrDefault("threads", "virtual").equals("virtual");
+    boolean transportPerJob = options.getOrDefault("transport", "shared").equals("perJob");
+
+    SkyflowSimulator simulator = null;
+    String vaultUri = options.get("vaultUri");
+    if (vaultUri == null) {
+      simulator = new SkyflowSimulator(SkyflowSimulator.Settings.of(options));
+      vaultUri = simulator.baseUrl();
+    }
+    var services = services(virtual);
+    var callers =
+        virtual
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(concurrency);
+    try {
+      var driver = new Load(services, request(options, vaultUri), transportPerJob, virtual);
+      driver.run(callers, concurrency, warmupJobs);
+      var result = driver.run(callers, concurrency, jobs);
+      System.out.printf(
+          "%d %s jobs, %d concurrent, %s threads, %s payload, %s transport%n",
+          jobs,
+          options.getOrDefault("operation", "DEIDENTIFY"),
+          concurrency,
+          virtual ? "virtual" : "platform",
+          options.getOrDefault("payload", "1KB"),
+          transportPerJob ? "per-job" : "shared");
+      result.print();
+      if (simulator != null) {
+        System.out.println("  simulator     " + simulator.responses());
+      }
+    } finally {
+      callers.shutdownNow();
+      services.batcher().close();
+      services.completionEngine().close();
+      services.transports().close();
+      if (simulator != null) {
+        simulator.close();
+      }
+    }
+    // threads of the shared services must not keep the driver running
+    System.exit(0);
+  }
+
+  private static SkyflowServices services(boolean virtual) {
+    var shared = SkyflowServices.shared();
+    return new SkyflowServices(
+        transports(virtual),
+        new SkyflowRunCompletionEngine(),
+        shared.durationModel(),
+        new SkyflowMicroBatcher(virtual),
+        shared.tokenCache(),
+        SkyflowMetrics.NOOP,
+        // every job sends the same payload; remembered runs would let jobs share them
+        SkyflowRunStore.NONE,
+        shared.runWatchers(),
+        shared.bearerTokens(),
+        shared.admission());
+  }
+
+  private static SkyflowServices withTransports(
+      SkyflowServices services, SkyflowTransportRegistry transports) {
+    return new SkyflowServices(
+        transports,
+        services.completionEngine(),
+        services.durationModel(),
+        services.batcher(),
+        services.tokenCache(),
+        services.metrics(),
+        services.runStore(),
+        services.runWatchers(),
+        services.bearerTokens(),
+        services.admission());
+  }
+
+  private static SkyflowTransportRegistry transports(boolean virtual) {
+    var defaults = SkyflowTransportSettings.defaults();
+    return new SkyflowTransportRegistry(
+        new SkyflowTransportSettings(
+            defaults.connectTimeout(),
+            defaults.maxConcurrentRequests(),
+            defaults.idleTimeout(),
+            defaults.executorThreads(),
+            virtual));
+  }
+
+  private static SkyflowRequest request(Map<String, String> options, String vaultUri) {
+    var syncMaxChars = options.get("syncMaxChars");
+    return new SkyflowRequest(
+        new SkyflowAuthentication(
+            vaultUri,
+            options.getOrDefault("vaultId", "vault-123"),
+            options.getOrDefault("apiToken", "load-token")),
+        SkyflowOperationType.valueOf(options.getOrDefault("operation", "DEIDENTIFY")),
+        BenchmarkPayloads.ofSize(
+            BenchmarkPayloads.parseSize(options.getOrDefault("payload", "1KB"))),
+        "vault_token",
+        null,
+        false,
+        Integer.parseInt(options.getOrDefault("pollIntervalMs", "200")),
+        Integer.parseInt(options.getOrDefault("maxPollAttempts", "50")),
+        SkyflowPollingStrategy.FIXED,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        syncMaxChars == null ? null : Integer.parseInt(syncMaxChars),
+        null);
+  }
+
+  /**
+   * Executes the same request in closed loops, one per concurrent job.
+   *
+   * @param transportPerJob whether each job gets its own transport registry instead of the one of
+   *     {@code services}
+   */
+  private record Load(
+      SkyflowServices services, SkyflowRequest request, boolean transportPerJob, boolean virtual) {
+
+    Result run(ExecutorService callers, int concurrency, int jobs) throws Exception {
+      var latencies = new long[jobs];
+      var outcomes = new ConcurrentHashMap<String, LongAdder>();
+      var next = new AtomicInteger();
+      var threads = ManagementFactory.getThreadMXBean();
+      var sampler = new HeapSampler();
+      threads.resetPeakThreadCount();
+      sampler.start();
+      long started = System.nanoTime();
+      var workers = new ArrayList<Future<?>>(concurrency);
+      for (int i = 0; i < concurrency; i++) {
+        workers.add(
+            callers.submit(
+                () -> {
+                  for (int job = next.getAndIncrement(); job < jobs; job = next.getAndIncrement()) {
+                    long start = System.nanoTime();
+                    String outcome = execute();
+                    latencies[job] = System.nanoTime() - start;
+                    outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                  }
+                }));
+      }
+      for (var worker : workers) {
+        worker.get();
+      }
+      long elapsed = System.nanoTime() - started;
+      sampler.interrupt();
+      sampler.join();
+      var counts = new TreeMap<String, Long>();
+      outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+      Arrays.sort(latencies);
+      return new Result(
+          jobs,
+          elapsed,
+          latencies,
+          counts,
+          threads.getThreadCount(),
+          threads.getPeakThreadCount(),
+          sampler.peak.get(),
+          sampler.used());
+    }
+
+    private String execute() {
+      var transports = transportPerJob ? transports(virtual) : null;
+      try {
+        var connector =
+            new SkyflowDetectConnector(
+                transports == null ? services : withTransports(services, transports));
+        connector.execute(OutboundConnectorContextBuilder.create().variables(request).build());
+        return "SUCCESS";
+      } catch (ConnectorException e) {
+        return e.getErrorCode();
+      } catch (Exception e) {
+        return e.getClass().getSimpleName();
+      } finally {
+        if (transports != null) {
+          transports.close();
+        }
+      }
+    }
+  }
+
+  /** Samples the used heap every few milliseconds and keeps its peak. */
+  private static final class HeapSampler extends Thread {
+
+    private final AtomicLong peak = new AtomicLong();
+
+    private HeapSampler() {
+      super("skyflow-load-heap");
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      while (!isInterrupted()) {
+        peak.accumulateAndGet(used(), Math::max);
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+
+    long used() {
+      return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+  }
+
+  private record Result(
+      int jobs,
+      long elapsedNanos,
+      long[] sortedLatencies,
+      Map<String, Long> outcomes,
+      int liveThreads,
+      int peakThreads,
+      long peakHeap,
+      long endHeap) {
+
+    void print() {
+      double seconds = elapsedNanos / 1e9;
+      System.out.printf("  duration      %.1f s%n", seconds);
+      System.out.printf("  throughput    %.1f jobs/s%n", jobs / seconds);
+      System.out.printf(
+          "  latency ms    p50 %d  p95 %d  p99 %d  max %d%n",
+          percentile(0.50), percentile(0.95), percentile(0.99), percentile(1.0));
+      System.out.println("  outcomes      " + outcomes);
+      System.out.printf(
+          "  threads       %d live, %d peak (platform)%n", liveThreads, peakThreads);
+      System.out.printf("  heap MB       %d peak, %d at end%n", peakHeap / MB, endHeap / MB);
+    }
+
+    /** Nearest-rank percentile in milliseconds. */
+    private long percentile(double quantile) {
+      int rank = (int) Math.ceil(quantile * sortedLatencies.length);
+      return sortedLatencies[Math.max(rank - 1, 0)] / 1_000_000;
+    }
+  }
+}
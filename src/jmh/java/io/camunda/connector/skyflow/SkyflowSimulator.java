@@ -0,0 +1,319 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-process stand-in for the Skyflow Detect API, for load tests that must run offline.
+ *
+ * <p>Serves the de-identify start, run status, re-identify and synchronous de-identify string
+ * endpoints. Processing is the identity: a run's processed file is the file it was started with.
+ * Every run takes a random duration between {@link Settings#minRunDuration()} and {@link
+ * Settings#maxRunDuration()}, then reports {@code SUCCESS} or, for {@link Settings#failedRatio()}
+ * of the runs, {@code FAILED}; {@link Settings#pendingRatio()} of the runs never finish. Any
+ * request may be answered with HTTP 429 or 503, or only after {@link Settings#slowLatency()}, at
+ * the configured ratios; with {@link Settings#requestsPerSecond()} set, requests beyond that rate
+ * are answered with HTTP 429 as well.
+ *
+ * <p>Requests are handled on virtual threads, so the simulator itself does not limit concurrency.
+ * Runs are kept until the simulator is closed.
+ */
+final class SkyflowSimulator implements AutoCloseable {
+
+  /**
+   * Behavior of the simulator. Ratios are probabilities between 0 and 1.
+   *
+   * @param latency time every response takes
+   * @param slowRatio share of responses that take {@code slowLatency} instead
+   * @param slowLatency time a slow response takes
+   * @param throttledRatio share of requests answered with HTTP 429 and {@code Retry-After: 1}
+   * @param requestsPerSecond requests accepted per second before the rest of that second is
+   *     answered with HTTP 429; zero for no limit
+   * @param serverErrorRatio share of requests answered with HTTP 503
+   * @param minRunDuration shortest time a run stays {@code IN_PROGRESS}
+   * @param maxRunDuration longest time a run stays {@code IN_PROGRESS}
+   * @param failedRatio share of runs that end {@code FAILED}
+   * @param pendingRatio share of runs that stay {@code IN_PROGRESS} forever
+   */
+  record Settings(
+      Duration latency,
+      double slowRatio,
+      Duration slowLatency,
+      double throttledRatio,
+      int requestsPerSecond,
+      double serverErrorRatio,
+      Duration minRunDuration,
+      Duration maxRunDuration,
+      double failedRatio,
+      double pendingRatio) {
+
+    static Settings defaults() {
+      return new Settings(
+          Duration.ofMillis(20),
+          0,
+          Duration.ofSeconds(2),
+          0,
+          0,
+          0,
+          Duration.ofMillis(200),
+          Duration.ofSeconds(1),
+          0,
+          0);
+    }
+
+    /** Reads the settings from {@code key=value} options, e.g. {@code failedRatio=0.05}. */
+    static Settings of(Map<String, String> options) {
+      var defaults = defaults();
+      return new Settings(
+          millis(options, "latencyMs", defaults.latency()),
+          ratio(options, "slowRatio", defaults.slowRatio()),
+          millis(options, "slowLatencyMs", defaults.slowLatency()),
+          ratio(options, "throttledRatio", defaults.throttledRatio()),
+          Integer.parseInt(
+              options.getOrDefault(
+                  "requestsPerSecond", String.valueOf(defaults.requestsPerSecond()))),
+          ratio(options, "serverErrorRatio", defaults.serverErrorRatio()),
+          millis(options, "minRunMs", defaults.minRunDuration()),
+          millis(options, "maxRunMs", defaults.maxRunDuration()),
+          ratio(options, "failedRatio", defaults.failedRatio()),
+          ratio(options, "pendingRatio", defaults.pendingRatio()));
+    }
+
+    private static Duration millis(Map<String, String> options, String key, Duration fallback) {
+      var value = options.get(key);
+      return value == null ? fallback : Duration.ofMillis(Long.parseLong(value));
+    }
+
+    private static double ratio(Map<String, String> options, String key, double fallback) {
+      var value = options.get(key);
+      return value == null ? fallback : Double.parseDouble(value);
+    }
+  }
+
+  private enum Outcome {
+    SUCCESS,
+    FAILED,
+    PENDING
+  }
+
+  private record Run(long completesAtNanos, Outcome outcome, String processedFile) {}
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String START_PATH = "/v1/detect/deidentify/file/structured_text";
+  private static final String RUNS_PATH = "/v1/detect/runs/";
+  private static final String REIDENTIFY_PATH = "/v1/detect/reidentify/file";
+  private static final String STRING_PATH = "/v1/detect/deidentify/string";
+
+  private final Settings settings;
+  private final HttpServer server;
+  private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+  private final Map<String, Run> runs = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> responses = new ConcurrentHashMap<>();
+  private final AtomicLong second = new AtomicLong();
+  private final AtomicLong requestsInSecond = new AtomicLong();
+
+  SkyflowSimulator(Settings settings) throws IOException {
+    this.settings = settings;
+    // like a real server; with Nagle's algorithm the response body of a kept-alive connection
+    // waits for the client's delayed ACK of the headers, adding about 40 ms to every request
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+    server.createContext("/", this::handle);
+    server.setExecutor(handlers);
+    server.start();
+  }
+
+  /** Base URL to use as the vault URI. */
+  String baseUrl() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  /** Responses sent so far, by endpoint and status, e.g. {@code status 429}. */
+  Map<String, Long> responses() {
+    var counts = new TreeMap<String, Long>();
+    responses.forEach((key, count) -> counts.put(key, count.sum()));
+    return counts;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    handlers.shutdownNow();
+    runs.clear();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      var random = ThreadLocalRandom.current();
+      Thread.sleep(
+          (random.nextDouble() < settings.slowRatio() ? settings.slowLatency() : settings.latency())
+              .toMillis());
+      String path = exchange.getRequestURI().getPath();
+      String endpoint = endpoint(path);
+      if (overCapacity() || random.nextDouble() < settings.throttledRatio()) {
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        respond(exchange, endpoint, 429, Map.of("error", "Too many requests"));
+      } else if (random.nextDouble() < settings.serverErrorRatio()) {
+        respond(exchange, endpoint, 503, Map.of("error", "Service unavailable"));
+      } else {
+        switch (endpoint) {
+          case "start" -> start(exchange);
+          case "status" -> status(exchange, path.substring(RUNS_PATH.length()));
+          case "reidentify" -> reidentify(exchange);
+          case "string" -> deidentifyString(exchange);
+          default -> respond(exchange, endpoint, 404, Map.of("error", "Not found: " + path));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Counts the request against the current second; approximate at second boundaries. */
+  private boolean overCapacity() {
+    if (settings.requestsPerSecond() <= 0) {
+      return false;
+    }
+    long now = System.nanoTime() / 1_000_000_000L;
+    long current = second.get();
+    if (now != current && second.compareAndSet(current, now)) {
+      requestsInSecond.set(0);
+    }
+    return requestsInSecond.incrementAndGet() > settings.requestsPerSecond();
+  }
+
+  private static String endpoint(String path) {
+    if (path.equals(START_PATH)) {
+      return "start";
+    } else if (path.startsWith(RUNS_PATH)) {
+      return "status";
+    } else if (path.equals(REIDENTIFY_PATH)) {
+      return "reidentify";
+    } else if (path.equals(STRING_PATH)) {
+      return "string";
+    }
+    return "unknown";
+  }
+
+  private void start(HttpExchange exchange) throws IOException {
+    var random = ThreadLocalRandom.current();
+    double draw = random.nextDouble();
+    var outcome =
+        draw < settings.pendingRatio()
+            ? Outcome.PENDING
+            : draw < settings.pendingRatio() + settings.failedRatio()
+                ? Outcome.FAILED
+                : Outcome.SUCCESS;
+    long minNanos = settings.minRunDuration().toNanos();
+    long maxNanos = Math.max(minNanos, settings.maxRunDuration().toNanos());
+    long duration = minNanos == maxNanos ? minNanos : random.nextLong(minNanos, maxNanos + 1);
+    String runId = UUID.randomUUID().toString();
+    runs.put(runId, new Run(System.nanoTime() + duration, outcome, fileOf(exchange)));
+    respond(exchange, "start", 200, Map.of("run_id", runId));
+  }
+
+  private void status(HttpExchange exchange, String runId) throws IOException {
+    var run = runs.get(runId);
+    if (run == null) {
+      respond(exchange, "status", 404, Map.of("error", "Unknown run " + runId));
+    } else if (run.outcome() == Outcome.PENDING || System.nanoTime() < run.completesAtNanos()) {
+      respond(exchange, "status", 200, Map.of("status", "IN_PROGRESS"));
+    } else if (run.outcome() == Outcome.FAILED) {
+      respond(
+          exchange,
+          "status",
+          200,
+          Map.of("status", "FAILED", "message", "Simulated failure of run " + runId));
+    } else {
+      respond(
+          exchange,
+          "status",
+          200,
+          Map.of(
+              "status",
+              "SUCCESS",
+              "outputType",
+              "UNKNOWN",
+              "output",
+              List.of(
+                  Map.of(
+                      "processedFile",
+                      run.processedFile(),
+                      "processedFileType",
+                      "redacted_file",
+                      "processedFileExtension",
+                      "json"))));
+    }
+  }
+
+  private void reidentify(HttpExchange exchange) throws IOException {
+    respond(
+        exchange,
+        "reidentify",
+        200,
+        Map.of(
+            "status",
+            "SUCCESS",
+            "output_type",
+            "UNKNOWN",
+            "output",
+            Map.of(
+                "processed_file",
+                fileOf(exchange),
+                "processed_file_type",
+                "redacted_file",
+                "processed_file_extension",
+                "json")));
+  }
+
+  private void deidentifyString(HttpExchange exchange) throws IOException {
+    String text = MAPPER.readTree(body(exchange)).path("text").asText();
+    respond(exchange, "string", 200, Map.of("processed_text", text));
+  }
+
+  /** The base64 file content of a request, which becomes its processed file. */
+  private static String fileOf(HttpExchange exchange) throws IOException {
+    return MAPPER.readTree(body(exchange)).path("file").path("base64").asText();
+  }
+
+  private static InputStream body(HttpExchange exchange) throws IOException {
+    InputStream body = exchange.getRequestBody();
+    if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+      body = new GZIPInputStream(body);
+    }
+    return body;
+  }
+
+  private void respond(HttpExchange exchange, String endpoint, int status, Object body)
+      throws IOException {
+    responses.computeIfAbsent(endpoint + " " + status, key -> new LongAdder()).increment();
+    byte[] json = MAPPER.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, json.length);
+    exchange.getResponseBody().write(json);
+  }
+}
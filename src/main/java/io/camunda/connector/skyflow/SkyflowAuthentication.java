@@ -26,11 +26,50 @@ public record SkyflowAuthentication(
             feel = Property.FeelMode.disabled)
         @NotBlank
         String vaultId,
+    @TemplateProperty(
+            id = "type",
+            label = "Authentication type",
+            group = "authentication",
+            type = TemplateProperty.PropertyType.Dropdown,
+            defaultValue = "API_TOKEN",
+            optional = true,
+            choices = {
+              @TemplateProperty.DropdownPropertyChoice(value = "API_TOKEN", label = "API token"),
+              @TemplateProperty.DropdownPropertyChoice(
+                  value = "SERVICE_ACCOUNT",
+                  label = "Service account credentials")
+            })
+        SkyflowAuthenticationType type,
     @TemplateProperty(
             id = "apiToken",
             label = "API Token",
             group = "authentication",
             description = "Bearer token for authentication",
-            feel = Property.FeelMode.optional)
-        @NotBlank
-        String apiToken) {}
+            feel = Property.FeelMode.optional,
+            condition =
+                @TemplateProperty.PropertyCondition(property = "type", equals = "API_TOKEN"),
+            constraints = @TemplateProperty.PropertyConstraints(notEmpty = true))
+        String apiToken,
+    @TemplateProperty(
+            id = "credentials",
+            label = "Service account credentials",
+            group = "authentication",
+            description =
+                "Contents of the service account's credentials.json; exchanged for short-lived bearer tokens",
+            type = TemplateProperty.PropertyType.Text,
+            feel = Property.FeelMode.optional,
+            condition =
+                @TemplateProperty.PropertyCondition(property = "type", equals = "SERVICE_ACCOUNT"),
+            constraints = @TemplateProperty.PropertyConstraints(notEmpty = true))
+        String credentials) {
+
+  /** API token authentication. */
+  public SkyflowAuthentication(String vaultUri, String vaultId, String apiToken) {
+    this(vaultUri, vaultId, SkyflowAuthenticationType.API_TOKEN, apiToken, null);
+  }
+
+  /** Whether bearer tokens are obtained with service account credentials. */
+  public boolean serviceAccount() {
+    return type == SkyflowAuthenticationType.SERVICE_ACCOUNT;
+  }
+}
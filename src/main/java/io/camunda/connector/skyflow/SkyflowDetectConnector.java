@@ -8,26 +8,70 @@ package io.camunda.connector.skyflow;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.camunda.connector.api.annotation.OutboundConnector;
+import io.camunda.connector.api.document.Document;
+import io.camunda.connector.api.document.DocumentFactory;
 import io.camunda.connector.api.error.ConnectorException;
 import io.camunda.connector.api.outbound.OutboundConnectorContext;
 import io.camunda.connector.api.outbound.OutboundConnectorFunction;
 import io.camunda.connector.generator.java.annotation.ElementTemplate;
+import io.camunda.connector.skyflow.admission.SkyflowAdmissionControl;
+import io.camunda.connector.skyflow.auth.SkyflowCredentials;
+import io.camunda.connector.skyflow.batch.SkyflowRecordBatch;
+import io.camunda.connector.skyflow.document.SkyflowDocumentWriter;
+import io.camunda.connector.skyflow.document.SkyflowFileFormat;
+import io.camunda.connector.skyflow.document.SkyflowResultDocuments;
 import io.camunda.connector.skyflow.dto.SkyflowDetectRunStartResponse;
 import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
 import io.camunda.connector.skyflow.dto.SkyflowReidentifyResponse;
+import io.camunda.connector.skyflow.dto.SkyflowDeidentifyStringRequest;
+import io.camunda.connector.skyflow.dto.SkyflowDeidentifyStringResponse;
 import io.camunda.connector.skyflow.dto.SkyflowDeidentifyStructuredTextRequest;
 import io.camunda.connector.skyflow.dto.SkyflowFile;
 import io.camunda.connector.skyflow.dto.SkyflowReidentifyFileRequest;
+import io.camunda.connector.skyflow.http.SkyflowEndpoint;
+import io.camunda.connector.skyflow.http.SkyflowFileBodyPublisher;
+import io.camunda.connector.skyflow.http.SkyflowHttpException;
+import io.camunda.connector.skyflow.http.SkyflowTransport;
+import io.camunda.connector.skyflow.json.FieldSelection;
+import io.camunda.connector.skyflow.json.JsonChunker;
+import io.camunda.connector.skyflow.json.JsonTrees;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder.Decoded;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder.ProcessedFileTarget;
+import io.camunda.connector.skyflow.json.TextLeaves;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import io.camunda.connector.skyflow.polling.ExponentialJitterPollingStrategy;
+import io.camunda.connector.skyflow.polling.FixedPollingStrategy;
+import io.camunda.connector.skyflow.polling.LearnedPollingStrategy;
+import io.camunda.connector.skyflow.polling.PollingStrategy;
+import io.camunda.connector.skyflow.polling.ResumedPollingStrategy;
+import io.camunda.connector.skyflow.polling.SkyflowRunCompletionEngine;
+import io.camunda.connector.skyflow.runs.SkyflowRunStore;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 @OutboundConnector(
     name = "Skyflow Detect",
@@ -51,53 +95,657 @@ public class SkyflowDetectConnector implements OutboundConnectorFunction {
   private static final ObjectMapper MAPPER = new ObjectMapper();
   private static final int DEFAULT_POLL_INTERVAL_MS = 1500;
   private static final int DEFAULT_MAX_POLL_ATTEMPTS = 40;
+  private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  private static final int DEFAULT_CHUNK_PARALLELISM = 4;
+  private static final int DEFAULT_MAX_FILE_BYTES = 1 << 20;
+  private static final String RESULT_RUN_ID = "runId";
+  private static final String RESULT_COMPLETED = "completed";
+  private static final String RESULT_PROCESSED = "result";
 
-  private static final String AUTHORIZATION_HEADER = "Authorization";
-  private static final String BEARER_PREFIX = "Bearer ";
+  static final String AUTHORIZATION_HEADER = "Authorization";
+  static final String BEARER_PREFIX = "Bearer ";
   private static final String CONTENT_TYPE_HEADER = "Content-Type";
   private static final String CONTENT_TYPE_JSON = "application/json";
 
   private static final String DATA_FORMAT_JSON = "json";
+  private static final String TOKEN_TYPE_STATIC = "static_token";
+
+  private static final String PHASE_EXECUTE = "execute";
+  private static final String PHASE_ADMISSION = "admission";
+  private static final String PHASE_START = "start";
+  private static final String PHASE_POLL = "poll";
+  private static final String PHASE_REIDENTIFY = "reidentify";
+  private static final String PHASE_DEIDENTIFY_STRING = "deidentify_string";
+  private static final String PHASE_DOCUMENT = "document";
+
+  private final SkyflowServices services;
+
+  public SkyflowDetectConnector() {
+    this(SkyflowServices.shared());
+  }
+
+  SkyflowDetectConnector(SkyflowServices services) {
+    this.services = services;
+  }
 
   @Override
   public Object execute(OutboundConnectorContext context) throws Exception {
     var request = context.bindVariables(SkyflowRequest.class);
-    var cfg = toConfig(request);
+    var cfg = toConfig(request, context);
+
+    try {
+      return timed(
+          cfg,
+          PHASE_EXECUTE,
+          () -> {
+            var permit = admit(cfg);
+            try {
+              return switch (cfg.operation) {
+                case DEIDENTIFY, REIDENTIFY -> {
+                  if (cfg.payload instanceof Document document) {
+                    yield processDocument(cfg, document);
+                  }
+                  var records = coerceRecords(cfg.payload);
+                  yield output(
+                      cfg, records != null ? processRecords(cfg, records) : processSelected(cfg));
+                }
+                case DEIDENTIFY_START -> startRun(cfg);
+                case DEIDENTIFY_AWAIT -> awaitRun(cfg);
+              };
+            } finally {
+              permit.close();
+            }
+          });
+    } catch (Exception e) {
+      services.metrics().recordError(operationTag(cfg), cfg.vaultId, errorCode(e));
+      throw e;
+    }
+  }
+
+  /**
+   * Waits until the payload fits into the node's payload budget, before it is coerced, encoded or
+   * sent; the permit is held until the result is returned. Documents are streamed through fixed
+   * buffers and take no budget.
+   */
+  private SkyflowAdmissionControl.Permit admit(Config cfg) throws Exception {
+    long footprint =
+        cfg.payload instanceof Document ? 0 : SkyflowAdmissionControl.footprint(cfg.payload);
+    return timed(cfg, PHASE_ADMISSION, () -> services.admission().acquire(footprint));
+  }
+
+  /** Sends only the fields selected by the include/exclude paths and merges the result back. */
+  private Map<String, Object> processSelected(Config cfg) throws Exception {
+    if (cfg.fields.selectsAll()) {
+      return handle(cfg, cfg.payload);
+    }
+    var payload = coercePayload(cfg.payload);
+    var selected = cfg.fields.select(payload);
+    if (selected.isEmpty()) {
+      return payload;
+    }
+    return cfg.fields.merge(payload, handle(cfg, selected));
+  }
+
+  /**
+   * Processes a list of records in as few Skyflow files as {@code maxChunkBytes} allows and
+   * returns one {@code { result }} or {@code { error }} entry per record; see {@link
+   * SkyflowRecordBatch}. Token caching and micro-batching do not apply.
+   */
+  private List<Map<String, Object>> processRecords(Config cfg, List<?> records)
+      throws Exception {
+    var results = new ArrayList<Map<String, Object>>(Collections.nCopies(records.size(), null));
+    var sent = new ArrayList<Object>(records.size());
+    var indexes = new ArrayList<Integer>(records.size());
+    for (int i = 0; i < records.size(); i++) {
+      var record = records.get(i);
+      if (record instanceof Map<?, ?> && !cfg.fields.selectsAll()) {
+        var selected = cfg.fields.select(coercePayload(record));
+        if (selected.isEmpty()) {
+          results.set(i, Map.of(SkyflowRecordBatch.RESULT, record));
+          continue;
+        }
+        record = selected;
+      }
+      sent.add(record);
+      indexes.add(i);
+    }
+    long maxFileBytes = cfg.maxChunkBytes > 0 ? cfg.maxChunkBytes : DEFAULT_MAX_FILE_BYTES;
+    var processed =
+        SkyflowRecordBatch.process(
+            MAPPER, sent, maxFileBytes, cfg.chunkParallelism, file -> process(cfg, file));
+    for (int j = 0; j < processed.size(); j++) {
+      int i = indexes.get(j);
+      var entry = processed.get(j);
+      if (!cfg.fields.selectsAll()
+          && entry.get(SkyflowRecordBatch.RESULT) instanceof Map<?, ?> tokens) {
+        try {
+          entry =
+              Map.of(
+                  SkyflowRecordBatch.RESULT,
+                  cfg.fields.merge(coercePayload(records.get(i)), coercePayload(tokens)));
+        } catch (ConnectorException e) {
+          entry = SkyflowRecordBatch.failure(e);
+        }
+      }
+      results.set(i, entry);
+    }
+    return results;
+  }
+
+  /**
+   * Streams a document payload to the Skyflow file endpoint of its format and the processed file
+   * into a new document of the same type, which is returned; neither passes through the heap or
+   * the process variables. Field selection, token caching, batching and the run store do not
+   * apply.
+   */
+  private Document processDocument(Config cfg, Document document) throws Exception {
+    var format = SkyflowFileFormat.of(document);
+    var http = services.transports().forBaseUrl(cfg.baseUrl);
+    var body = documentBody(cfg, format, document);
+    var writer =
+        new SkyflowDocumentWriter(
+            cfg.documents, format.contentType(), processedFileName(cfg, document, format));
+    try {
+      Decoded<?> decoded;
+      if (cfg.operation == SkyflowOperationType.REIDENTIFY) {
+        decoded = timed(cfg, PHASE_REIDENTIFY, () -> reidentify(http, cfg, body, writer::open));
+        recordPayloadBytes(cfg, "request", body.payloadBytes());
+      } else {
+        String runId =
+            timed(
+                cfg,
+                PHASE_START,
+                () -> startDeidentify(http, cfg, format.deidentifyPath(), body));
+        recordPayloadBytes(cfg, "request", body.payloadBytes());
+        var strategy = pollingStrategy(cfg, body.payloadBytes());
+        decoded =
+            timed(
+                cfg,
+                PHASE_POLL,
+                () ->
+                    pollForResult(
+                        http, cfg, runId, strategy, cfg.maxPollAttempts, null, writer::open));
+      }
+      recordPayloadBytes(cfg, "response", decoded.processedFileBytes());
+      if (!writer.opened()) {
+        throw new ConnectorException(
+            "SKYFLOW_MISSING_PROCESSED_FILE", "Missing processed_file in Skyflow response");
+      }
+    } catch (Exception e) {
+      // reports the store's error instead if it failed first and closed the pipe
+      writer.abort(e);
+      throw e;
+    }
+    return timed(cfg, PHASE_DOCUMENT, writer::finish);
+  }
+
+  /** The processed file keeps the name of the document, if it has one. */
+  private static String processedFileName(
+      Config cfg, Document document, SkyflowFileFormat format) {
+    String fileName = document.metadata().getFileName();
+    return fileName != null && !fileName.isBlank()
+        ? fileName
+        : "skyflow-" + operationTag(cfg) + "." + format.dataFormat();
+  }
+
+  /**
+   * Starts a de-identify run and returns its ID, leaving the wait to {@link #awaitRun} or to the
+   * run-completion inbound connector watching the vault.
+   */
+  private Map<String, Object> startRun(Config cfg) throws Exception {
+    var http = services.transports().forBaseUrl(cfg.baseUrl);
+    SkyflowFileBodyPublisher body;
+    if (cfg.payload instanceof Document document) {
+      if (SkyflowFileFormat.of(document) != SkyflowFileFormat.JSON) {
+        // DEIDENTIFY_AWAIT and the run completion connector return the processed file as JSON
+        throw new ConnectorException(
+            "SKYFLOW_BAD_PAYLOAD",
+            "DEIDENTIFY_START only accepts JSON documents; use DEIDENTIFY for other documents");
+      }
+      body = documentBody(cfg, SkyflowFileFormat.JSON, document);
+    } else {
+      body = deidentifyBody(cfg, coercePayload(cfg.payload));
+    }
+    String runId =
+        timed(
+            cfg,
+            PHASE_START,
+            () -> startDeidentify(http, cfg, SkyflowFileFormat.JSON.deidentifyPath(), body));
+    recordPayloadBytes(cfg, "request", body.payloadBytes());
+    services.runWatchers().started(vaultKey(cfg.baseUrl, cfg.vaultId), runId);
+    return Map.of(RESULT_RUN_ID, runId);
+  }
+
+  /**
+   * Checks a run started by {@link #startRun}, waiting at most {@code maxWaitMs} for it. A run
+   * still in progress is reported with {@code completed = false} rather than as a poll timeout, so
+   * that the process can wait elsewhere and check again.
+   */
+  private Map<String, Object> awaitRun(Config cfg) throws Exception {
+    if (cfg.runId == null || cfg.runId.isBlank()) {
+      throw new ConnectorException(
+          "SKYFLOW_MISSING_RUN_ID", "runId is required for DEIDENTIFY_AWAIT");
+    }
+    var http = services.transports().forBaseUrl(cfg.baseUrl);
+    var strategy = new FixedPollingStrategy(Duration.ofMillis(cfg.pollIntervalMs));
+    int attempts = 1 + cfg.maxWaitMs / Math.max(1, cfg.pollIntervalMs);
+    Decoded<SkyflowDetectRunStatusResponse> decoded;
+    try {
+      decoded =
+          timed(
+              cfg,
+              PHASE_POLL,
+              () -> pollForResult(http, cfg, cfg.runId, strategy, attempts, null, null));
+    } catch (ConnectorException e) {
+      if (!"SKYFLOW_POLL_TIMEOUT".equals(e.getErrorCode())) {
+        throw e;
+      }
+      return Map.of(RESULT_RUN_ID, cfg.runId, RESULT_COMPLETED, false);
+    }
+    return Map.of(
+        RESULT_RUN_ID,
+        cfg.runId,
+        RESULT_COMPLETED,
+        true,
+        RESULT_PROCESSED,
+        output(cfg, processedFile(cfg, decoded)));
+  }
+
+  private Map<String, Object> handle(Config cfg, Object payload) throws Exception {
+    if (usesTokenCache(cfg)) {
+      return services
+          .tokenCache()
+          .deidentify(
+              coercePayload(payload), callScope(cfg), misses -> dispatch(cfg, misses));
+    }
+    return dispatch(cfg, payload);
+  }
+
+  private Map<String, Object> dispatch(Config cfg, Object payload) throws Exception {
+    if (cfg.batchWindowMs > 0) {
+      return await(
+          services
+              .batcher()
+              .submit(
+                  BatchKey.of(cfg),
+                  coercePayload(payload),
+                  Duration.ofMillis(cfg.batchWindowMs),
+                  cfg.maxBatchSize,
+                  combined -> process(cfg, combined)));
+    }
+    return process(cfg, payload);
+  }
 
-    String base64Payload = encodePayloadAsBase64(cfg.payload);
+  /** Tokens may only be cached when Skyflow returns the same token for the same value. */
+  private boolean usesTokenCache(Config cfg) {
+    return cfg.operation == SkyflowOperationType.DEIDENTIFY
+        && cfg.tokenCache
+        && (TOKEN_TYPE_STATIC.equals(cfg.tokenType) || cfg.deterministicVaultTokens);
+  }
 
-    var http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(20)).build();
+  /** Vault, caller and settings a token or run is only valid for. */
+  private static String callScope(Config cfg) {
+    return String.join(
+        "|",
+        cfg.baseUrl,
+        cfg.vaultId,
+        cfg.principal,
+        cfg.tokenType,
+        String.join(",", cfg.entityTypes == null ? Set.of() : new TreeSet<>(cfg.entityTypes)));
+  }
+
+  private Map<String, Object> process(Config cfg, Object payload) throws Exception {
+    var payloadMap = coercePayload(payload);
+
+    var http = services.transports().forBaseUrl(cfg.baseUrl);
 
     return switch (cfg.operation) {
       case DEIDENTIFY -> {
-        String runId = startDeidentify(http, cfg, base64Payload);
-        yield pollForResult(http, cfg, runId);
+        var text = cfg.syncMaxChars > 0 ? TextLeaves.of(payloadMap, cfg.syncMaxChars) : null;
+        if (text != null) {
+          var result = deidentifyText(http, cfg, text);
+          if (result != null) {
+            yield result;
+          }
+        }
+        var chunks =
+            cfg.maxChunkBytes > 0
+                ? JsonChunker.split(MAPPER, payloadMap, cfg.maxChunkBytes)
+                : List.of(payloadMap);
+        yield chunks.size() == 1
+            ? deidentify(http, cfg, payloadMap)
+            : JsonChunker.merge(deidentifyChunks(http, cfg, chunks));
+      }
+      case REIDENTIFY -> {
+        var body = reidentifyBody(cfg, payloadMap);
+        var decoded = timed(cfg, PHASE_REIDENTIFY, () -> reidentify(http, cfg, body, null));
+        recordPayloadBytes(cfg, "request", body.payloadBytes());
+        yield processedFile(cfg, decoded);
+      }
+      case DEIDENTIFY_START, DEIDENTIFY_AWAIT ->
+          throw new IllegalStateException(cfg.operation + " does not process a payload");
+    };
+  }
+
+  /**
+   * Starts a run for the payload and polls it. Runs are remembered in the run store until they
+   * completed, so a retry of the job after a poll timeout or a crash resumes polling the run it
+   * already started. Batched calls combine the payloads of several jobs and are not remembered.
+   */
+  private Map<String, Object> deidentify(
+      SkyflowTransport http, Config cfg, Map<String, Object> payload) throws Exception {
+    var runKey =
+        cfg.batchWindowMs > 0 || services.runStore() == SkyflowRunStore.NONE
+            ? null
+            : RunKey.of(cfg, payload);
+    if (runKey != null) {
+      var resumed = resume(http, cfg, runKey);
+      if (resumed != null) {
+        return resumed;
+      }
+    }
+    var body = deidentifyBody(cfg, payload);
+    String runId =
+        timed(
+            cfg,
+            PHASE_START,
+            () -> startDeidentify(http, cfg, SkyflowFileFormat.JSON.deidentifyPath(), body));
+    long payloadBytes = body.payloadBytes();
+    recordPayloadBytes(cfg, "request", payloadBytes);
+    if (runKey != null) {
+      services.runStore().save(runKey.key(), runId);
+    }
+    var strategy = pollingStrategy(cfg, payloadBytes);
+    var decoded =
+        timed(
+            cfg,
+            PHASE_POLL,
+            () -> pollForResult(http, cfg, runId, strategy, cfg.maxPollAttempts, runKey, null));
+    return processedFile(cfg, decoded);
+  }
+
+  /**
+   * Polls the run an earlier attempt started for the same payload, or returns {@code null} if
+   * there is none. A run that failed or can no longer be polled is forgotten so that a new one is
+   * started; a poll timeout is rethrown and the run stays resumable.
+   */
+  private Map<String, Object> resume(SkyflowTransport http, Config cfg, RunKey runKey)
+      throws Exception {
+    var runId = services.runStore().find(runKey.key());
+    if (runId == null) {
+      return null;
+    }
+    var strategy = new ResumedPollingStrategy(pollingStrategy(cfg, runKey.payloadBytes()));
+    try {
+      var decoded =
+          timed(
+              cfg,
+              PHASE_POLL,
+              () -> pollForResult(http, cfg, runId, strategy, cfg.maxPollAttempts, runKey, null));
+      return processedFile(cfg, decoded);
+    } catch (ConnectorException e) {
+      if (!"SKYFLOW_RUN_FAILED".equals(e.getErrorCode())
+          && !"SKYFLOW_POLL_FAILED".equals(e.getErrorCode())) {
+        throw e;
+      }
+      services.runStore().remove(runKey.key());
+      return null;
+    }
+  }
+
+  /**
+   * De-identifies the text leaves of a small payload with one synchronous request. Returns {@code
+   * null} if the processed text cannot be split back into the leaves, so that the caller falls
+   * back to a file run.
+   */
+  private Map<String, Object> deidentifyText(SkyflowTransport http, Config cfg, TextLeaves text)
+      throws Exception {
+    if (text.isEmpty()) {
+      return text.rebuild("");
+    }
+    byte[] body =
+        MAPPER.writeValueAsBytes(
+            new SkyflowDeidentifyStringRequest(
+                text.text(),
+                cfg.vaultId,
+                new SkyflowDeidentifyStructuredTextRequest.TokenType(cfg.tokenType),
+                (cfg.entityTypes == null || cfg.entityTypes.isEmpty()) ? null : cfg.entityTypes));
+    HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(URI.create(cfg.baseUrl + "/v1/detect/deidentify/string"))
+            .header(AUTHORIZATION_HEADER, BEARER_PREFIX + cfg.bearerToken.get())
+            .header(CONTENT_TYPE_HEADER, CONTENT_TYPE_JSON)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+
+    var parsed =
+        timed(
+            cfg,
+            PHASE_DEIDENTIFY_STRING,
+            () -> {
+              HttpResponse<InputStream> resp =
+                  send(
+                      http,
+                      cfg,
+                      SkyflowEndpoint.DEIDENTIFY_STRING,
+                      request,
+                      "SKYFLOW_DEIDENTIFY_STRING_FAILED");
+              try (var in = resp.body()) {
+                return MAPPER.readValue(in, SkyflowDeidentifyStringResponse.class);
+              }
+            });
+    recordPayloadBytes(cfg, "request", text.text().getBytes(StandardCharsets.UTF_8).length);
+    var result = text.rebuild(parsed.processedText());
+    if (result != null && parsed.processedText() != null) {
+      recordPayloadBytes(
+          cfg, "response", parsed.processedText().getBytes(StandardCharsets.UTF_8).length);
+    }
+    return result;
+  }
+
+  /**
+   * Runs one Skyflow run per chunk, at most {@code chunkParallelism} at a time. The runs are
+   * polled together by the completion engine; the first failure cancels the remaining chunks.
+   */
+  private List<Map<String, Object>> deidentifyChunks(
+      SkyflowTransport http, Config cfg, List<Map<String, Object>> chunks) throws Exception {
+    try (var workers =
+        Executors.newFixedThreadPool(
+            Math.min(cfg.chunkParallelism, chunks.size()),
+            Thread.ofVirtual().name("skyflow-chunk-", 0).factory())) {
+      var pending = new ArrayList<Future<Map<String, Object>>>(chunks.size());
+      for (var chunk : chunks) {
+        pending.add(workers.submit(() -> deidentify(http, cfg, chunk)));
+      }
+      var results = new ArrayList<Map<String, Object>>(chunks.size());
+      try {
+        for (var future : pending) {
+          results.add(await(future));
+        }
+      } catch (Exception e) {
+        pending.forEach(future -> future.cancel(true));
+        throw e;
+      }
+      return results;
+    }
+  }
+
+  private Map<String, Object> processedFile(Config cfg, Decoded<?> decoded) {
+    recordPayloadBytes(cfg, "response", decoded.processedFileBytes());
+    return decoded.requireProcessedFile();
+  }
+
+  /**
+   * Returns results larger than {@code documentThresholdBytes} of JSON as a Camunda document,
+   * which the process receives as a document reference, and smaller ones as they are.
+   */
+  private Object output(Config cfg, Object result) throws Exception {
+    if (cfg.documentThresholdBytes < 0
+        || JsonTrees.estimatedJsonBytes(result) <= cfg.documentThresholdBytes) {
+      return result;
+    }
+    return timed(
+        cfg,
+        PHASE_DOCUMENT,
+        () ->
+            SkyflowResultDocuments.store(
+                cfg.documents, MAPPER, result, "skyflow-" + operationTag(cfg) + ".json"));
+  }
+
+  private <T> T timed(Config cfg, String phase, Callable<T> call) throws Exception {
+    long started = System.nanoTime();
+    String outcome = SkyflowMetrics.OUTCOME_ERROR;
+    try {
+      T result = call.call();
+      outcome = SkyflowMetrics.OUTCOME_SUCCESS;
+      return result;
+    } finally {
+      services
+          .metrics()
+          .recordPhase(
+              operationTag(cfg), phase, outcome, Duration.ofNanos(System.nanoTime() - started));
+    }
+  }
+
+  private void recordPayloadBytes(Config cfg, String direction, long bytes) {
+    services.metrics().recordPayloadBytes(operationTag(cfg), direction, bytes);
+  }
+
+  private static String operationTag(Config cfg) {
+    return cfg.operation.name().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Supplies the bearer token sent with every request. Service account tokens come from the
+   * node-wide cache and may change between the calls of a job.
+   */
+  static Supplier<String> bearerToken(
+      SkyflowServices services, String baseUrl, SkyflowAuthentication auth) {
+    if (!auth.serviceAccount()) {
+      if (auth.apiToken() == null || auth.apiToken().isBlank()) {
+        throw new ConnectorException("SKYFLOW_BAD_CREDENTIALS", "API token is required");
+      }
+      return auth::apiToken;
+    }
+    if (auth.credentials() == null || auth.credentials().isBlank()) {
+      throw new ConnectorException(
+          "SKYFLOW_BAD_CREDENTIALS", "Service account credentials are required");
+    }
+    var credentials = SkyflowCredentials.parse(auth.credentials());
+    String vault = vaultKey(baseUrl, auth.vaultId());
+    return () -> {
+      try {
+        return services.bearerTokens().token(vault, credentials);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ConnectorException(
+            "SKYFLOW_AUTH_FAILED", "Interrupted while waiting for a bearer token", e);
       }
-      case REIDENTIFY -> reidentify(http, cfg, base64Payload);
     };
   }
 
-  private Config toConfig(SkyflowRequest request) {
+  /**
+   * Who calls Skyflow; calls, runs and cached tokens of different principals are never shared.
+   * API tokens are hashed so that they are not kept in batch or cache keys.
+   */
+  private static String principal(SkyflowAuthentication auth) {
+    if (!auth.serviceAccount()) {
+      var hash = new HashingOutputStream();
+      hash.digest.update(auth.apiToken().getBytes(StandardCharsets.UTF_8));
+      return "api-token:"
+          + Base64.getUrlEncoder().withoutPadding().encodeToString(hash.digest.digest());
+    }
+    var credentials = SkyflowCredentials.parse(auth.credentials());
+    return "service-account:" + credentials.clientId() + ":" + credentials.keyId();
+  }
+
+  private static String errorCode(Exception e) {
+    if (e instanceof ConnectorException ce && ce.getErrorCode() != null) {
+      return ce.getErrorCode();
+    }
+    return "UNEXPECTED";
+  }
+
+  private Config toConfig(SkyflowRequest request, DocumentFactory documents) {
     var auth = request.authentication();
+    String baseUrl = normalizeBaseUrl(auth.vaultUri(), Boolean.TRUE.equals(request.sandbox()));
+    // validates the credentials before they are hashed
+    var bearerToken = bearerToken(services, baseUrl, auth);
     return new Config(
         request.operation(),
-        normalizeBaseUrl(auth.vaultUri(), Boolean.TRUE.equals(request.sandbox())),
+        baseUrl,
         auth.vaultId(),
-        auth.apiToken(),
+        principal(auth),
+        bearerToken,
         request.payload(),
         request.tokenType() != null ? request.tokenType() : "vault_token",
         request.entityTypes(),
         request.pollIntervalMs() != null ? request.pollIntervalMs() : DEFAULT_POLL_INTERVAL_MS,
-        request.maxPollAttempts() != null ? request.maxPollAttempts() : DEFAULT_MAX_POLL_ATTEMPTS);
+        request.maxPollAttempts() != null ? request.maxPollAttempts() : DEFAULT_MAX_POLL_ATTEMPTS,
+        request.pollingStrategy() != null
+            ? request.pollingStrategy()
+            : SkyflowPollingStrategy.FIXED,
+        request.batchWindowMs() != null ? request.batchWindowMs() : 0,
+        request.maxBatchSize() != null ? request.maxBatchSize() : DEFAULT_MAX_BATCH_SIZE,
+        Boolean.TRUE.equals(request.tokenCache()),
+        Boolean.TRUE.equals(request.deterministicVaultTokens()),
+        request.maxChunkBytes() != null ? request.maxChunkBytes() : 0,
+        request.chunkParallelism() != null && request.chunkParallelism() > 0
+            ? request.chunkParallelism()
+            : DEFAULT_CHUNK_PARALLELISM,
+        FieldSelection.of(request.includePaths(), request.excludePaths()),
+        request.runId(),
+        request.maxWaitMs() != null ? Math.max(0, request.maxWaitMs()) : 0,
+        request.syncMaxChars() != null ? request.syncMaxChars() : 0,
+        request.documentThresholdBytes() != null
+            ? Math.max(0, request.documentThresholdBytes())
+            : -1,
+        documents);
   }
 
-  private String encodePayloadAsBase64(Object payload) throws Exception {
-    var payloadMap = coercePayload(payload);
-    var json = MAPPER.writeValueAsString(payloadMap);
-    return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  /**
+   * Request bodies are streamed: the payload is serialized and base64-encoded straight into the
+   * HTTP request instead of being materialized as strings first.
+   */
+  private SkyflowFileBodyPublisher deidentifyBody(Config cfg, Map<String, Object> payload)
+      throws Exception {
+    return SkyflowFileBodyPublisher.of(
+        MAPPER,
+        new SkyflowDeidentifyStructuredTextRequest(
+            new SkyflowFile(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER, DATA_FORMAT_JSON),
+            cfg.vaultId,
+            new SkyflowDeidentifyStructuredTextRequest.TokenType(cfg.tokenType),
+            (cfg.entityTypes == null || cfg.entityTypes.isEmpty()) ? null : cfg.entityTypes),
+        payload);
   }
 
-  private String normalizeBaseUrl(String vaultUri, boolean sandbox) {
+  private SkyflowFileBodyPublisher reidentifyBody(Config cfg, Map<String, Object> payload)
+      throws Exception {
+    return SkyflowFileBodyPublisher.of(
+        MAPPER,
+        new SkyflowReidentifyFileRequest(
+            new SkyflowFile(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER, DATA_FORMAT_JSON),
+            cfg.vaultId),
+        payload);
+  }
+
+  /** Like the JSON bodies, but streams the content of {@code document} as the file. */
+  private SkyflowFileBodyPublisher documentBody(
+      Config cfg, SkyflowFileFormat format, Document document) throws Exception {
+    var file = new SkyflowFile(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER, format.dataFormat());
+    // the other de-identify file endpoints take the same fields as the structured text one
+    Object envelope =
+        cfg.operation == SkyflowOperationType.REIDENTIFY
+            ? new SkyflowReidentifyFileRequest(file, cfg.vaultId)
+            : new SkyflowDeidentifyStructuredTextRequest(
+                file,
+                cfg.vaultId,
+                new SkyflowDeidentifyStructuredTextRequest.TokenType(cfg.tokenType),
+                (cfg.entityTypes == null || cfg.entityTypes.isEmpty()) ? null : cfg.entityTypes);
+    return SkyflowFileBodyPublisher.ofContent(MAPPER, envelope, document::asInputStream);
+  }
+
+  static String normalizeBaseUrl(String vaultUri, boolean sandbox) {
     if (vaultUri.startsWith("http")) {
       return vaultUri.replaceAll("/+$", "");
     }
@@ -108,26 +756,26 @@ public class SkyflowDetectConnector implements OutboundConnectorFunction {
     return "https://" + host;
   }
 
-  private String startDeidentify(HttpClient http, Config cfg, String base64) throws Exception {
-    SkyflowDeidentifyStructuredTextRequest body =
-        new SkyflowDeidentifyStructuredTextRequest(
-            new SkyflowFile(base64, DATA_FORMAT_JSON),
-            cfg.vaultId,
-            new SkyflowDeidentifyStructuredTextRequest.TokenType(cfg.tokenType),
-            (cfg.entityTypes == null || cfg.entityTypes.isEmpty()) ? null : cfg.entityTypes);
-
+  private String startDeidentify(
+      SkyflowTransport http, Config cfg, String path, SkyflowFileBodyPublisher body)
+      throws Exception {
     HttpRequest request =
-        HttpRequest.newBuilder()
-            .uri(URI.create(cfg.baseUrl + "/v1/detect/deidentify/file/structured_text"))
-            .header(AUTHORIZATION_HEADER, BEARER_PREFIX + cfg.apiToken)
-            .header(CONTENT_TYPE_HEADER, CONTENT_TYPE_JSON)
-            .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+        http.post(
+                HttpRequest.newBuilder()
+                    .uri(URI.create(cfg.baseUrl + path))
+                    .header(AUTHORIZATION_HEADER, BEARER_PREFIX + cfg.bearerToken.get())
+                    .header(CONTENT_TYPE_HEADER, CONTENT_TYPE_JSON),
+                SkyflowEndpoint.DEIDENTIFY,
+                body)
             .build();
 
-    HttpResponse<String> resp = send(http, request, "SKYFLOW_DEIDENTIFY_START_FAILED");
+    HttpResponse<InputStream> resp =
+        send(http, cfg, SkyflowEndpoint.DEIDENTIFY, request, "SKYFLOW_DEIDENTIFY_START_FAILED");
 
-    SkyflowDetectRunStartResponse parsed =
-        MAPPER.readValue(resp.body(), SkyflowDetectRunStartResponse.class);
+    SkyflowDetectRunStartResponse parsed;
+    try (var in = resp.body()) {
+      parsed = MAPPER.readValue(in, SkyflowDetectRunStartResponse.class);
+    }
     if (parsed.runId() == null || parsed.runId().isBlank()) {
       throw new ConnectorException(
           "SKYFLOW_MISSING_RUN_ID", "Skyflow response did not include run_id");
@@ -135,35 +783,56 @@ public class SkyflowDetectConnector implements OutboundConnectorFunction {
     return parsed.runId();
   }
 
-  private Map<String, Object> pollForResult(HttpClient http, Config cfg, String runId)
+  private Decoded<SkyflowDetectRunStatusResponse> pollForResult(
+      SkyflowTransport http,
+      Config cfg,
+      String runId,
+      PollingStrategy strategy,
+      int maxAttempts,
+      RunKey runKey,
+      ProcessedFileTarget target)
       throws Exception {
-    int attempts = 0;
-    while (attempts++ < cfg.maxPollAttempts) {
-      HttpRequest req =
-          HttpRequest.newBuilder()
-              .uri(URI.create(runStatusUri(cfg, runId)))
-              .header(AUTHORIZATION_HEADER, BEARER_PREFIX + cfg.apiToken)
-              .GET()
-              .build();
-
-      HttpResponse<String> resp = send(http, req, "SKYFLOW_POLL_FAILED");
-
-      SkyflowDetectRunStatusResponse parsed =
-          MAPPER.readValue(resp.body(), SkyflowDetectRunStatusResponse.class);
-      String status = parsed.status() != null ? parsed.status() : "";
-
-      if ("SUCCESS".equalsIgnoreCase(status)) {
-        return decodeProcessedFileFromRunStatus(parsed);
-      }
-      if ("FAILED".equalsIgnoreCase(status) || "ERROR".equalsIgnoreCase(status)) {
-        throw new ConnectorException(
-            "SKYFLOW_RUN_FAILED", "Skyflow run status: " + status + " - " + resp.body());
+    String statusUri = runStatusUri(cfg.baseUrl, cfg.vaultId, runId);
+    Decoded<SkyflowDetectRunStatusResponse> decoded;
+    try {
+      decoded =
+          services
+              .completionEngine()
+              .awaitCompletion(
+                  new SkyflowRunCompletionEngine.RunPoll(
+                      statusUri,
+                      cfg.vaultId,
+                      http,
+                      () ->
+                          HttpRequest.newBuilder()
+                              .uri(URI.create(statusUri))
+                              .header(AUTHORIZATION_HEADER, BEARER_PREFIX + cfg.bearerToken.get())
+                              .GET()
+                              .build(),
+                      strategy,
+                      maxAttempts,
+                      target));
+    } catch (ConnectorException e) {
+      if (runKey != null && "SKYFLOW_RUN_FAILED".equals(e.getErrorCode())) {
+        services.runStore().remove(runKey.key());
       }
-      Thread.sleep(cfg.pollIntervalMs);
+      throw e;
+    }
+    if (runKey != null) {
+      services.runStore().remove(runKey.key());
     }
-    throw new ConnectorException(
-        "SKYFLOW_POLL_TIMEOUT",
-        "Skyflow run did not complete after " + cfg.maxPollAttempts + " attempts");
+    return decoded;
+  }
+
+  private PollingStrategy pollingStrategy(Config cfg, long payloadBytes) {
+    var interval = Duration.ofMillis(cfg.pollIntervalMs);
+    return switch (cfg.pollingStrategy) {
+      case FIXED -> new FixedPollingStrategy(interval);
+      case EXPONENTIAL -> ExponentialJitterPollingStrategy.upTo(interval);
+      case LEARNED ->
+          new LearnedPollingStrategy(
+              services.durationModel(), vaultKey(cfg.baseUrl, cfg.vaultId), payloadBytes, interval);
+    };
   }
 
   /**
@@ -171,61 +840,60 @@ public class SkyflowDetectConnector implements OutboundConnectorFunction {
    *
    * <p>Skyflow run status requires the vault id as a query param.
    */
-  private String runStatusUri(Config cfg, String runId) {
-    return cfg.baseUrl
-        + "/v1/detect/runs/"
-        + urlEncode(runId)
-        + "?vault_id="
-        + urlEncode(cfg.vaultId);
+  static String runStatusUri(String baseUrl, String vaultId, String runId) {
+    return baseUrl + "/v1/detect/runs/" + urlEncode(runId) + "?vault_id=" + urlEncode(vaultId);
   }
 
-  private String urlEncode(String value) {
+  /** Identifies a vault across connector instances. */
+  static String vaultKey(String baseUrl, String vaultId) {
+    return baseUrl + "|" + vaultId;
+  }
+
+  private static String urlEncode(String value) {
     return URLEncoder.encode(value, StandardCharsets.UTF_8);
   }
 
-  private Map<String, Object> reidentify(HttpClient http, Config cfg, String base64)
+  /** Parses the processed file as JSON, or writes it to {@code target} if there is one. */
+  private Decoded<SkyflowReidentifyResponse> reidentify(
+      SkyflowTransport http, Config cfg, SkyflowFileBodyPublisher body, ProcessedFileTarget target)
       throws Exception {
-    SkyflowReidentifyFileRequest body =
-        new SkyflowReidentifyFileRequest(new SkyflowFile(base64, DATA_FORMAT_JSON), cfg.vaultId);
-
     HttpRequest request =
-        HttpRequest.newBuilder()
-            .uri(URI.create(cfg.baseUrl + "/v1/detect/reidentify/file"))
-            .header(AUTHORIZATION_HEADER, BEARER_PREFIX + cfg.apiToken)
-            .header(CONTENT_TYPE_HEADER, CONTENT_TYPE_JSON)
-            .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+        http.post(
+                HttpRequest.newBuilder()
+                    .uri(URI.create(cfg.baseUrl + "/v1/detect/reidentify/file"))
+                    .header(AUTHORIZATION_HEADER, BEARER_PREFIX + cfg.bearerToken.get())
+                    .header(CONTENT_TYPE_HEADER, CONTENT_TYPE_JSON),
+                SkyflowEndpoint.REIDENTIFY,
+                body)
             .build();
 
-    HttpResponse<String> resp = send(http, request, "SKYFLOW_REIDENTIFY_FAILED");
+    HttpResponse<InputStream> resp =
+        send(http, cfg, SkyflowEndpoint.REIDENTIFY, request, "SKYFLOW_REIDENTIFY_FAILED");
 
-    SkyflowReidentifyResponse parsed = MAPPER.readValue(resp.body(), SkyflowReidentifyResponse.class);
-    return decodeProcessedFileBase64(parsed.output() != null ? parsed.output().processedFile() : null);
+    return target == null
+        ? SkyflowResponseDecoder.decode(MAPPER, resp.body(), SkyflowReidentifyResponse.class)
+        : SkyflowResponseDecoder.decode(
+            MAPPER, resp.body(), SkyflowReidentifyResponse.class, target);
   }
 
-  private Map<String, Object> decodeProcessedFileFromRunStatus(SkyflowDetectRunStatusResponse resp)
-      throws Exception {
-    String base64 = null;
-    if (resp.output() != null && !resp.output().isEmpty()) {
-      base64 = resp.output().getFirst().processedFile();
+  /** Returns the records of a list payload, or {@code null} if the payload is not a list. */
+  static List<?> coerceRecords(Object payload) {
+    if (payload instanceof List<?> records) {
+      return records;
     }
-    return decodeProcessedFileBase64(base64);
-  }
-
-  private Map<String, Object> decodeProcessedFileBase64(String base64ProcessedFile)
-      throws Exception {
-    if (base64ProcessedFile == null || base64ProcessedFile.isBlank()) {
-      throw new ConnectorException(
-          "SKYFLOW_MISSING_PROCESSED_FILE", "Missing processed_file in Skyflow response");
+    if (payload instanceof String json && json.stripLeading().startsWith("[")) {
+      try {
+        return MAPPER.readValue(json, List.class);
+      } catch (Exception e) {
+        throw new ConnectorException(
+            "SKYFLOW_BAD_PAYLOAD", "Payload must be a JSON object or a list of objects", e);
+      }
     }
-
-    byte[] decoded = Base64.getDecoder().decode(base64ProcessedFile);
-    @SuppressWarnings("unchecked")
-    Map<String, Object> result = MAPPER.readValue(decoded, Map.class);
-    return result;
+    return null;
   }
 
   @SuppressWarnings("unchecked")
-  private Map<String, Object> coercePayload(Object payload) {
+  static Map<String, Object> coercePayload(Object payload) {
     if (payload == null) {
       throw new ConnectorException("SKYFLOW_EMPTY_PAYLOAD", "Payload (FEEL → JSON) is required");
     }
@@ -240,25 +908,149 @@ public class SkyflowDetectConnector implements OutboundConnectorFunction {
     }
   }
 
-  private HttpResponse<String> send(HttpClient http, HttpRequest request, String errorCode)
+  /**
+   * Sends a request through the transport, which rate limits, retries and guards it with the
+   * vault's circuit breaker. The response body is returned as a stream; error responses are small
+   * and read fully for the exception message.
+   */
+  private HttpResponse<InputStream> send(
+      SkyflowTransport http,
+      Config cfg,
+      SkyflowEndpoint endpoint,
+      HttpRequest request,
+      String errorCode)
       throws Exception {
-    HttpResponse<String> resp = http.send(request, HttpResponse.BodyHandlers.ofString());
+    HttpResponse<InputStream> resp =
+        http.send(cfg.vaultId, endpoint, request, http.bodyHandler());
     if (resp.statusCode() / 100 != 2) {
-      throw new ConnectorException(
-          errorCode,
-          "Skyflow request failed: HTTP " + resp.statusCode() + " - " + resp.body());
+      try (var body = resp.body()) {
+        throw new SkyflowHttpException(
+            errorCode,
+            resp.statusCode(),
+            new String(body.readAllBytes(), StandardCharsets.UTF_8));
+      }
     }
     return resp;
   }
 
+  private static <T> T await(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
   private record Config(
       SkyflowOperationType operation,
       String baseUrl,
       String vaultId,
-      String apiToken,
+      String principal,
+      Supplier<String> bearerToken,
       Object payload,
       String tokenType,
       java.util.List<String> entityTypes,
       int pollIntervalMs,
-      int maxPollAttempts) {}
+      int maxPollAttempts,
+      SkyflowPollingStrategy pollingStrategy,
+      int batchWindowMs,
+      int maxBatchSize,
+      boolean tokenCache,
+      boolean deterministicVaultTokens,
+      int maxChunkBytes,
+      int chunkParallelism,
+      FieldSelection fields,
+      String runId,
+      int maxWaitMs,
+      int syncMaxChars,
+      long documentThresholdBytes,
+      DocumentFactory documents) {}
+
+  /**
+   * Identifies the run of a payload in the run store: a SHA-256 hash of the call scope and the
+   * payload JSON, so that no cleartext is stored. Jobs de-identifying the same payload the same
+   * way may share a run.
+   *
+   * @param payloadBytes size of the payload JSON, counted while hashing
+   */
+  private record RunKey(String key, long payloadBytes) {
+
+    static RunKey of(Config cfg, Map<String, Object> payload) throws IOException {
+      var hash = new HashingOutputStream();
+      hash.digest.update(callScope(cfg).getBytes(StandardCharsets.UTF_8));
+      hash.digest.update((byte) 0);
+      MAPPER.writeValue(hash, payload);
+      return new RunKey(
+          Base64.getUrlEncoder().withoutPadding().encodeToString(hash.digest.digest()),
+          hash.bytes);
+    }
+  }
+
+  /** Hashes and counts what is written to it. */
+  private static final class HashingOutputStream extends OutputStream {
+
+    private final MessageDigest digest;
+    private long bytes;
+
+    HashingOutputStream() {
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 not available", e);
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      digest.update((byte) b);
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      digest.update(b, off, len);
+      bytes += len;
+    }
+  }
+
+  /**
+   * Jobs can share a Skyflow call only if all of these match, including the settings of how the
+   * combined call is made and polled, since it is made with the settings of the first job.
+   */
+  private record BatchKey(
+      SkyflowOperationType operation,
+      String baseUrl,
+      String vaultId,
+      String principal,
+      String tokenType,
+      Set<String> entityTypes,
+      int pollIntervalMs,
+      int maxPollAttempts,
+      SkyflowPollingStrategy pollingStrategy,
+      int maxChunkBytes,
+      int chunkParallelism,
+      int syncMaxChars) {
+
+    static BatchKey of(Config cfg) {
+      return new BatchKey(
+          cfg.operation,
+          cfg.baseUrl,
+          cfg.vaultId,
+          cfg.principal,
+          cfg.operation == SkyflowOperationType.DEIDENTIFY ? cfg.tokenType : null,
+          cfg.entityTypes == null ? Set.of() : new TreeSet<>(cfg.entityTypes),
+          cfg.pollIntervalMs,
+          cfg.maxPollAttempts,
+          cfg.pollingStrategy,
+          cfg.maxChunkBytes,
+          cfg.chunkParallelism,
+          cfg.syncMaxChars);
+    }
+  }
 }
@@ -8,5 +8,9 @@ package io.camunda.connector.skyflow;
 
 public enum SkyflowOperationType {
   DEIDENTIFY,
-  REIDENTIFY
+  REIDENTIFY,
+  /** Starts a de-identify run and returns its run ID without waiting for it. */
+  DEIDENTIFY_START,
+  /** Checks a run started by {@link #DEIDENTIFY_START}, waiting a bounded time for it. */
+  DEIDENTIFY_AWAIT
 }
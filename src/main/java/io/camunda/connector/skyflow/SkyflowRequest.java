@@ -28,7 +28,9 @@ public record SkyflowRequest(
                 defaultValue = "DEIDENTIFY",
                 choices = {
                         @TemplateProperty.DropdownPropertyChoice(value = "DEIDENTIFY", label = "De-identify"),
-                        @TemplateProperty.DropdownPropertyChoice(value = "REIDENTIFY", label = "Re-identify")
+                        @TemplateProperty.DropdownPropertyChoice(value = "REIDENTIFY", label = "Re-identify"),
+                        @TemplateProperty.DropdownPropertyChoice(value = "DEIDENTIFY_START", label = "Start de-identify run"),
+                        @TemplateProperty.DropdownPropertyChoice(value = "DEIDENTIFY_AWAIT", label = "Await de-identify run")
                 })
         @NotNull
         SkyflowOperationType operation,
@@ -37,10 +39,14 @@ public record SkyflowRequest(
                 label = "Payload",
                 group = "operation",
                 description =
-                        "FEEL expression evaluating to a JSON object with data to process. Example: { name: name, age: age }",
+                        "FEEL expression evaluating to a JSON object with data to process, to a list of such objects processed as a batch, or to a document reference whose file (JSON, CSV, text, PDF, ...) is streamed to Skyflow. Example: { name: name, age: age }",
                 type = PropertyType.Text,
-                feel = Property.FeelMode.required)
-        @NotNull
+                feel = Property.FeelMode.required,
+                constraints = @TemplateProperty.PropertyConstraints(notEmpty = true),
+                condition =
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "REIDENTIFY", "DEIDENTIFY_START"}))
         Object payload,
         @TemplateProperty(
                 id = "tokenType",
@@ -51,6 +57,10 @@ public record SkyflowRequest(
                 type = PropertyType.Dropdown,
                 defaultValue = "vault_token",
                 optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "DEIDENTIFY_START"}),
                 choices = {
                         @TemplateProperty.DropdownPropertyChoice(
                                 value = "vault_token",
@@ -70,7 +80,9 @@ public record SkyflowRequest(
                 optional = true,
                 feel = Property.FeelMode.required,
                 condition =
-                @TemplateProperty.PropertyCondition(property = "operation", equals = "DEIDENTIFY"))
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "DEIDENTIFY_START"}))
         List<String> entityTypes,
         @TemplateProperty(
                 id = "sandbox",
@@ -92,5 +104,157 @@ public record SkyflowRequest(
                 group = "advanced",
                 type = PropertyType.Number,
                 optional = true)
-        Integer maxPollAttempts) {
+        Integer maxPollAttempts,
+        @TemplateProperty(
+                id = "pollingStrategy",
+                label = "Polling strategy",
+                group = "advanced",
+                description =
+                        "How run status checks are scheduled. Fixed checks every poll interval, exponential backs off up to the poll interval, learned schedules the first check at the completion time predicted from previous runs of this vault.",
+                type = PropertyType.Dropdown,
+                defaultValue = "FIXED",
+                optional = true,
+                choices = {
+                        @TemplateProperty.DropdownPropertyChoice(value = "FIXED", label = "Fixed interval"),
+                        @TemplateProperty.DropdownPropertyChoice(value = "EXPONENTIAL", label = "Exponential backoff with jitter"),
+                        @TemplateProperty.DropdownPropertyChoice(value = "LEARNED", label = "Learned from previous runs")
+                })
+        SkyflowPollingStrategy pollingStrategy,
+        @TemplateProperty(
+                id = "batchWindowMs",
+                label = "Batch window (ms)",
+                group = "advanced",
+                description =
+                        "Opt-in micro-batching. When greater than 0, payloads of concurrent jobs with the same vault, operation, token type and entity types are collected for up to this long and sent to Skyflow as one combined file.",
+                type = PropertyType.Number,
+                optional = true)
+        Integer batchWindowMs,
+        @TemplateProperty(
+                id = "maxBatchSize",
+                label = "Max batch size",
+                group = "advanced",
+                description = "Number of payloads that flushes a batch before its window elapsed (default 100)",
+                type = PropertyType.Number,
+                optional = true)
+        Integer maxBatchSize,
+        @TemplateProperty(
+                id = "tokenCache",
+                label = "Cache tokens",
+                group = "advanced",
+                description =
+                        "Cache the token of each de-identified field value on this node and only send uncached values to Skyflow. Applies to static tokens, and to vault tokens if the vault tokenizes deterministically.",
+                type = PropertyType.Boolean,
+                optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(property = "operation", equals = "DEIDENTIFY"))
+        Boolean tokenCache,
+        @TemplateProperty(
+                id = "deterministicVaultTokens",
+                label = "Vault tokens are deterministic",
+                group = "advanced",
+                description =
+                        "Set if the vault is configured to return the same vault token for the same value, which allows caching vault tokens",
+                type = PropertyType.Boolean,
+                optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(property = "operation", equals = "DEIDENTIFY"))
+        Boolean deterministicVaultTokens,
+        @TemplateProperty(
+                id = "maxChunkBytes",
+                label = "Max chunk size (bytes)",
+                group = "advanced",
+                description =
+                        "Split payloads larger than this into chunks along keys and array elements and de-identify them as concurrent runs. Numbered placeholders restart in every chunk. Leave empty to send the payload as a whole. For a list payload, the size of each combined file (default 1 MiB).",
+                type = PropertyType.Number,
+                optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "REIDENTIFY"}))
+        Integer maxChunkBytes,
+        @TemplateProperty(
+                id = "chunkParallelism",
+                label = "Chunk parallelism",
+                group = "advanced",
+                description = "Maximum number of chunks or combined files processed at the same time (default 4)",
+                type = PropertyType.Number,
+                optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "REIDENTIFY"}))
+        Integer chunkParallelism,
+        @FEEL
+        @TemplateProperty(
+                id = "includePaths",
+                label = "Include paths",
+                group = "operation",
+                description =
+                        "Optional FEEL expression resolving to a list of JSON Pointers or JSONPaths (strings) of the fields to send to Skyflow. Example: [\"/customer/email\", \"$.items[*].note\"]. Other fields are returned unchanged. If omitted/empty, all fields are sent.",
+                optional = true,
+                feel = Property.FeelMode.required,
+                condition =
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "REIDENTIFY"}))
+        List<String> includePaths,
+        @FEEL
+        @TemplateProperty(
+                id = "excludePaths",
+                label = "Exclude paths",
+                group = "operation",
+                description =
+                        "Optional FEEL expression resolving to a list of JSON Pointers or JSONPaths (strings) of fields that are never sent to Skyflow and returned unchanged. Example: [\"/id\", \"$..amount\"]",
+                optional = true,
+                feel = Property.FeelMode.required,
+                condition =
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "REIDENTIFY"}))
+        List<String> excludePaths,
+        @TemplateProperty(
+                id = "runId",
+                label = "Run ID",
+                group = "operation",
+                description = "Run ID returned by the \"Start de-identify run\" operation",
+                feel = Property.FeelMode.optional,
+                constraints = @TemplateProperty.PropertyConstraints(notEmpty = true),
+                condition =
+                @TemplateProperty.PropertyCondition(property = "operation", equals = "DEIDENTIFY_AWAIT"))
+        String runId,
+        @TemplateProperty(
+                id = "maxWaitMs",
+                label = "Max wait (ms)",
+                group = "operation",
+                description =
+                        "How long to wait for the run to finish before returning with completed = false. Leave empty to check the run once.",
+                type = PropertyType.Number,
+                optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(property = "operation", equals = "DEIDENTIFY_AWAIT"))
+        Integer maxWaitMs,
+        @TemplateProperty(
+                id = "syncMaxChars",
+                label = "Synchronous up to (characters)",
+                group = "advanced",
+                description =
+                        "De-identify payloads whose text values add up to at most this many characters with one synchronous string request instead of a file run. Leave empty to always start a run.",
+                type = PropertyType.Number,
+                optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(property = "operation", equals = "DEIDENTIFY"))
+        Integer syncMaxChars,
+        @TemplateProperty(
+                id = "documentThresholdBytes",
+                label = "Return as document above (bytes)",
+                group = "advanced",
+                description =
+                        "Store results larger than this many bytes of JSON in the Camunda document store and return a document reference instead of the result. 0 always returns a document. Leave empty to always return the result itself.",
+                type = PropertyType.Number,
+                optional = true,
+                condition =
+                @TemplateProperty.PropertyCondition(
+                        property = "operation",
+                        oneOf = {"DEIDENTIFY", "REIDENTIFY", "DEIDENTIFY_AWAIT"}))
+        Integer documentThresholdBytes) {
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import io.camunda.connector.api.annotation.InboundConnector;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.api.inbound.CorrelationRequest;
+import io.camunda.connector.api.inbound.CorrelationResult;
+import io.camunda.connector.api.inbound.Health;
+import io.camunda.connector.api.inbound.InboundConnectorContext;
+import io.camunda.connector.api.inbound.InboundConnectorExecutable;
+import io.camunda.connector.generator.dsl.BpmnType;
+import io.camunda.connector.generator.java.annotation.ElementTemplate;
+import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
+import io.camunda.connector.skyflow.http.SkyflowTransport;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder.Decoded;
+import io.camunda.connector.skyflow.polling.FixedPollingStrategy;
+import io.camunda.connector.skyflow.polling.SkyflowRunCompletionEngine;
+import io.camunda.connector.skyflow.runs.SkyflowRunWatchers;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Intermediate catch event that waits for a run started with {@code DEIDENTIFY_START} and
+ * correlates its result into the waiting process instance.
+ *
+ * <p>Every activation watches the runs started on this node for its vault. The runs are polled by
+ * the node-wide {@link SkyflowRunCompletionEngine} through the vault's rate-limited transport, so
+ * a waiting process instance holds neither a job nor a thread. The correlated variables are
+ * {@code { runId, result }} on success and {@code { runId, error: { code, message } }} otherwise;
+ * the event's correlation key is the run ID.
+ */
+@InboundConnector(
+    name = "Skyflow Detect Run Completion",
+    type = "io.camunda:skyflow-detect-run-completion:1")
+@ElementTemplate(
+    id = "io.camunda.connectors.SkyflowDetectRunCompletion.v1",
+    name = "Skyflow Detect Run Completion Connector",
+    version = 1,
+    description = "Wait for a Skyflow Detect de-identify run started with DEIDENTIFY_START",
+    documentationRef = "https://docs.skyflow.com",
+    icon = "icon.png",
+    inputDataClass = SkyflowRunCompletionProperties.class,
+    elementTypes = {
+      @ElementTemplate.ConnectorElementType(
+          appliesTo = {BpmnType.INTERMEDIATE_THROW_EVENT, BpmnType.INTERMEDIATE_CATCH_EVENT},
+          elementType = BpmnType.INTERMEDIATE_CATCH_EVENT)
+    },
+    propertyGroups = {
+      @ElementTemplate.PropertyGroup(id = "authentication", label = "Authentication"),
+      @ElementTemplate.PropertyGroup(id = "advanced", label = "Advanced")
+    })
+public class SkyflowRunCompletionConnector
+    implements InboundConnectorExecutable<InboundConnectorContext> {
+
+  private static final int DEFAULT_POLL_INTERVAL_MS = 5000;
+  private static final int DEFAULT_MAX_POLL_ATTEMPTS = 720;
+  private static final String RESULT_RUN_ID = "runId";
+  private static final String RESULT_PROCESSED = "result";
+  private static final String RESULT_ERROR = "error";
+  private static final Duration CORRELATION_RETRY_MIN = Duration.ofSeconds(1);
+  private static final Duration CORRELATION_RETRY_MAX = Duration.ofMinutes(1);
+
+  private final SkyflowServices services;
+  private volatile Activation activation;
+
+  public SkyflowRunCompletionConnector() {
+    this(SkyflowServices.shared());
+  }
+
+  SkyflowRunCompletionConnector(SkyflowServices services) {
+    this.services = services;
+  }
+
+  @Override
+  public void activate(InboundConnectorContext context) {
+    var properties = context.bindProperties(SkyflowRunCompletionProperties.class);
+    var auth = properties.authentication();
+    String baseUrl =
+        SkyflowDetectConnector.normalizeBaseUrl(
+            auth.vaultUri(), Boolean.TRUE.equals(properties.sandbox()));
+    activation =
+        new Activation(
+            context,
+            baseUrl,
+            auth.vaultId(),
+            SkyflowDetectConnector.bearerToken(services, baseUrl, auth),
+            services.transports().forBaseUrl(baseUrl),
+            Duration.ofMillis(
+                properties.pollIntervalMs() != null
+                    ? properties.pollIntervalMs()
+                    : DEFAULT_POLL_INTERVAL_MS),
+            properties.maxPollAttempts() != null
+                ? properties.maxPollAttempts()
+                : DEFAULT_MAX_POLL_ATTEMPTS);
+    services.runWatchers().subscribe(activation.vault, activation);
+    context.reportHealth(Health.up());
+  }
+
+  @Override
+  public void deactivate() {
+    var current = activation;
+    if (current != null) {
+      activation = null;
+      services.runWatchers().unsubscribe(current.vault, current);
+      current.close();
+    }
+  }
+
+  /** Runs watched by one activation; a run is tracked at most once per activation. */
+  private final class Activation implements SkyflowRunWatchers.Watcher {
+
+    private final InboundConnectorContext context;
+    private final String baseUrl;
+    private final String vaultId;
+    private final Supplier<String> bearerToken;
+    private final String vault;
+    private final SkyflowTransport transport;
+    private final Duration pollInterval;
+    private final int maxPollAttempts;
+    private final Map<String, CompletableFuture<Decoded<SkyflowDetectRunStatusResponse>>>
+        tracked = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private Activation(
+        InboundConnectorContext context,
+        String baseUrl,
+        String vaultId,
+        Supplier<String> bearerToken,
+        SkyflowTransport transport,
+        Duration pollInterval,
+        int maxPollAttempts) {
+      this.context = context;
+      this.baseUrl = baseUrl;
+      this.vaultId = vaultId;
+      this.bearerToken = bearerToken;
+      this.vault = SkyflowDetectConnector.vaultKey(baseUrl, vaultId);
+      this.transport = transport;
+      this.pollInterval = pollInterval;
+      this.maxPollAttempts = maxPollAttempts;
+    }
+
+    @Override
+    public void watch(String runId) {
+      if (closed || tracked.containsKey(runId)) {
+        return;
+      }
+      String statusUri = SkyflowDetectConnector.runStatusUri(baseUrl, vaultId, runId);
+      var future =
+          services
+              .completionEngine()
+              .track(
+                  new SkyflowRunCompletionEngine.RunPoll(
+                      statusUri,
+                      vaultId,
+                      transport,
+                      () ->
+                          HttpRequest.newBuilder()
+                              .uri(URI.create(statusUri))
+                              .header(
+                                  SkyflowDetectConnector.AUTHORIZATION_HEADER,
+                                  SkyflowDetectConnector.BEARER_PREFIX + bearerToken.get())
+                              .GET()
+                              .build(),
+                      new FixedPollingStrategy(pollInterval),
+                      maxPollAttempts));
+      if (tracked.putIfAbsent(runId, future) != null) {
+        future.cancel(false);
+        return;
+      }
+      future.whenComplete((decoded, error) -> completed(runId, decoded, error));
+    }
+
+    private void completed(
+        String runId, Decoded<SkyflowDetectRunStatusResponse> decoded, Throwable error) {
+      var cause = error instanceof CompletionException ? error.getCause() : error;
+      if (closed || cause instanceof CancellationException) {
+        tracked.remove(runId);
+        return;
+      }
+      Map<String, Object> variables;
+      if (cause != null) {
+        variables = failed(runId, cause);
+      } else {
+        try {
+          variables =
+              Map.of(RESULT_RUN_ID, runId, RESULT_PROCESSED, decoded.requireProcessedFile());
+        } catch (ConnectorException e) {
+          variables = failed(runId, e);
+        }
+      }
+      correlate(runId, variables, 0);
+    }
+
+    /**
+     * Correlates the outcome of a run, retrying with back-off while the correlation fails. The
+     * run stays tracked meanwhile; once the activation closes it stays pending and is handed to
+     * the next activation of the vault.
+     */
+    private void correlate(String runId, Map<String, Object> variables, int failures) {
+      if (closed) {
+        return;
+      }
+      var result =
+          context.correlate(
+              CorrelationRequest.builder().variables(variables).messageId(runId).build());
+      if (result instanceof CorrelationResult.Failure failure) {
+        context.reportHealth(Health.down("lastCorrelationFailure", failure.message()));
+        var delay = CORRELATION_RETRY_MIN.multipliedBy(1L << Math.min(failures, 6));
+        if (delay.compareTo(CORRELATION_RETRY_MAX) > 0) {
+          delay = CORRELATION_RETRY_MAX;
+        }
+        CompletableFuture.runAsync(
+            () -> correlate(runId, variables, failures + 1),
+            CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS));
+        return;
+      }
+      if (failures > 0) {
+        context.reportHealth(Health.up());
+      }
+      tracked.remove(runId);
+      services.runWatchers().finished(vault, runId);
+    }
+
+    private void close() {
+      closed = true;
+      tracked.values().forEach(future -> future.cancel(false));
+      tracked.clear();
+    }
+  }
+
+  private static Map<String, Object> failed(String runId, Throwable e) {
+    String code =
+        e instanceof ConnectorException ce && ce.getErrorCode() != null
+            ? ce.getErrorCode()
+            : "UNEXPECTED";
+    return Map.of(
+        RESULT_RUN_ID,
+        runId,
+        RESULT_ERROR,
+        Map.of("code", code, "message", String.valueOf(e.getMessage())));
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import io.camunda.connector.generator.java.annotation.TemplateProperty;
+import io.camunda.connector.generator.java.annotation.TemplateProperty.PropertyType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public record SkyflowRunCompletionProperties(
+        @TemplateProperty(id = "authentication", label = "Authentication", group = "authentication")
+        @Valid
+        @NotNull
+        SkyflowAuthentication authentication,
+        @TemplateProperty(
+                id = "sandbox",
+                label = "Use Sandbox (preview) API",
+                group = "advanced",
+                type = PropertyType.Boolean,
+                optional = true)
+        Boolean sandbox,
+        @TemplateProperty(
+                id = "pollIntervalMs",
+                label = "Poll interval (ms)",
+                group = "advanced",
+                description = "Time between status checks of a pending run. Default: 5000",
+                type = PropertyType.Number,
+                optional = true)
+        Integer pollIntervalMs,
+        @TemplateProperty(
+                id = "maxPollAttempts",
+                label = "Max poll attempts",
+                group = "advanced",
+                description =
+                        "Status checks before a run is correlated as failed with SKYFLOW_POLL_TIMEOUT. Default: 720",
+                type = PropertyType.Number,
+                optional = true)
+        Integer maxPollAttempts) {}
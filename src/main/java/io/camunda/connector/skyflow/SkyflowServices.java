@@ -0,0 +1,51 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import io.camunda.connector.skyflow.admission.SkyflowAdmissionControl;
+import io.camunda.connector.skyflow.auth.SkyflowBearerTokens;
+import io.camunda.connector.skyflow.batch.SkyflowMicroBatcher;
+import io.camunda.connector.skyflow.cache.SkyflowTokenCache;
+import io.camunda.connector.skyflow.http.SkyflowTransportRegistry;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import io.camunda.connector.skyflow.polling.RunDurationModel;
+import io.camunda.connector.skyflow.polling.SkyflowRunCompletionEngine;
+import io.camunda.connector.skyflow.runs.SkyflowRunStore;
+import io.camunda.connector.skyflow.runs.SkyflowRunWatchers;
+
+/**
+ * Node-wide components shared by every connector invocation.
+ *
+ * <p>The connector runtime instantiates connectors through their no-arg constructor, which uses
+ * {@link #shared()}. Tests can pass their own instances.
+ */
+record SkyflowServices(
+    SkyflowTransportRegistry transports,
+    SkyflowRunCompletionEngine completionEngine,
+    RunDurationModel durationModel,
+    SkyflowMicroBatcher batcher,
+    SkyflowTokenCache tokenCache,
+    SkyflowMetrics metrics,
+    SkyflowRunStore runStore,
+    SkyflowRunWatchers runWatchers,
+    SkyflowBearerTokens bearerTokens,
+    SkyflowAdmissionControl admission) {
+
+  static SkyflowServices shared() {
+    return new SkyflowServices(
+        SkyflowTransportRegistry.shared(),
+        SkyflowRunCompletionEngine.shared(),
+        RunDurationModel.shared(),
+        SkyflowMicroBatcher.shared(),
+        SkyflowTokenCache.shared(),
+        SkyflowMetrics.shared(),
+        SkyflowRunStore.shared(),
+        SkyflowRunWatchers.shared(),
+        SkyflowBearerTokens.shared(),
+        SkyflowAdmissionControl.shared());
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.admission;
+
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.json.JsonTrees;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node-wide byte budget bounding the heap held by the payloads of concurrent jobs.
+ *
+ * <p>A job reserves the estimated {@link #footprint(Object) footprint} of its payload before the
+ * payload is encoded and returns it once the job finished. A job that does not fit waits, in
+ * arrival order, for at most {@code maxWait} and then fails with {@code
+ * SKYFLOW_PAYLOAD_BUDGET_EXHAUSTED}, so that it is retried later or on another node; with a zero
+ * {@code maxWait} it fails at once. A job larger than the whole budget is admitted alone.
+ *
+ * <p>{@link #shared()} has a budget of {@code skyflow.admission.maxBytes} (default a quarter of
+ * the maximum heap; {@code 0} disables admission control) and waits at most {@code
+ * skyflow.admission.maxWaitMs} (default 30000).
+ */
+public final class SkyflowAdmissionControl {
+
+  /** Admits every job at once. */
+  public static final SkyflowAdmissionControl UNLIMITED =
+      new SkyflowAdmissionControl(0, Duration.ZERO, SkyflowMetrics.NOOP);
+
+  /**
+   * Heap bytes per byte of payload JSON: a Map/List tree takes about three times its JSON size,
+   * and a job holds both its payload and its result.
+   */
+  static final int HEAP_BYTES_PER_JSON_BYTE = 6;
+
+  /** Reservation of an admitted job; closing it returns its bytes to the budget. */
+  public interface Permit extends AutoCloseable {
+
+    @Override
+    void close();
+  }
+
+  private static final Permit NONE = () -> {};
+
+  private static final class Holder {
+    private static final SkyflowAdmissionControl SHARED =
+        new SkyflowAdmissionControl(
+            Long.getLong("skyflow.admission.maxBytes", Runtime.getRuntime().maxMemory() / 4),
+            Duration.ofMillis(Long.getLong("skyflow.admission.maxWaitMs", 30_000)),
+            SkyflowMetrics.shared());
+  }
+
+  private record Waiter(long bytes, CompletableFuture<Void> admitted) {}
+
+  private final long maxBytes;
+  private final Duration maxWait;
+  private final SkyflowMetrics metrics;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Queue<Waiter> waiters = new ArrayDeque<>();
+  private long admittedBytes;
+
+  /**
+   * @param maxBytes budget shared by all admitted jobs; zero or less admits every job at once
+   * @param maxWait how long a job waits for budget before it fails
+   */
+  public SkyflowAdmissionControl(long maxBytes, Duration maxWait, SkyflowMetrics metrics) {
+    this.maxBytes = maxBytes;
+    this.maxWait = maxWait;
+    this.metrics = metrics;
+  }
+
+  /** Node-wide budget shared by all connector instances. */
+  public static SkyflowAdmissionControl shared() {
+    return Holder.SHARED;
+  }
+
+  /** Estimated heap bytes a job holds for the payload, a Map/List tree or JSON text. */
+  public static long footprint(Object payload) {
+    return payload == null ? 0 : JsonTrees.estimatedJsonBytes(payload) * HEAP_BYTES_PER_JSON_BYTE;
+  }
+
+  /**
+   * Reserves {@code bytes} of the budget, waiting for other jobs to return theirs if needed.
+   *
+   * @throws ConnectorException {@code SKYFLOW_PAYLOAD_BUDGET_EXHAUSTED} if the bytes did not
+   *     become available within {@code maxWait}
+   */
+  public Permit acquire(long bytes) throws InterruptedException {
+    if (maxBytes <= 0 || bytes <= 0) {
+      return NONE;
+    }
+    long reserved = Math.min(bytes, maxBytes);
+    Waiter waiter;
+    lock.lock();
+    try {
+      if (waiters.isEmpty() && admittedBytes + reserved <= maxBytes) {
+        admittedBytes += reserved;
+        report();
+        return permit(reserved);
+      }
+      if (maxWait.isZero() || maxWait.isNegative()) {
+        throw exhausted(bytes);
+      }
+      waiter = new Waiter(reserved, new CompletableFuture<>());
+      waiters.add(waiter);
+      report();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      waiter.admitted().get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+      return permit(reserved);
+    } catch (TimeoutException e) {
+      if (withdraw(waiter)) {
+        throw exhausted(bytes);
+      }
+      // admitted just in time
+      return permit(reserved);
+    } catch (InterruptedException e) {
+      if (!withdraw(waiter)) {
+        release(reserved);
+      }
+      throw e;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Admission is never completed exceptionally", e);
+    }
+  }
+
+  /** Bytes currently reserved by admitted jobs. */
+  public long admittedBytes() {
+    lock.lock();
+    try {
+      return admittedBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Jobs waiting for budget. */
+  public int waiting() {
+    lock.lock();
+    try {
+      return waiters.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Permit permit(long reserved) {
+    var closed = new AtomicBoolean();
+    return () -> {
+      if (closed.compareAndSet(false, true)) {
+        release(reserved);
+      }
+    };
+  }
+
+  private void release(long reserved) {
+    lock.lock();
+    try {
+      admittedBytes -= reserved;
+      admitWaiting();
+      report();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Removes a waiter that gives up; {@code false} if it was admitted meanwhile. */
+  private boolean withdraw(Waiter waiter) {
+    lock.lock();
+    try {
+      if (!waiters.remove(waiter)) {
+        return false;
+      }
+      // the jobs queued behind it may fit now
+      admitWaiting();
+      report();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Admits queued jobs in arrival order while the next one fits; called with the lock held. */
+  private void admitWaiting() {
+    var next = waiters.peek();
+    while (next != null && admittedBytes + next.bytes() <= maxBytes) {
+      waiters.remove();
+      admittedBytes += next.bytes();
+      next.admitted().complete(null);
+      next = waiters.peek();
+    }
+  }
+
+  /** Called with the lock held, so that the reported values are consistent. */
+  private void report() {
+    metrics.recordAdmission(admittedBytes, waiters.size());
+  }
+
+  private ConnectorException exhausted(long bytes) {
+    return new ConnectorException(
+        "SKYFLOW_PAYLOAD_BUDGET_EXHAUSTED",
+        "Payload budget exhausted: the job needs about "
+            + bytes
+            + " of "
+            + maxBytes
+            + " bytes (waited "
+            + maxWait.toMillis()
+            + " ms)");
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.dto.SkyflowTokenRequest;
+import io.camunda.connector.skyflow.dto.SkyflowTokenResponse;
+import io.camunda.connector.skyflow.http.SkyflowEndpoint;
+import io.camunda.connector.skyflow.http.SkyflowTransportRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Node-wide cache of the bearer tokens obtained with service account credentials.
+ *
+ * <p>Tokens are cached per vault and credentials. Only the first job of a vault waits for a token;
+ * afterwards a background thread refreshes it {@code refreshAhead} before it expires (at the
+ * latest halfway through its lifetime), so jobs keep using the current token while the next one
+ * is fetched. Concurrent refreshes of the same token share a single request. A token that was not
+ * used since it was fetched is dropped instead of being refreshed.
+ *
+ * <p>The expiry is read from the {@code exp} claim of the returned token; tokens without one are
+ * treated as valid for {@link #DEFAULT_TOKEN_LIFETIME}. Token requests go through the shared
+ * transports, so they are rate limited and retried like any other Skyflow call.
+ *
+ * <p>A token request times out after {@code requestTimeout}, and a caller waits at most that long
+ * for a token before it fails with {@code SKYFLOW_AUTH_FAILED}, so that a hanging token endpoint
+ * cannot hold up jobs or status checks indefinitely.
+ *
+ * <p>{@link #shared()} refreshes tokens {@code skyflow.auth.refreshAheadMs} before they expire
+ * (default 300000) and times out token requests after {@code skyflow.auth.timeoutMs} (default
+ * 30000).
+ */
+public final class SkyflowBearerTokens implements AutoCloseable {
+
+  static final Duration DEFAULT_TOKEN_LIFETIME = Duration.ofMinutes(10);
+
+  static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  /** A token this close to its expiry is not handed out any more. */
+  private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(5);
+
+  /** Delay before a failed background refresh is tried again. */
+  private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+  /** Shortest delay before a token is refreshed, however short-lived it is. */
+  private static final Duration MIN_REFRESH_DELAY = Duration.ofSeconds(1);
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final class Holder {
+    private static final SkyflowBearerTokens SHARED =
+        new SkyflowBearerTokens(
+            SkyflowTransportRegistry.shared(),
+            Duration.ofMillis(Long.getLong("skyflow.auth.refreshAheadMs", 300_000)),
+            Duration.ofMillis(
+                Long.getLong("skyflow.auth.timeoutMs", DEFAULT_REQUEST_TIMEOUT.toMillis())));
+  }
+
+  private record Key(String vault, SkyflowCredentials credentials) {}
+
+  private record Token(String value, Instant fetchedAt, Instant expiresAt) {
+
+    boolean usableAt(Instant now) {
+      return now.isBefore(expiresAt.minus(EXPIRY_MARGIN));
+    }
+  }
+
+  private final SkyflowTransportRegistry transports;
+  private final Duration refreshAhead;
+  private final Duration requestTimeout;
+  private final ScheduledExecutorService refresher =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("skyflow-token-refresh").daemon().factory());
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+  public SkyflowBearerTokens(SkyflowTransportRegistry transports, Duration refreshAhead) {
+    this(transports, refreshAhead, DEFAULT_REQUEST_TIMEOUT);
+  }
+
+  public SkyflowBearerTokens(
+      SkyflowTransportRegistry transports, Duration refreshAhead, Duration requestTimeout) {
+    this.transports = transports;
+    this.refreshAhead = refreshAhead;
+    this.requestTimeout = requestTimeout;
+  }
+
+  /** Node-wide cache shared by all connector instances. */
+  public static SkyflowBearerTokens shared() {
+    return Holder.SHARED;
+  }
+
+  /**
+   * Returns a bearer token for the credentials, waiting only if none was fetched for the vault
+   * yet or the cached one expired, and then for at most {@code requestTimeout}.
+   *
+   * @param vault identifies the vault the token is used for
+   * @throws ConnectorException {@code SKYFLOW_AUTH_FAILED} if no token could be obtained in time
+   */
+  public String token(String vault, SkyflowCredentials credentials) throws InterruptedException {
+    var entry = entries.computeIfAbsent(new Key(vault, credentials), Entry::new);
+    entry.lastUsed = Instant.now();
+    var current = entry.current;
+    if (current != null && current.usableAt(Instant.now())) {
+      return current.value();
+    }
+    var refresh = entry.refresh();
+    try {
+      return refresh.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS).value();
+    } catch (TimeoutException e) {
+      // the request itself times out too; the next caller joins or restarts it
+      throw new ConnectorException(
+          "SKYFLOW_AUTH_FAILED",
+          "Skyflow token request did not complete within " + requestTimeout.toMillis() + " ms",
+          e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ConnectorException ce) {
+        throw ce;
+      }
+      throw new ConnectorException(
+          "SKYFLOW_AUTH_FAILED", "Skyflow token request failed: " + e.getCause(), e.getCause());
+    }
+  }
+
+  /** Number of cached tokens. */
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public void close() {
+    refresher.shutdownNow();
+    entries.clear();
+  }
+
+  /** Token of one vault and credentials, and its single in-flight refresh. */
+  private final class Entry {
+
+    private final Key key;
+    private final AtomicReference<CompletableFuture<Token>> refreshing = new AtomicReference<>();
+    private volatile Token current;
+    private volatile Instant lastUsed = Instant.now();
+
+    private Entry(Key key) {
+      this.key = key;
+    }
+
+    CompletableFuture<Token> refresh() {
+      while (true) {
+        var running = refreshing.get();
+        if (running != null) {
+          return running;
+        }
+        var started = new CompletableFuture<Token>();
+        if (refreshing.compareAndSet(null, started)) {
+          fetch(key.credentials())
+              .whenComplete(
+                  (token, error) -> {
+                    if (error == null) {
+                      current = token;
+                      scheduleRefresh(token);
+                    } else if (current != null && current.usableAt(Instant.now())) {
+                      schedule(RETRY_DELAY);
+                    }
+                    // cleared first, so that a caller seeing the failure can try again
+                    refreshing.set(null);
+                    if (error == null) {
+                      started.complete(token);
+                    } else {
+                      started.completeExceptionally(error);
+                    }
+                  });
+          return started;
+        }
+      }
+    }
+
+    private void scheduleRefresh(Token token) {
+      var halfLife = Duration.between(token.fetchedAt(), token.expiresAt()).dividedBy(2);
+      var ahead = refreshAhead.compareTo(halfLife) < 0 ? refreshAhead : halfLife;
+      // the next token must arrive before this one stops being handed out
+      var latest = EXPIRY_MARGIN.plus(MIN_REFRESH_DELAY);
+      ahead = ahead.compareTo(latest) < 0 ? latest : ahead;
+      var delay = Duration.between(Instant.now(), token.expiresAt().minus(ahead));
+      // a token issued (almost) expired must not turn into a refresh loop
+      schedule(delay.compareTo(MIN_REFRESH_DELAY) < 0 ? MIN_REFRESH_DELAY : delay);
+    }
+
+    private void schedule(Duration delay) {
+      try {
+        refresher.schedule(this::refreshInBackground, delay.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (RuntimeException e) {
+        // closed; the next caller fetches a token itself
+      }
+    }
+
+    private void refreshInBackground() {
+      var token = current;
+      if (token != null && lastUsed.isBefore(token.fetchedAt())) {
+        entries.remove(key, this);
+        return;
+      }
+      refresh();
+    }
+  }
+
+  private CompletableFuture<Token> fetch(SkyflowCredentials credentials) {
+    var fetchedAt = Instant.now();
+    HttpRequest request;
+    URI tokenUri;
+    try {
+      tokenUri = URI.create(credentials.tokenUri());
+      request =
+          HttpRequest.newBuilder()
+              .uri(tokenUri)
+              .timeout(requestTimeout)
+              .header("Content-Type", "application/json")
+              .POST(
+                  HttpRequest.BodyPublishers.ofByteArray(
+                      MAPPER.writeValueAsBytes(
+                          new SkyflowTokenRequest(
+                              SkyflowTokenRequest.JWT_BEARER_GRANT,
+                              credentials.assertion(fetchedAt)))))
+              .build();
+    } catch (IOException | RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return transports
+        .forBaseUrl(tokenUri.getScheme() + "://" + tokenUri.getRawAuthority())
+        .sendAsync(
+            credentials.clientId(),
+            SkyflowEndpoint.TOKEN,
+            request,
+            HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(response -> token(response, fetchedAt));
+  }
+
+  private static Token token(HttpResponse<byte[]> response, Instant fetchedAt) {
+    if (response.statusCode() / 100 != 2) {
+      throw new ConnectorException(
+          "SKYFLOW_AUTH_FAILED",
+          "Skyflow token request failed: HTTP "
+              + response.statusCode()
+              + " - "
+              + new String(response.body(), StandardCharsets.UTF_8));
+    }
+    SkyflowTokenResponse parsed;
+    try {
+      parsed = MAPPER.readValue(response.body(), SkyflowTokenResponse.class);
+    } catch (IOException e) {
+      throw new ConnectorException(
+          "SKYFLOW_AUTH_FAILED", "Skyflow token response is not valid JSON", e);
+    }
+    if (parsed.accessToken() == null || parsed.accessToken().isBlank()) {
+      throw new ConnectorException(
+          "SKYFLOW_AUTH_FAILED", "Skyflow token response contains no accessToken");
+    }
+    return new Token(parsed.accessToken(), fetchedAt, expiry(parsed.accessToken(), fetchedAt));
+  }
+
+  /** The {@code exp} claim of a JWT, or the default lifetime if the token is not one. */
+  static Instant expiry(String token, Instant fetchedAt) {
+    String[] parts = token.split("\\.");
+    if (parts.length == 3) {
+      try {
+        var claims = MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1]));
+        if (claims.path("exp").canConvertToLong()) {
+          return Instant.ofEpochSecond(claims.path("exp").asLong());
+        }
+      } catch (IOException | IllegalArgumentException e) {
+        // not a JWT
+      }
+    }
+    return fetchedAt.plus(DEFAULT_TOKEN_LIFETIME);
+  }
+}
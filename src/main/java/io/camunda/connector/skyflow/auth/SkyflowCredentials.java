@@ -0,0 +1,115 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.auth;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.error.ConnectorException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service account credentials, as in the {@code credentials.json} file Skyflow issues for a
+ * service account.
+ *
+ * <p>{@link #assertion(Instant)} signs a short-lived JWT with the account's RSA private key; the
+ * token endpoint ({@code tokenURI}) exchanges it for a bearer token.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SkyflowCredentials(
+    @JsonProperty("clientID") String clientId,
+    @JsonProperty("clientName") String clientName,
+    @JsonProperty("tokenURI") String tokenUri,
+    @JsonProperty("keyID") String keyId,
+    @JsonProperty("privateKey") String privateKey) {
+
+  /** Lifetime of a signed assertion; it is only used for one token request. */
+  static final Duration ASSERTION_LIFETIME = Duration.ofHours(1);
+
+  private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+  private static final String HEADER =
+      BASE64_URL.encodeToString(
+          "{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.US_ASCII));
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  /** Parses the contents of a credentials file. */
+  public static SkyflowCredentials parse(String json) {
+    SkyflowCredentials credentials;
+    try {
+      credentials = JSON.readValue(json, SkyflowCredentials.class);
+    } catch (Exception e) {
+      // the message could quote the private key
+      throw new ConnectorException(
+          "SKYFLOW_BAD_CREDENTIALS", "Service account credentials are not valid JSON");
+    }
+    if (isBlank(credentials.clientId())
+        || isBlank(credentials.tokenUri())
+        || isBlank(credentials.keyId())
+        || isBlank(credentials.privateKey())) {
+      throw new ConnectorException(
+          "SKYFLOW_BAD_CREDENTIALS",
+          "Service account credentials need clientID, tokenURI, keyID and privateKey");
+    }
+    return credentials;
+  }
+
+  /** Signs the JWT assertion to send to {@link #tokenUri()}, valid from {@code now}. */
+  public String assertion(Instant now) {
+    var claims = new LinkedHashMap<String, Object>();
+    claims.put("iss", clientId);
+    claims.put("key", keyId);
+    claims.put("aud", tokenUri);
+    claims.put("sub", clientId);
+    claims.put("exp", now.plus(ASSERTION_LIFETIME).getEpochSecond());
+    String unsigned = HEADER + "." + encode(claims);
+    try {
+      var signature = Signature.getInstance("SHA256withRSA");
+      signature.initSign(parsePrivateKey(privateKey));
+      signature.update(unsigned.getBytes(StandardCharsets.US_ASCII));
+      return unsigned + "." + BASE64_URL.encodeToString(signature.sign());
+    } catch (GeneralSecurityException | IllegalArgumentException e) {
+      throw new ConnectorException(
+          "SKYFLOW_BAD_CREDENTIALS",
+          "Service account private key cannot sign: " + e.getClass().getSimpleName());
+    }
+  }
+
+  /** Keeps the private key out of logs and exception messages. */
+  @Override
+  public String toString() {
+    return "SkyflowCredentials[clientId=" + clientId + ", keyId=" + keyId + "]";
+  }
+
+  private static PrivateKey parsePrivateKey(String pem) throws GeneralSecurityException {
+    String base64 =
+        pem.replaceAll("-----(BEGIN|END) PRIVATE KEY-----", "").replaceAll("\\s", "");
+    return KeyFactory.getInstance("RSA")
+        .generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64)));
+  }
+
+  private static String encode(Map<String, Object> json) {
+    try {
+      return BASE64_URL.encodeToString(JSON.writeValueAsBytes(json));
+    } catch (Exception e) {
+      throw new IllegalStateException("Cannot serialize JWT part", e);
+    }
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+}
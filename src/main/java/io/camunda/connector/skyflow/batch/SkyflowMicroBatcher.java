@@ -0,0 +1,285 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.http.SkyflowHttpException;
+import io.camunda.connector.skyflow.http.SkyflowTransportSettings;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects payloads of concurrent jobs that target the same Skyflow call and processes them as
+ * one combined structured JSON file.
+ *
+ * <p>Payloads are grouped by an opaque key (vault, credentials, operation, token type and entity
+ * types). A group is flushed when its window elapses or when it reached its maximum size. The
+ * combined file is a JSON object with one entry per job, and the processed file is split back
+ * along those entries.
+ *
+ * <p>Failures stay isolated per job: if Skyflow rejects the combined call, every payload of the
+ * group is retried on its own, one after the other, so only the job whose payload is at fault
+ * fails. Failures that are not due to a payload fail every job of the group with the original
+ * error instead, as does such a failure during the retries for the jobs not retried yet.
+ */
+public final class SkyflowMicroBatcher implements AutoCloseable {
+
+  private static final class Holder {
+    private static final SkyflowMicroBatcher SHARED =
+        new SkyflowMicroBatcher(SkyflowTransportSettings.fromSystemProperties().virtualThreads());
+  }
+
+  /** Errors of a combined call that one of its payloads may have caused. */
+  private static final Set<String> PAYLOAD_ERRORS =
+      Set.of(
+          "SKYFLOW_BAD_PAYLOAD",
+          "SKYFLOW_RUN_FAILED",
+          "SKYFLOW_BAD_PROCESSED_FILE",
+          "SKYFLOW_MISSING_PROCESSED_FILE");
+
+  /** Processes one (combined or single) payload and returns the processed JSON object. */
+  @FunctionalInterface
+  public interface BatchProcessor {
+    Map<String, Object> process(Map<String, Object> payload) throws Exception;
+  }
+
+  private final ScheduledThreadPoolExecutor timer;
+  private final ExecutorService workers;
+  private final Map<Object, Batch> open = new ConcurrentHashMap<>();
+
+  public SkyflowMicroBatcher() {
+    this(false);
+  }
+
+  /**
+   * @param virtualThreads whether combined calls, which block until their Skyflow run completed,
+   *     run on virtual threads instead of a cached pool of platform threads
+   */
+  public SkyflowMicroBatcher(boolean virtualThreads) {
+    timer = new ScheduledThreadPoolExecutor(1, daemonThreads("skyflow-batch-timer-"));
+    timer.setRemoveOnCancelPolicy(true);
+    workers =
+        virtualThreads
+            ? Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("skyflow-batch-", 1).factory())
+            : Executors.newCachedThreadPool(daemonThreads("skyflow-batch-"));
+  }
+
+  /** Node-wide batcher shared by all connector instances. */
+  public static SkyflowMicroBatcher shared() {
+    return Holder.SHARED;
+  }
+
+  /**
+   * Adds a payload to the open batch of {@code key}, opening one if needed.
+   *
+   * @param key groups payloads that can be sent in the same Skyflow call
+   * @param payload JSON object of the job
+   * @param window how long the first payload of a batch waits for others
+   * @param maxSize number of payloads that flushes the batch immediately
+   * @param processor performs the Skyflow call; the first submitter's processor is used
+   * @return future of this job's share of the processed file
+   */
+  public CompletableFuture<Map<String, Object>> submit(
+      Object key,
+      Map<String, Object> payload,
+      Duration window,
+      int maxSize,
+      BatchProcessor processor) {
+    while (true) {
+      var batch = open.computeIfAbsent(key, k -> new Batch(k, processor, Math.max(1, maxSize)));
+      var entry = batch.add(payload);
+      if (entry == null) {
+        // the batch was flushed concurrently; it removes itself from the map before closing
+        open.remove(key, batch);
+        continue;
+      }
+      if (entry.index() == 0) {
+        batch.timeout =
+            timer.schedule(() -> flush(batch), window.toMillis(), TimeUnit.MILLISECONDS);
+      }
+      if (entry.index() + 1 >= batch.maxSize) {
+        flush(batch);
+      }
+      return entry.result();
+    }
+  }
+
+  /** Number of batches currently collecting payloads. */
+  public int openBatches() {
+    return open.size();
+  }
+
+  @Override
+  public void close() {
+    timer.shutdownNow();
+    workers.shutdownNow();
+  }
+
+  private void flush(Batch batch) {
+    List<Entry> entries = batch.close();
+    if (entries == null) {
+      return;
+    }
+    open.remove(batch.key, batch);
+    if (batch.timeout != null) {
+      batch.timeout.cancel(false);
+    }
+    workers.execute(() -> process(batch.processor, entries));
+  }
+
+  private static void process(BatchProcessor processor, List<Entry> entries) {
+    if (entries.size() == 1) {
+      processSingle(processor, entries.getFirst());
+      return;
+    }
+    Map<String, Object> processed;
+    try {
+      var combined = new LinkedHashMap<String, Object>();
+      entries.forEach(entry -> combined.put(entry.id(), entry.payload()));
+      processed = processor.process(combined);
+    } catch (Throwable e) {
+      if (payloadError(e)) {
+        // one payload may have failed the whole call; isolate it by processing each on its own
+        isolate(processor, entries);
+      } else {
+        // affects every payload alike
+        entries.forEach(entry -> entry.result().completeExceptionally(e));
+      }
+      return;
+    }
+    for (var entry : entries) {
+      if (processed != null && processed.get(entry.id()) instanceof Map<?, ?> part) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = (Map<String, Object>) part;
+        entry.result().complete(result);
+      } else {
+        entry.result().completeExceptionally(
+            new ConnectorException(
+                "SKYFLOW_BATCH_ENTRY_MISSING",
+                "Processed batch file did not contain the entry of this job"));
+      }
+    }
+  }
+
+  private static void isolate(BatchProcessor processor, List<Entry> entries) {
+    Throwable abort = null;
+    for (var entry : entries) {
+      if (abort != null) {
+        entry.result().completeExceptionally(abort);
+        continue;
+      }
+      try {
+        entry.result().complete(processor.process(entry.payload()));
+      } catch (Throwable e) {
+        entry.result().completeExceptionally(e);
+        if (!payloadError(e)) {
+          abort = e;
+        }
+      }
+    }
+  }
+
+  private static void processSingle(BatchProcessor processor, Entry entry) {
+    try {
+      entry.result().complete(processor.process(entry.payload()));
+    } catch (Throwable e) {
+      entry.result().completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Whether a failed combined call may be due to one of its payloads, so that processing each on
+   * its own isolates the culprit: Skyflow rejected the request with a 4xx, failed the run, or
+   * returned a processed file that cannot be decoded. Other failures, such as an open circuit, a
+   * poll timeout, throttling or failed authentication, would fail every payload alike.
+   */
+  static boolean payloadError(Throwable e) {
+    if (e instanceof SkyflowHttpException http) {
+      return http.rejected();
+    }
+    if (e instanceof JsonProcessingException) {
+      return true;
+    }
+    return e instanceof ConnectorException ce && PAYLOAD_ERRORS.contains(ce.getErrorCode());
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    var counter = new AtomicInteger();
+    return runnable -> {
+      var thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static final class Batch {
+
+    private final Object key;
+    private final BatchProcessor processor;
+    private final int maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Entry> entries = new ArrayList<>();
+    private volatile ScheduledFuture<?> timeout;
+
+    private Batch(Object key, BatchProcessor processor, int maxSize) {
+      this.key = key;
+      this.processor = processor;
+      this.maxSize = maxSize;
+    }
+
+    /** Adds the payload, or returns {@code null} if the batch is already closed or full. */
+    private Entry add(Map<String, Object> payload) {
+      lock.lock();
+      try {
+        if (entries == null || entries.size() >= maxSize) {
+          return null;
+        }
+        var entry = new Entry(entries.size(), payload, new CompletableFuture<>());
+        entries.add(entry);
+        return entry;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Closes the batch and returns its entries, or {@code null} if it was already closed. */
+    private List<Entry> close() {
+      lock.lock();
+      try {
+        var closed = entries;
+        entries = null;
+        return closed;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private record Entry(
+      int index, Map<String, Object> payload, CompletableFuture<Map<String, Object>> result) {
+
+    String id() {
+      return "entry_" + index;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.batch.SkyflowMicroBatcher.BatchProcessor;
+import io.camunda.connector.skyflow.json.JsonChunker;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes the list of records of one job as a few combined structured JSON files, as large as
+ * the size limit allows.
+ *
+ * <p>The records are packed in order into a JSON object with one entry per record, which is split
+ * into files of at most {@code maxFileBytes} like a chunked payload. The files are processed
+ * concurrently and the processed records are returned in input order, each as {@code { result }}
+ * or {@code { error: { code, message } }}.
+ *
+ * <p>Failures stay isolated per record: if Skyflow rejects a file, each of its records is retried
+ * on its own, like in {@link SkyflowMicroBatcher}, sequentially within the file's slot of {@code
+ * parallelism}. At most {@value #MAX_ISOLATED_RECORDS} records of a job are retried this way; the
+ * records of further rejected files fail with the file's error. A failure that is not due to the
+ * payload, such as an open circuit or a poll timeout, fails the whole job. A record that is not a
+ * JSON object fails without being sent.
+ */
+public final class SkyflowRecordBatch {
+
+  public static final String RESULT = "result";
+  public static final String ERROR = "error";
+
+  /** Number of records of a job that may be retried on their own after a rejected file. */
+  static final int MAX_ISOLATED_RECORDS = 100;
+
+  private SkyflowRecordBatch() {}
+
+  /**
+   * @param records JSON objects to process; other elements are reported as failed
+   * @param maxFileBytes serialized size a combined file should not exceed
+   * @param parallelism number of files processed at a time
+   * @param processor performs the Skyflow call for one combined file
+   * @return one entry per record, in input order
+   */
+  public static List<Map<String, Object>> process(
+      ObjectMapper mapper,
+      List<?> records,
+      long maxFileBytes,
+      int parallelism,
+      BatchProcessor processor)
+      throws Exception {
+    var results = new ArrayList<Map<String, Object>>(records.size());
+    var combined = new LinkedHashMap<String, Object>();
+    for (int i = 0; i < records.size(); i++) {
+      results.add(null);
+      if (records.get(i) instanceof Map<?, ?> record) {
+        combined.put(id(i), record);
+      } else {
+        results.set(
+            i,
+            failure(
+                new ConnectorException(
+                    "SKYFLOW_BAD_PAYLOAD", "Record " + i + " is not a JSON object")));
+      }
+    }
+    if (combined.isEmpty()) {
+      return results;
+    }
+
+    var files = JsonChunker.split(mapper, combined, maxFileBytes);
+    var parts = new ArrayList<Part>();
+    var isolations = new AtomicInteger(MAX_ISOLATED_RECORDS);
+    try (var workers =
+        Executors.newFixedThreadPool(
+            Math.min(parallelism, files.size()),
+            Thread.ofVirtual().name("skyflow-records-", 0).factory())) {
+      var pending = new ArrayList<Future<List<Part>>>(files.size());
+      for (var file : files) {
+        pending.add(workers.submit(() -> processFile(processor, file, isolations)));
+      }
+      try {
+        for (var future : pending) {
+          parts.addAll(await(future));
+        }
+      } catch (Exception e) {
+        // the job fails as a whole, so the other files need not complete
+        workers.shutdownNow();
+        throw e;
+      }
+    }
+
+    // a record split across files fails if any of its parts failed
+    var failed = new HashMap<String, Exception>();
+    var processed = new ArrayList<Map<String, Object>>();
+    for (var part : parts) {
+      if (part.error() != null) {
+        part.sent().keySet().forEach(id -> failed.putIfAbsent(id, part.error()));
+      } else {
+        processed.add(part.processed());
+      }
+    }
+    var merged = processed.isEmpty() ? Map.<String, Object>of() : JsonChunker.merge(processed);
+    for (int i = 0; i < records.size(); i++) {
+      if (results.get(i) != null) {
+        continue;
+      }
+      var error = failed.get(id(i));
+      if (error != null) {
+        results.set(i, failure(error));
+      } else if (merged.get(id(i)) instanceof Map<?, ?> record) {
+        results.set(i, Map.of(RESULT, record));
+      } else {
+        results.set(
+            i,
+            failure(
+                new ConnectorException(
+                    "SKYFLOW_BATCH_ENTRY_MISSING",
+                    "Processed batch file did not contain record " + i)));
+      }
+    }
+    return results;
+  }
+
+  private static List<Part> processFile(
+      BatchProcessor processor, Map<String, Object> file, AtomicInteger isolations)
+      throws Exception {
+    try {
+      return List.of(new Part(file, processor.process(file), null));
+    } catch (Exception e) {
+      if (!SkyflowMicroBatcher.payloadError(e)) {
+        // affects every record alike
+        throw e;
+      }
+      if (file.size() == 1 || isolations.addAndGet(-file.size()) < 0) {
+        return List.of(new Part(file, null, e));
+      }
+      // one record may have failed the whole file; isolate it by processing each on its own
+      var parts = new ArrayList<Part>(file.size());
+      for (var entry : file.entrySet()) {
+        parts.addAll(processFile(processor, Map.of(entry.getKey(), entry.getValue()), isolations));
+      }
+      return parts;
+    }
+  }
+
+  /** Entry of a record that failed. */
+  public static Map<String, Object> failure(Exception e) {
+    String code =
+        e instanceof ConnectorException ce && ce.getErrorCode() != null
+            ? ce.getErrorCode()
+            : "UNEXPECTED";
+    return Map.of(ERROR, Map.of("code", code, "message", String.valueOf(e.getMessage())));
+  }
+
+  private static String id(int index) {
+    return "record_" + index;
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /** A file, or one record of a rejected file, and its outcome. */
+  private record Part(Map<String, Object> sent, Map<String, Object> processed, Exception error) {}
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.cache;
+
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.json.JsonTrees;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache from field values to the tokens Skyflow produced for them.
+ *
+ * <p>Only valid when tokenization is deterministic: static tokens, or vault tokens of a vault
+ * configured for deterministic tokenization. Keys are SHA-256 hashes of the value and its scope
+ * (vault, token type, entity types), so no cleartext value is kept in memory. Entries expire
+ * after a TTL and the least recently used entries are evicted once the cache is full.
+ *
+ * <p>{@link #deidentify} sends only the fields that missed the cache to Skyflow and merges the
+ * returned tokens back into the original structure. Concurrent misses for the same value share a
+ * single in-flight lookup.
+ *
+ * <p>Hits, misses, evictions and the size of the cache are reported to {@link SkyflowMetrics}.
+ *
+ * <p>Node-wide limits are read from system properties {@code skyflow.tokenCache.maxEntries}
+ * (default 100000) and {@code skyflow.tokenCache.ttlSeconds} (default 3600).
+ */
+public final class SkyflowTokenCache {
+
+  /** Rough per-entry overhead of the map node, entry record and hash key. */
+  private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+  private static final class Holder {
+    private static final SkyflowTokenCache SHARED =
+        new SkyflowTokenCache(
+            Integer.getInteger("skyflow.tokenCache.maxEntries", 100_000),
+            Duration.ofSeconds(Long.getLong("skyflow.tokenCache.ttlSeconds", 3600)),
+            SkyflowMetrics.shared());
+  }
+
+  /** Performs the Skyflow de-identification of a (pruned) payload. */
+  @FunctionalInterface
+  public interface SkyflowCall {
+    Map<String, Object> process(Map<String, Object> payload) throws Exception;
+  }
+
+  /**
+   * Point-in-time cache statistics.
+   *
+   * @param hits lookups answered from the cache
+   * @param misses lookups that had to go to Skyflow (or join an in-flight lookup)
+   * @param evictions entries removed because the cache was full or the entry expired
+   * @param size current number of entries
+   * @param estimatedBytes approximate heap used by the entries
+   */
+  public record Stats(long hits, long misses, long evictions, int size, long estimatedBytes) {
+
+    public double hitRate() {
+      long total = hits + misses;
+      return total == 0 ? 0 : (double) hits / total;
+    }
+  }
+
+  private record Entry(Object token, long expiresAtNanos, int bytes) {}
+
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final SkyflowMetrics metrics;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private long estimatedBytes;
+
+  public SkyflowTokenCache(int maxEntries, Duration ttl) {
+    this(maxEntries, ttl, SkyflowMetrics.NOOP);
+  }
+
+  public SkyflowTokenCache(int maxEntries, Duration ttl, SkyflowMetrics metrics) {
+    this.maxEntries = maxEntries;
+    this.ttlNanos = ttl.toNanos();
+    this.metrics = metrics;
+  }
+
+  /** Node-wide cache shared by all connector instances. */
+  public static SkyflowTokenCache shared() {
+    return Holder.SHARED;
+  }
+
+  /**
+   * De-identifies {@code payload}, asking Skyflow only for the values not cached yet.
+   *
+   * @param payload JSON object to de-identify
+   * @param scope identifies vault, token type and entity types; tokens never cross scopes
+   * @param call performs the actual Skyflow de-identification
+   * @return a copy of the payload with every non-null leaf replaced by its token
+   */
+  public Map<String, Object> deidentify(
+      Map<String, Object> payload, String scope, SkyflowCall call) throws Exception {
+    var resolved = new HashMap<List<Object>, Object>();
+    var awaited = new HashMap<List<Object>, CompletableFuture<Object>>();
+    var owned = new HashMap<String, CompletableFuture<Object>>();
+    var keys = new HashMap<List<Object>, String>();
+
+    int missed = 0;
+    for (var leaf : JsonTrees.leaves(payload)) {
+      if (leaf.value() == null) {
+        continue;
+      }
+      String key = key(scope, leaf.value());
+      Object token = lookup(key);
+      if (token != null) {
+        resolved.put(leaf.path(), token);
+        continue;
+      }
+      missed++;
+      var future = owned.get(key);
+      if (future == null) {
+        future = new CompletableFuture<>();
+        var existing = inFlight.putIfAbsent(key, future);
+        if (existing == null) {
+          owned.put(key, future);
+          keys.put(leaf.path(), key);
+          continue;
+        }
+        future = existing;
+      }
+      awaited.put(leaf.path(), future);
+    }
+    // only cache hits are resolved so far
+    metrics.recordTokenCacheLookups(resolved.size(), missed);
+
+    if (!keys.isEmpty()) {
+      processMisses(payload, keys, owned, resolved, call);
+    }
+
+    var failed = new HashMap<List<Object>, String>();
+    for (var wait : awaited.entrySet()) {
+      try {
+        resolved.put(wait.getKey(), await(wait.getValue()));
+      } catch (InterruptedException e) {
+        throw e;
+      } catch (Exception e) {
+        // the job owning the shared lookup failed; do not let its failure become ours
+        failed.put(wait.getKey(), key(scope, JsonTrees.get(payload, wait.getKey())));
+      }
+    }
+    if (!failed.isEmpty()) {
+      processMisses(payload, failed, new HashMap<>(), resolved, call);
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> result =
+        (Map<String, Object>)
+            JsonTrees.mapLeaves(
+                payload, (path, value) -> value == null ? null : resolved.get(path));
+    return result;
+  }
+
+  public Stats stats() {
+    lock.lock();
+    try {
+      return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), estimatedBytes);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void processMisses(
+      Map<String, Object> payload,
+      Map<List<Object>, String> keys,
+      Map<String, CompletableFuture<Object>> owned,
+      Map<List<Object>, Object> resolved,
+      SkyflowCall call)
+      throws Exception {
+    try {
+      var processed = call.process(JsonTrees.prune(payload, keys::containsKey));
+      for (var miss : keys.entrySet()) {
+        Object token = JsonTrees.get(processed, miss.getKey());
+        if (token == null) {
+          throw new ConnectorException(
+              "SKYFLOW_MISSING_PROCESSED_FILE",
+              "Processed file is missing the field at " + miss.getKey());
+        }
+        resolved.put(miss.getKey(), token);
+        put(miss.getValue(), token);
+        var future = owned.get(miss.getValue());
+        if (future != null) {
+          future.complete(token);
+        }
+      }
+    } catch (Throwable e) {
+      owned.values().forEach(future -> future.completeExceptionally(e));
+      throw e;
+    } finally {
+      owned.forEach(inFlight::remove);
+    }
+  }
+
+  private Object lookup(String key) {
+    int size;
+    long bytes;
+    lock.lock();
+    try {
+      var entry = entries.get(key);
+      if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+        hits.increment();
+        return entry.token;
+      }
+      misses.increment();
+      if (entry == null) {
+        return null;
+      }
+      remove(key);
+      size = entries.size();
+      bytes = estimatedBytes;
+    } finally {
+      lock.unlock();
+    }
+    metrics.recordTokenCacheEvictions(1);
+    metrics.recordTokenCacheSize(size, bytes);
+    return null;
+  }
+
+  private void put(String key, Object token) {
+    int bytes = ENTRY_OVERHEAD_BYTES + 2 * String.valueOf(token).length();
+    int evictedCount = 0;
+    int size;
+    long totalBytes;
+    lock.lock();
+    try {
+      var previous = entries.put(key, new Entry(token, System.nanoTime() + ttlNanos, bytes));
+      estimatedBytes += bytes - (previous != null ? previous.bytes : 0);
+      var eldest = entries.entrySet().iterator();
+      while (entries.size() > maxEntries && eldest.hasNext()) {
+        var evicted = eldest.next();
+        eldest.remove();
+        estimatedBytes -= evicted.getValue().bytes;
+        evictions.increment();
+        evictedCount++;
+      }
+      size = entries.size();
+      totalBytes = estimatedBytes;
+    } finally {
+      lock.unlock();
+    }
+    if (evictedCount > 0) {
+      metrics.recordTokenCacheEvictions(evictedCount);
+    }
+    metrics.recordTokenCacheSize(size, totalBytes);
+  }
+
+  private void remove(String key) {
+    var removed = entries.remove(key);
+    if (removed != null) {
+      estimatedBytes -= removed.bytes;
+      evictions.increment();
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static String key(String scope, Object value) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(scope.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      // tag the type so that the string "30" and the number 30 do not share a token
+      digest.update(value.getClass().getSimpleName().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
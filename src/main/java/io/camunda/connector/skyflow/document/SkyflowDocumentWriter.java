@@ -0,0 +1,132 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.document;
+
+import io.camunda.connector.api.document.Document;
+import io.camunda.connector.api.document.DocumentCreationRequest;
+import io.camunda.connector.api.document.DocumentFactory;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.http.BoundedPipe;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes the content of a new document in the Camunda document store as a stream.
+ *
+ * <p>{@link #open()} starts creating the document on a virtual thread that reads from a bounded
+ * pipe, while the caller writes the content into the returned stream; {@link #finish()} then
+ * returns the document. The content is never held on the heap as a whole.
+ */
+public final class SkyflowDocumentWriter {
+
+  private static final int PIPE_CAPACITY = 64 * 1024;
+
+  private record Creation(BoundedPipe pipe, CompletableFuture<Document> document) {}
+
+  private final DocumentFactory documents;
+  private final String contentType;
+  private final String fileName;
+  private final AtomicReference<Creation> creation = new AtomicReference<>();
+
+  public SkyflowDocumentWriter(DocumentFactory documents, String contentType, String fileName) {
+    this.documents = documents;
+    this.contentType = contentType;
+    this.fileName = fileName;
+  }
+
+  /**
+   * Starts creating the document and returns the stream to write its content to; closing the
+   * stream ends the content. May be called once.
+   */
+  public OutputStream open() {
+    var started = new Creation(new BoundedPipe(PIPE_CAPACITY), new CompletableFuture<>());
+    if (!creation.compareAndSet(null, started)) {
+      throw new IllegalStateException("Document " + fileName + " is already being written");
+    }
+    Thread.ofVirtual()
+        .name("skyflow-document-writer")
+        .start(
+            () -> {
+              try (var content = started.pipe().source()) {
+                started
+                    .document()
+                    .complete(
+                        documents.create(
+                            DocumentCreationRequest.from(content)
+                                .contentType(contentType)
+                                .fileName(fileName)
+                                .build()));
+              } catch (IOException | RuntimeException e) {
+                started.document().completeExceptionally(e);
+              }
+            });
+    return started.pipe().sink();
+  }
+
+  /** Whether {@link #open()} was called. */
+  public boolean opened() {
+    return creation.get() != null;
+  }
+
+  /**
+   * Makes the document store fail with {@code cause} instead of reading further content, and
+   * waits for it to stop.
+   *
+   * @throws ConnectorException {@code SKYFLOW_DOCUMENT_FAILED} if the document store failed on
+   *     its own, which is then why writing the content failed
+   */
+  public void abort(Exception cause) throws InterruptedException {
+    var started = creation.get();
+    if (started == null) {
+      return;
+    }
+    var failure = cause instanceof IOException io ? io : new IOException(cause);
+    started.pipe().fail(failure);
+    try {
+      started.document().get();
+    } catch (ExecutionException e) {
+      if (!causedBy(e.getCause(), failure)) {
+        throw failed(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Waits until the document store read the content and returns the document.
+   *
+   * @throws ConnectorException {@code SKYFLOW_DOCUMENT_FAILED} if the document store rejects or
+   *     fails to read the document
+   */
+  public Document finish() throws InterruptedException {
+    var started = creation.get();
+    if (started == null) {
+      throw new IllegalStateException("Document " + fileName + " was never opened");
+    }
+    try {
+      return started.document().get();
+    } catch (ExecutionException e) {
+      throw failed(e.getCause());
+    }
+  }
+
+  private static ConnectorException failed(Throwable cause) {
+    return new ConnectorException(
+        "SKYFLOW_DOCUMENT_FAILED", "Storing the document failed: " + cause, cause);
+  }
+
+  private static boolean causedBy(Throwable error, Throwable cause) {
+    for (var current = error; current != null; current = current.getCause()) {
+      if (current == cause) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
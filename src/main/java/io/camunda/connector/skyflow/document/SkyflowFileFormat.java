@@ -0,0 +1,123 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.document;
+
+import io.camunda.connector.api.document.Document;
+import io.camunda.connector.api.error.ConnectorException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * File formats of the Skyflow Detect file endpoints, with the {@code data_format} and the
+ * de-identify endpoint of each.
+ *
+ * <p>The format of a document is looked up by its content type, falling back to the extension of
+ * its file name for generic content types such as {@code application/octet-stream}.
+ */
+public enum SkyflowFileFormat {
+  JSON("json", Endpoints.STRUCTURED_TEXT, "application/json", "text/json"),
+  XML("xml", Endpoints.STRUCTURED_TEXT, "application/xml", "text/xml"),
+  TXT("txt", Endpoints.TEXT, "text/plain"),
+  CSV("csv", Endpoints.SPREADSHEET, "text/csv"),
+  XLS("xls", Endpoints.SPREADSHEET, "application/vnd.ms-excel"),
+  XLSX(
+      "xlsx",
+      Endpoints.SPREADSHEET,
+      "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+  PDF("pdf", Endpoints.PDF, "application/pdf"),
+  DOC("doc", Endpoints.DOCUMENT, "application/msword"),
+  DOCX(
+      "docx",
+      Endpoints.DOCUMENT,
+      "application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
+  PNG("png", Endpoints.IMAGE, "image/png"),
+  JPG("jpg", Endpoints.IMAGE, "image/jpeg"),
+  TIF("tif", Endpoints.IMAGE, "image/tiff"),
+  BMP("bmp", Endpoints.IMAGE, "image/bmp"),
+  MP3("mp3", Endpoints.AUDIO, "audio/mpeg"),
+  WAV("wav", Endpoints.AUDIO, "audio/wav", "audio/x-wav");
+
+  private final String dataFormat;
+  private final String deidentifyPath;
+  private final List<String> contentTypes;
+
+  SkyflowFileFormat(String dataFormat, String deidentifyPath, String... contentTypes) {
+    this.dataFormat = dataFormat;
+    this.deidentifyPath = deidentifyPath;
+    this.contentTypes = List.of(contentTypes);
+  }
+
+  /** Value of {@code file.data_format}. */
+  public String dataFormat() {
+    return dataFormat;
+  }
+
+  /** Path of the de-identify endpoint for files of this format. */
+  public String deidentifyPath() {
+    return deidentifyPath;
+  }
+
+  /** Content type of processed files of this format. */
+  public String contentType() {
+    return contentTypes.getFirst();
+  }
+
+  /**
+   * Returns the format of {@code document}.
+   *
+   * @throws ConnectorException {@code SKYFLOW_BAD_PAYLOAD} if the format is not supported
+   */
+  public static SkyflowFileFormat of(Document document) {
+    var metadata = document.metadata();
+    return of(metadata.getContentType(), metadata.getFileName());
+  }
+
+  /**
+   * Returns the format of a file by its content type or, failing that, its file name; both may
+   * be {@code null}.
+   *
+   * @throws ConnectorException {@code SKYFLOW_BAD_PAYLOAD} if the format is not supported
+   */
+  public static SkyflowFileFormat of(String contentType, String fileName) {
+    if (contentType != null) {
+      // e.g. "text/csv; charset=UTF-8"
+      String mediaType = contentType.split(";", 2)[0].strip().toLowerCase(Locale.ROOT);
+      for (var format : values()) {
+        if (format.contentTypes.contains(mediaType)) {
+          return format;
+        }
+      }
+    }
+    int dot = fileName == null ? -1 : fileName.lastIndexOf('.');
+    if (dot >= 0) {
+      String extension = fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+      for (var format : values()) {
+        if (format.dataFormat.equals(extension)) {
+          return format;
+        }
+      }
+      if (extension.equals("jpeg")) {
+        return JPG;
+      } else if (extension.equals("tiff")) {
+        return TIF;
+      }
+    }
+    throw new ConnectorException(
+        "SKYFLOW_BAD_PAYLOAD",
+        "Unsupported document type: " + contentType + " (file " + fileName + ")");
+  }
+
+  private static final class Endpoints {
+    static final String STRUCTURED_TEXT = "/v1/detect/deidentify/file/structured_text";
+    static final String TEXT = "/v1/detect/deidentify/file/text";
+    static final String SPREADSHEET = "/v1/detect/deidentify/file/spreadsheet";
+    static final String PDF = "/v1/detect/deidentify/file/document/pdf";
+    static final String DOCUMENT = "/v1/detect/deidentify/file/document";
+    static final String IMAGE = "/v1/detect/deidentify/file/image";
+    static final String AUDIO = "/v1/detect/deidentify/file/audio";
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.document;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.document.Document;
+import io.camunda.connector.api.document.DocumentFactory;
+import io.camunda.connector.api.error.ConnectorException;
+import java.io.IOException;
+
+/**
+ * Stores results as JSON documents in the Camunda document store.
+ *
+ * <p>The result is serialized into a {@link SkyflowDocumentWriter}, so no JSON copy of the result
+ * is held on the heap. Returned as the job result, the document becomes a document reference in
+ * the process instead of the result itself.
+ */
+public final class SkyflowResultDocuments {
+
+  static final String CONTENT_TYPE = "application/json";
+
+  private SkyflowResultDocuments() {}
+
+  /**
+   * Writes {@code result} as JSON into a new document.
+   *
+   * @throws ConnectorException {@code SKYFLOW_DOCUMENT_FAILED} if the document store rejects or
+   *     fails to read the document
+   */
+  public static Document store(
+      DocumentFactory documents, ObjectMapper mapper, Object result, String fileName)
+      throws InterruptedException {
+    var writer = new SkyflowDocumentWriter(documents, CONTENT_TYPE, fileName);
+    var out = writer.open();
+    try {
+      // closing ends the content, so a failed result must not close it
+      mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, result);
+      out.close();
+    } catch (IOException | RuntimeException e) {
+      // the store may have failed first and closed the pipe; abort() reports its error then
+      writer.abort(e);
+    }
+    return writer.finish();
+  }
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/** Request body for the synchronous POST /v1/detect/deidentify/string. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SkyflowDeidentifyStringRequest(
+    String text,
+    @JsonProperty("vault_id") String vaultId,
+    @JsonProperty("token_type") SkyflowDeidentifyStructuredTextRequest.TokenType tokenType,
+    @JsonProperty("entity_types") List<String> entityTypes) {}
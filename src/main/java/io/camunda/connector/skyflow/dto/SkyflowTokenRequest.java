@@ -0,0 +1,16 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** Request body exchanging a signed service account assertion for a bearer token. */
+public record SkyflowTokenRequest(
+    @JsonProperty("grant_type") String grantType, @JsonProperty("assertion") String assertion) {
+
+  public static final String JWT_BEARER_GRANT = "urn:ietf:params:oauth:grant-type:jwt-bearer";
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counting semaphore whose {@link #acquire()} never blocks the caller.
+ *
+ * <p>A waiter receives a future that completes once a permit is handed over, so both blocking
+ * and asynchronous callers can share the same limit. Cancelled waiters are skipped on release.
+ */
+final class AsyncPermits {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+  private int available;
+
+  AsyncPermits(int permits) {
+    if (permits < 1) {
+      throw new IllegalArgumentException("permits must be positive: " + permits);
+    }
+    this.available = permits;
+  }
+
+  CompletableFuture<Void> acquire() {
+    lock.lock();
+    try {
+      if (available > 0) {
+        available--;
+        return CompletableFuture.completedFuture(null);
+      }
+      var waiter = new CompletableFuture<Void>();
+      waiters.add(waiter);
+      return waiter;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void release() {
+    while (true) {
+      CompletableFuture<Void> next;
+      lock.lock();
+      try {
+        next = waiters.poll();
+        if (next == null) {
+          available++;
+          return;
+        }
+      } finally {
+        lock.unlock();
+      }
+      // hand the permit over outside the lock; a waiter cancelled meanwhile passes it on
+      if (next.complete(null)) {
+        return;
+      }
+    }
+  }
+
+  int queued() {
+    lock.lock();
+    try {
+      return waiters.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size byte pipe between one writer and one reader thread.
+ *
+ * <p>Unlike {@link java.io.PipedInputStream} it does not rely on {@code synchronized} and
+ * {@code wait}, so neither side pins a carrier thread when running on a virtual thread. A writer
+ * failure is propagated to the reader; a reader closing early makes further writes fail.
+ */
+public final class BoundedPipe {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final byte[] buffer;
+  private int readPos;
+  private int count;
+  private boolean writerClosed;
+  private boolean readerClosed;
+  private IOException failure;
+
+  public BoundedPipe(int capacity) {
+    this.buffer = new byte[capacity];
+  }
+
+  public OutputStream sink() {
+    return sink;
+  }
+
+  public InputStream source() {
+    return source;
+  }
+
+  /** Makes the reader fail with {@code cause} once it consumed the buffered bytes. */
+  public void fail(IOException cause) {
+    lock.lock();
+    try {
+      failure = cause;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private final OutputStream sink =
+      new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+          write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+          while (len > 0) {
+            lock.lock();
+            try {
+              while (count == buffer.length && !readerClosed) {
+                await(notFull);
+              }
+              if (readerClosed) {
+                throw new IOException("Pipe closed by reader");
+              }
+              int writePos = (readPos + count) % buffer.length;
+              int chunk = Math.min(len, Math.min(buffer.length - count, buffer.length - writePos));
+              System.arraycopy(bytes, off, buffer, writePos, chunk);
+              count += chunk;
+              off += chunk;
+              len -= chunk;
+              notEmpty.signal();
+            } finally {
+              lock.unlock();
+            }
+          }
+        }
+
+        @Override
+        public void close() {
+          lock.lock();
+          try {
+            writerClosed = true;
+            notEmpty.signalAll();
+          } finally {
+            lock.unlock();
+          }
+        }
+      };
+
+  private final InputStream source =
+      new InputStream() {
+        @Override
+        public int read() throws IOException {
+          var single = new byte[1];
+          return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+          if (len == 0) {
+            return 0;
+          }
+          lock.lock();
+          try {
+            while (count == 0 && !writerClosed && failure == null) {
+              await(notEmpty);
+            }
+            if (count == 0) {
+              if (failure != null) {
+                throw new IOException("Pipe content could not be written", failure);
+              }
+              return -1;
+            }
+            int chunk = Math.min(len, Math.min(count, buffer.length - readPos));
+            System.arraycopy(buffer, readPos, bytes, off, chunk);
+            readPos = (readPos + chunk) % buffer.length;
+            count -= chunk;
+            notFull.signal();
+            return chunk;
+          } finally {
+            lock.unlock();
+          }
+        }
+
+        @Override
+        public void close() {
+          lock.lock();
+          try {
+            readerClosed = true;
+            notFull.signalAll();
+          } finally {
+            lock.unlock();
+          }
+        }
+      };
+
+  private static void await(Condition condition) throws InterruptedIOException {
+    try {
+      condition.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting on pipe");
+    }
+  }
+}
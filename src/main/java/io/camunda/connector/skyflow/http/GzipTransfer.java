@@ -0,0 +1,157 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * gzip content coding of the transfers of a transport.
+ *
+ * <p>{@code java.net.http.HttpClient} neither asks for nor decodes compressed responses. {@link
+ * #responseHandler()} streams the body and inflates it while it is read if the response came with
+ * {@code Content-Encoding: gzip}; the transport adds {@code Accept-Encoding: gzip} to requests
+ * using it. The compressed and uncompressed sizes of every gzip transfer are reported through
+ * {@link SkyflowMetrics#recordCompression}.
+ */
+final class GzipTransfer {
+
+  static final String GZIP = "gzip";
+  static final String ACCEPT_ENCODING = "Accept-Encoding";
+  static final String CONTENT_ENCODING = "Content-Encoding";
+
+  /** Receives the sizes of one compressed transfer. */
+  @FunctionalInterface
+  interface Sizes {
+    void transferred(long compressedBytes, long uncompressedBytes);
+  }
+
+  /** Marks the handlers that understand gzip, so only their requests advertise it. */
+  interface DecodingHandler extends HttpResponse.BodyHandler<InputStream> {}
+
+  private final SkyflowMetrics metrics;
+
+  GzipTransfer(SkyflowMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /** Streaming body handler inflating gzip-encoded responses on the caller's thread. */
+  DecodingHandler responseHandler() {
+    return info -> {
+      var body = HttpResponse.BodySubscribers.ofInputStream();
+      boolean gzip =
+          info.headers()
+              .firstValue(CONTENT_ENCODING)
+              .filter(value -> value.trim().equalsIgnoreCase(GZIP))
+              .isPresent();
+      // the mapping runs on the client's executor: only wrap here, inflating starts on read
+      return gzip ? HttpResponse.BodySubscribers.mapping(body, InflatingInputStream::new) : body;
+    };
+  }
+
+  /** Sizes of a request body sent compressed. */
+  Sizes requestSizes() {
+    return (compressed, uncompressed) ->
+        metrics.recordCompression("request", compressed, uncompressed);
+  }
+
+  /**
+   * Inflates the response body once it is first read, counting the bytes on both sides. The sizes
+   * are reported once, at the end of the body or when it is closed.
+   */
+  private final class InflatingInputStream extends InputStream {
+
+    private final CountingInputStream compressed;
+    private InputStream inflated;
+    private long uncompressedBytes;
+    private boolean reported;
+
+    private InflatingInputStream(InputStream body) {
+      this.compressed = new CountingInputStream(body);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = inflated().read();
+      if (b < 0) {
+        report();
+      } else {
+        uncompressedBytes++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+      int n = inflated().read(bytes, off, len);
+      if (n < 0) {
+        report();
+      } else {
+        uncompressedBytes += n;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (inflated != null) {
+          inflated.close();
+        } else {
+          compressed.close();
+        }
+      } finally {
+        report();
+      }
+    }
+
+    private InputStream inflated() throws IOException {
+      if (inflated == null) {
+        inflated = new GZIPInputStream(compressed, 8192);
+      }
+      return inflated;
+    }
+
+    private void report() {
+      if (!reported && compressed.count > 0) {
+        reported = true;
+        metrics.recordCompression("response", compressed.count, uncompressedBytes);
+      }
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    private CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+      int n = in.read(bytes, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+  }
+}
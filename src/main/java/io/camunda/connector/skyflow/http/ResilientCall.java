@@ -0,0 +1,231 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import io.camunda.connector.api.error.ConnectorException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * One logical call through a {@link SkyflowTransport}: circuit breaker, rate limiter, send, and
+ * retries until a final response or error.
+ *
+ * <ul>
+ *   <li>HTTP 429 is retried after its {@code Retry-After} period and throttles the rate limiter.
+ *   <li>HTTP 5xx and I/O errors are retried with capped, jittered exponential back-off for
+ *       idempotent endpoints. Other endpoints are only retried when the connection could not be
+ *       established, since the request then never reached Skyflow.
+ *   <li>While the vault's circuit is open the call fails with {@code SKYFLOW_CIRCUIT_OPEN}.
+ * </ul>
+ *
+ * <p>Once retries are exhausted the last response is returned as is. Nothing blocks: waits are
+ * scheduled on the transport's executor.
+ */
+final class ResilientCall<T> {
+
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final String vaultId;
+  private final SkyflowEndpoint endpoint;
+  private final HttpRequest request;
+  private final HttpResponse.BodyHandler<T> handler;
+  private final Function<HttpResponse.BodyHandler<T>, CompletableFuture<HttpResponse<T>>> sender;
+  private final SkyflowRateLimiter rateLimiter;
+  private final SkyflowCircuitBreakers breakers;
+  private final SkyflowResilienceSettings settings;
+  private final Executor executor;
+
+  private final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+  private final AtomicReference<CompletableFuture<?>> current = new AtomicReference<>();
+  private int throttledRetries;
+  private int failedRetries;
+
+  ResilientCall(
+      String vaultId,
+      SkyflowEndpoint endpoint,
+      HttpRequest request,
+      HttpResponse.BodyHandler<T> handler,
+      Function<HttpResponse.BodyHandler<T>, CompletableFuture<HttpResponse<T>>> sender,
+      SkyflowRateLimiter rateLimiter,
+      SkyflowCircuitBreakers breakers,
+      SkyflowResilienceSettings settings,
+      Executor executor) {
+    this.vaultId = vaultId;
+    this.endpoint = endpoint;
+    this.request = request;
+    this.handler = handler;
+    this.sender = sender;
+    this.rateLimiter = rateLimiter;
+    this.breakers = breakers;
+    this.settings = settings;
+    this.executor = executor;
+  }
+
+  CompletableFuture<HttpResponse<T>> start() {
+    result.whenComplete(
+        (r, e) -> {
+          var pending = current.get();
+          if (result.isCancelled() && pending != null) {
+            pending.cancel(false);
+          }
+        });
+    attempt();
+    return result;
+  }
+
+  private void attempt() {
+    if (result.isDone()) {
+      return;
+    }
+    var permit = breakers.tryAcquire(vaultId);
+    if (permit == null) {
+      result.completeExceptionally(
+          new ConnectorException(
+              "SKYFLOW_CIRCUIT_OPEN",
+              "Skyflow vault " + vaultId + " is failing; calls are rejected for a while"));
+      return;
+    }
+    boolean mayRetryThrottled = throttledRetries < rateLimiter.settings().maxRetries();
+    boolean mayRetryFailed = endpoint.idempotent() && failedRetries < settings.maxRetries();
+    HttpResponse.BodyHandler<T> attemptHandler =
+        info ->
+            retryable(info.statusCode(), mayRetryThrottled, mayRetryFailed)
+                // the response is retried, so its body is not worth reading
+                ? HttpResponse.BodySubscribers.replacing(null)
+                : handler.apply(info);
+
+    var delay = rateLimiter.reserve(vaultId, endpoint);
+    var slot = delay.isZero() ? CompletableFuture.<Void>completedFuture(null) : after(delay);
+    track(slot);
+    slot.thenCompose(ignored -> track(sender.apply(attemptHandler)))
+        .whenComplete(
+            (response, error) -> {
+              if (error != null) {
+                onError(permit, unwrap(error));
+              } else {
+                onResponse(permit, response, mayRetryThrottled, mayRetryFailed);
+              }
+            });
+  }
+
+  private void onResponse(
+      SkyflowCircuitBreakers.Permit permit,
+      HttpResponse<T> response,
+      boolean mayRetryThrottled,
+      boolean mayRetryFailed) {
+    int status = response.statusCode();
+    if (status == TOO_MANY_REQUESTS) {
+      permit.neutral();
+    } else if (status >= 500) {
+      permit.failure();
+    } else {
+      permit.success();
+    }
+    if (!retryable(status, mayRetryThrottled, mayRetryFailed)) {
+      result.complete(response);
+    } else if (status == TOO_MANY_REQUESTS) {
+      rateLimiter.onThrottled(vaultId, endpoint, retryAfter(response, throttledRetries++));
+      // the throttled bucket delays the next attempt
+      attempt();
+    } else {
+      retryLater();
+    }
+  }
+
+  private void onError(SkyflowCircuitBreakers.Permit permit, Throwable error) {
+    if (error instanceof CancellationException) {
+      permit.neutral();
+      result.completeExceptionally(error);
+      return;
+    }
+    permit.failure();
+    boolean notSent =
+        error instanceof ConnectException || error instanceof HttpConnectTimeoutException;
+    if (error instanceof IOException
+        && (endpoint.idempotent() || notSent)
+        && failedRetries < settings.maxRetries()) {
+      retryLater();
+    } else {
+      result.completeExceptionally(error);
+    }
+  }
+
+  private void retryLater() {
+    track(after(backoff(settings.initialBackoff(), settings.maxBackoff(), failedRetries++)))
+        .thenRun(this::attempt);
+  }
+
+  private static boolean retryable(int status, boolean mayRetryThrottled, boolean mayRetryFailed) {
+    return status == TOO_MANY_REQUESTS ? mayRetryThrottled : status >= 500 && mayRetryFailed;
+  }
+
+  private CompletableFuture<Void> after(Duration delay) {
+    return CompletableFuture.runAsync(
+        () -> {},
+        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, executor));
+  }
+
+  /** Remembers the pending step so that cancelling the call cancels it. */
+  private <F extends CompletableFuture<?>> F track(F step) {
+    current.set(step);
+    if (result.isCancelled()) {
+      step.cancel(false);
+    }
+    return step;
+  }
+
+  /** {@code Retry-After} in seconds or as HTTP date, else a jittered exponential back-off. */
+  private Duration retryAfter(HttpResponse<?> response, int retry) {
+    var maxBackoff = rateLimiter.settings().maxBackoff();
+    var header = response.headers().firstValue("Retry-After");
+    if (header.isPresent()) {
+      try {
+        var value = header.get().trim();
+        var retryAfter =
+            value.chars().allMatch(Character::isDigit)
+                ? Duration.ofSeconds(Long.parseLong(value))
+                : Duration.between(
+                    Instant.now(),
+                    ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        return retryAfter.isNegative()
+            ? Duration.ZERO
+            : retryAfter.compareTo(maxBackoff) > 0 ? maxBackoff : retryAfter;
+      } catch (RuntimeException e) {
+        // malformed header, fall back to the back-off below
+      }
+    }
+    return backoff(settings.initialBackoff(), maxBackoff, retry);
+  }
+
+  /** {@code initial * 2^retry}, capped at {@code max} and jittered into its upper half. */
+  static Duration backoff(Duration initial, Duration max, int retry) {
+    long capped = Math.min(max.toMillis(), initial.toMillis() << Math.min(retry, 20));
+    return Duration.ofMillis(ThreadLocalRandom.current().nextLong(capped / 2, capped + 1));
+  }
+
+  static Throwable unwrap(Throwable error) {
+    while (error instanceof CompletionException && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+}
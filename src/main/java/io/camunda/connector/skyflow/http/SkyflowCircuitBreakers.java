@@ -0,0 +1,150 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One circuit breaker per vault, shared by every transport of the node.
+ *
+ * <p>A circuit opens after {@link SkyflowResilienceSettings#failureThreshold()} consecutive
+ * failed calls (HTTP 5xx or I/O errors) and rejects calls for {@link
+ * SkyflowResilienceSettings#openDuration()}. It then lets a single probe through: a success
+ * closes the circuit, a failure opens it again. Throttled responses neither open nor close it.
+ */
+public final class SkyflowCircuitBreakers {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final SkyflowResilienceSettings settings;
+  private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+  public SkyflowCircuitBreakers(SkyflowResilienceSettings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Returns a permit for a call to the vault, or {@code null} while its circuit is open. The
+   * outcome of a permitted call must be reported exactly once through its permit.
+   */
+  public Permit tryAcquire(String vaultId) {
+    return breaker(vaultId).tryAcquire(System.nanoTime());
+  }
+
+  public State state(String vaultId) {
+    return breaker(vaultId).state();
+  }
+
+  /** Outcome sink of one permitted call. */
+  public static final class Permit {
+
+    private final Breaker breaker;
+    private final boolean probe;
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    private Permit(Breaker breaker, boolean probe) {
+      this.breaker = breaker;
+      this.probe = probe;
+    }
+
+    public void success() {
+      report(Boolean.TRUE);
+    }
+
+    public void failure() {
+      report(Boolean.FALSE);
+    }
+
+    /** The call ended without telling anything about the vault's health, e.g. throttled. */
+    public void neutral() {
+      report(null);
+    }
+
+    private void report(Boolean healthy) {
+      if (reported.compareAndSet(false, true)) {
+        breaker.onResult(probe, healthy, System.nanoTime());
+      }
+    }
+  }
+
+  private Breaker breaker(String vaultId) {
+    return breakers.computeIfAbsent(vaultId, id -> new Breaker());
+  }
+
+  private final class Breaker {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private Permit tryAcquire(long now) {
+      lock.lock();
+      try {
+        if (state == State.OPEN && now - openedAt >= settings.openDuration().toNanos()) {
+          state = State.HALF_OPEN;
+        }
+        return switch (state) {
+          case CLOSED -> new Permit(this, false);
+          case OPEN -> null;
+          case HALF_OPEN -> {
+            if (probeInFlight) {
+              yield null;
+            }
+            probeInFlight = true;
+            yield new Permit(this, true);
+          }
+        };
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** {@code healthy} is {@code null} for calls that say nothing about the vault's health. */
+    private void onResult(boolean probe, Boolean healthy, long now) {
+      lock.lock();
+      try {
+        if (probe) {
+          probeInFlight = false;
+        }
+        if (healthy == null) {
+          return;
+        }
+        if (healthy) {
+          consecutiveFailures = 0;
+          if (probe) {
+            state = State.CLOSED;
+          }
+        } else if (probe
+            || (state == State.CLOSED && ++consecutiveFailures >= settings.failureThreshold())) {
+          state = State.OPEN;
+          openedAt = now;
+          consecutiveFailures = 0;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private State state() {
+      lock.lock();
+      try {
+        return state;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+/** Skyflow API endpoints; each is rate limited separately. */
+public enum SkyflowEndpoint {
+  /** {@code POST /v1/detect/deidentify/file/structured_text}; every call starts a new run. */
+  DEIDENTIFY(false, true),
+  /** {@code GET /v1/detect/runs/{runId}} */
+  RUN_STATUS(true, false),
+  /** {@code POST /v1/detect/reidentify/file} */
+  REIDENTIFY(true, true),
+  /**
+   * {@code POST /v1/detect/deidentify/string}; synchronous, no run is started. Not idempotent:
+   * unless the vault tokenizes deterministically, a repeated call mints new vault tokens.
+   */
+  DEIDENTIFY_STRING(false, false),
+  /** {@code POST} to a service account's {@code tokenURI}; exchanges an assertion for a token. */
+  TOKEN(true, false);
+
+  private final boolean idempotent;
+  private final boolean gzipRequests;
+
+  SkyflowEndpoint(boolean idempotent, boolean gzipRequests) {
+    this.idempotent = idempotent;
+    this.gzipRequests = gzipRequests;
+  }
+
+  /** Whether a call may be repeated after Skyflow possibly received it. */
+  public boolean idempotent() {
+    return idempotent;
+  }
+
+  /** Whether the endpoint accepts gzip-compressed request bodies. */
+  public boolean gzipRequests() {
+    return gzipRequests;
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a Skyflow request whose {@code file.base64} field carries a JSON payload or the content
+ * of a file.
+ *
+ * <p>The request envelope (vault id, token type, ...) is serialized once with a placeholder in
+ * place of the file content. When the HTTP client subscribes, a virtual thread writes the
+ * envelope prefix, pipes Jackson's generator through a base64-encoding stream and writes the
+ * suffix into a {@link BoundedPipe} the client reads from. File content is copied from its stream
+ * through the same base64-encoding stream. Neither the payload JSON, its base64 form nor the
+ * request body is ever materialized on the heap. A gzip-compressed body is deflated
+ * on the same thread while it is written.
+ */
+public final class SkyflowFileBodyPublisher {
+
+  /** Placeholder to put in the {@code base64} field of the envelope. */
+  public static final String PAYLOAD_PLACEHOLDER = "__skyflow_streamed_payload__";
+
+  private static final int PIPE_CAPACITY = 64 * 1024;
+
+  /** Opens the content of a file; called again for every encoding of the body. */
+  @FunctionalInterface
+  public interface ContentSource {
+    InputStream open() throws IOException;
+  }
+
+  private final byte[] prefix;
+  private final byte[] suffix;
+  private final Writer content;
+  private final AtomicLong payloadBytes = new AtomicLong(-1);
+
+  private SkyflowFileBodyPublisher(byte[] prefix, byte[] suffix, Writer content) {
+    this.prefix = prefix;
+    this.suffix = suffix;
+    this.content = content;
+  }
+
+  /**
+   * @param mapper mapper used for the envelope and the payload
+   * @param envelope request DTO whose file content is {@link #PAYLOAD_PLACEHOLDER}
+   * @param payload JSON value to encode into the file content
+   */
+  public static SkyflowFileBodyPublisher of(ObjectMapper mapper, Object envelope, Object payload)
+      throws IOException {
+    return create(mapper, envelope, out -> mapper.writeValue(out, payload));
+  }
+
+  /**
+   * @param mapper mapper used for the envelope
+   * @param envelope request DTO whose file content is {@link #PAYLOAD_PLACEHOLDER}
+   * @param content raw bytes to encode into the file content, e.g. a document's stream
+   */
+  public static SkyflowFileBodyPublisher ofContent(
+      ObjectMapper mapper, Object envelope, ContentSource content) throws IOException {
+    return create(
+        mapper,
+        envelope,
+        out -> {
+          try (var in = content.open()) {
+            in.transferTo(out);
+          }
+        });
+  }
+
+  private static SkyflowFileBodyPublisher create(
+      ObjectMapper mapper, Object envelope, Writer content) throws IOException {
+    String json = mapper.writeValueAsString(envelope);
+    int at = json.indexOf(PAYLOAD_PLACEHOLDER);
+    if (at < 0) {
+      throw new IllegalArgumentException("Envelope does not contain the payload placeholder");
+    }
+    return new SkyflowFileBodyPublisher(
+        json.substring(0, at).getBytes(StandardCharsets.UTF_8),
+        json.substring(at + PAYLOAD_PLACEHOLDER.length()).getBytes(StandardCharsets.UTF_8),
+        content);
+  }
+
+  /** Body publisher encoding the request on demand; each subscription encodes again. */
+  public HttpRequest.BodyPublisher bodyPublisher() {
+    return publisher(this::writeTo);
+  }
+
+  /** Like {@link #bodyPublisher()}, but gzip-compressed; {@code sizes} is told both sizes. */
+  HttpRequest.BodyPublisher gzipBodyPublisher(GzipTransfer.Sizes sizes) {
+    return publisher(
+        out -> {
+          var compressed = new CountingOutputStream(new NonClosingOutputStream(out));
+          var uncompressed = new CountingOutputStream(new GZIPOutputStream(compressed, 8192));
+          writeTo(uncompressed);
+          // writes the gzip trailer but leaves out open
+          uncompressed.close();
+          sizes.transferred(compressed.count, uncompressed.count);
+        });
+  }
+
+  /**
+   * Whether the request body is larger than {@code bytes}; encodes at most that many bytes to
+   * find out.
+   */
+  boolean exceeds(long bytes) throws IOException {
+    try {
+      writeTo(new LimitOutputStream(bytes));
+      return false;
+    } catch (LimitReached e) {
+      return true;
+    }
+  }
+
+  /** The request body as read by the HTTP client, encoded while it is read. */
+  InputStream source() {
+    return source(this::writeTo);
+  }
+
+  private HttpRequest.BodyPublisher publisher(Writer writer) {
+    return HttpRequest.BodyPublishers.ofInputStream(() -> source(writer));
+  }
+
+  private static InputStream source(Writer writer) {
+    var pipe = new BoundedPipe(PIPE_CAPACITY);
+    Thread.ofVirtual()
+        .name("skyflow-body-encoder")
+        .start(
+            () -> {
+              try {
+                var out = pipe.sink();
+                writer.write(out);
+                // closing ends the body, so a failed encoding must fail the pipe instead
+                out.close();
+              } catch (IOException e) {
+                pipe.fail(e);
+              } catch (RuntimeException e) {
+                pipe.fail(new IOException(e));
+              }
+            });
+    return pipe.source();
+  }
+
+  /** Writes the complete request body to {@code out}. */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(prefix);
+    var counting =
+        new CountingOutputStream(Base64.getEncoder().wrap(new NonClosingOutputStream(out)));
+    // closing the base64 stream writes the final padding but leaves out open
+    try (counting) {
+      content.write(counting);
+    }
+    payloadBytes.set(counting.count);
+    out.write(suffix);
+  }
+
+  /** Size of the payload JSON or file in bytes once it has been encoded, {@code -1} before. */
+  public long payloadBytes() {
+    return payloadBytes.get();
+  }
+
+  @FunctionalInterface
+  private interface Writer {
+    void write(OutputStream out) throws IOException;
+  }
+
+  /** Discards the bytes written and fails once more than a limit were written. */
+  private static final class LimitOutputStream extends OutputStream {
+
+    private final long limit;
+    private long count;
+
+    private LimitOutputStream(long limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(null, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+      count += len;
+      if (count > limit) {
+        throw new LimitReached();
+      }
+    }
+  }
+
+  private static final class LimitReached extends IOException {
+
+    @Override
+    public Throwable fillInStackTrace() {
+      // thrown to stop encoding, never reported
+      return this;
+    }
+  }
+
+  private static final class NonClosingOutputStream extends FilterOutputStream {
+
+    private NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+      out.write(bytes, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+
+  private static final class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    private CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+      out.write(bytes, off, len);
+      count += len;
+    }
+  }
+}
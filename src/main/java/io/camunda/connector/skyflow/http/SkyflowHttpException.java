@@ -0,0 +1,36 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import io.camunda.connector.api.error.ConnectorException;
+
+/** Skyflow answered a request with an unsuccessful HTTP status, after any retries. */
+public final class SkyflowHttpException extends ConnectorException {
+
+  private final int statusCode;
+
+  public SkyflowHttpException(String errorCode, int statusCode, String body) {
+    super(errorCode, "Skyflow request failed: HTTP " + statusCode + " - " + body);
+    this.statusCode = statusCode;
+  }
+
+  public int statusCode() {
+    return statusCode;
+  }
+
+  /**
+   * Whether Skyflow rejected the request itself, e.g. its payload, rather than the caller's
+   * credentials or rate.
+   */
+  public boolean rejected() {
+    return statusCode / 100 == 4
+        && statusCode != 401
+        && statusCode != 403
+        && statusCode != 408
+        && statusCode != 429;
+  }
+}
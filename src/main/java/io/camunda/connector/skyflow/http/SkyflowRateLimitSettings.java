@@ -0,0 +1,72 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Node-wide settings of the Skyflow rate limiter, read from system properties:
+ *
+ * <ul>
+ *   <li>{@code skyflow.rateLimit.requestsPerSecond} - per vault and endpoint; {@code 0} (default)
+ *       means no limit until Skyflow throttles
+ *   <li>{@code skyflow.rateLimit.vault.<vaultId>.requestsPerSecond} - overrides the rate of one
+ *       vault
+ *   <li>{@code skyflow.rateLimit.maxRetries} - retries of a throttled request (default 5)
+ *   <li>{@code skyflow.rateLimit.maxBackoffMs} - cap of a single back-off (default 60000)
+ * </ul>
+ *
+ * @param requestsPerSecond default rate per vault and endpoint, {@code 0} for no limit
+ * @param vaultRequestsPerSecond rates of individual vaults, keyed by vault id
+ * @param maxRetries how often a request answered with HTTP 429 is retried
+ * @param maxBackoff longest wait before a retry, including {@code Retry-After}
+ */
+public record SkyflowRateLimitSettings(
+    double requestsPerSecond,
+    Map<String, Double> vaultRequestsPerSecond,
+    int maxRetries,
+    Duration maxBackoff) {
+
+  private static final String PREFIX = "skyflow.rateLimit.";
+  private static final String VAULT_PREFIX = PREFIX + "vault.";
+  private static final String RATE_SUFFIX = ".requestsPerSecond";
+
+  public SkyflowRateLimitSettings {
+    vaultRequestsPerSecond = Map.copyOf(vaultRequestsPerSecond);
+  }
+
+  public static SkyflowRateLimitSettings defaults() {
+    return new SkyflowRateLimitSettings(0, Map.of(), 5, Duration.ofMinutes(1));
+  }
+
+  public static SkyflowRateLimitSettings fromSystemProperties() {
+    var defaults = defaults();
+    Map<String, Double> vaultRates = new HashMap<>();
+    for (var name : System.getProperties().stringPropertyNames()) {
+      if (name.startsWith(VAULT_PREFIX) && name.endsWith(RATE_SUFFIX)) {
+        var vaultId = name.substring(VAULT_PREFIX.length(), name.length() - RATE_SUFFIX.length());
+        vaultRates.put(vaultId, Double.parseDouble(System.getProperty(name)));
+      }
+    }
+    return new SkyflowRateLimitSettings(
+        Double.parseDouble(
+            System.getProperty(
+                PREFIX + "requestsPerSecond", String.valueOf(defaults.requestsPerSecond()))),
+        vaultRates,
+        Integer.getInteger(PREFIX + "maxRetries", defaults.maxRetries()),
+        Duration.ofMillis(
+            Long.getLong(PREFIX + "maxBackoffMs", defaults.maxBackoff().toMillis())));
+  }
+
+  /** Configured rate of a vault, {@link Double#POSITIVE_INFINITY} if it is not limited. */
+  double rateFor(String vaultId) {
+    double rate = vaultRequestsPerSecond.getOrDefault(vaultId, requestsPerSecond);
+    return rate > 0 ? rate : Double.POSITIVE_INFINITY;
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets per vault and endpoint, shared by every transport of the node.
+ *
+ * <p>{@link #reserve(String, SkyflowEndpoint)} hands out send slots and returns how long the
+ * caller has to wait for its slot, so callers schedule the request instead of blocking. When
+ * Skyflow answers with HTTP 429, {@link #onThrottled} pauses the bucket for the {@code
+ * Retry-After} period and halves its rate, at most once per second and not again while it is
+ * still paused: the requests in flight when Skyflow starts throttling all come back with 429 and
+ * are answered by the same halving. The rate grows back by a quarter every few seconds
+ * without throttling until it reaches the configured rate again. Buckets without a configured
+ * rate are unlimited until they are throttled for the first time; they then start from half of
+ * the rate observed at that moment.
+ */
+public final class SkyflowRateLimiter {
+
+  private static final double MIN_RATE = 0.5;
+  private static final long RECOVERY_NANOS = Duration.ofSeconds(5).toNanos();
+  private static final long SECOND_NANOS = Duration.ofSeconds(1).toNanos();
+  private static final long ADJUSTMENT_NANOS = SECOND_NANOS;
+
+  private final SkyflowRateLimitSettings settings;
+  private final Map<Key, Bucket> buckets = new ConcurrentHashMap<>();
+
+  public SkyflowRateLimiter(SkyflowRateLimitSettings settings) {
+    this.settings = settings;
+  }
+
+  private record Key(String vaultId, SkyflowEndpoint endpoint) {}
+
+  /** Reserves the next send slot and returns the time until it is due; zero to send now. */
+  public Duration reserve(String vaultId, SkyflowEndpoint endpoint) {
+    return Duration.ofNanos(bucket(vaultId, endpoint).reserve(System.nanoTime()));
+  }
+
+  /**
+   * Pauses the bucket for {@code retryAfter} and halves its rate, unless the bucket is still
+   * paused or was halved within the last second.
+   */
+  public void onThrottled(String vaultId, SkyflowEndpoint endpoint, Duration retryAfter) {
+    bucket(vaultId, endpoint).throttle(System.nanoTime(), retryAfter.toNanos());
+  }
+
+  /** Current rate in requests per second, {@link Double#POSITIVE_INFINITY} if unlimited. */
+  public double rate(String vaultId, SkyflowEndpoint endpoint) {
+    return bucket(vaultId, endpoint).rate();
+  }
+
+  public SkyflowRateLimitSettings settings() {
+    return settings;
+  }
+
+  private Bucket bucket(String vaultId, SkyflowEndpoint endpoint) {
+    return buckets.computeIfAbsent(
+        new Key(vaultId, endpoint), key -> new Bucket(settings.rateFor(key.vaultId())));
+  }
+
+  /** Generic cell rate algorithm with a burst of one second worth of requests. */
+  private static final class Bucket {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final double configuredRate;
+    private double rate;
+    private long theoreticalArrival = System.nanoTime();
+    private long blockedUntil = System.nanoTime();
+    private long lastAdjustment = System.nanoTime();
+    private long lastThrottle = System.nanoTime() - ADJUSTMENT_NANOS;
+    private long windowStart = System.nanoTime();
+    private int windowCount;
+    private int previousWindowCount;
+
+    private Bucket(double configuredRate) {
+      this.configuredRate = configuredRate;
+      this.rate = configuredRate;
+    }
+
+    private long reserve(long now) {
+      lock.lock();
+      try {
+        recover(now);
+        countRequest(now);
+        long wait = Math.max(0, blockedUntil - now);
+        if (Double.isInfinite(rate)) {
+          return wait;
+        }
+        long interval = (long) (SECOND_NANOS / rate);
+        long burst = (long) (Math.max(0, Math.floor(rate) - 1) * interval);
+        theoreticalArrival = Math.max(theoreticalArrival, Math.max(now, blockedUntil));
+        wait = Math.max(wait, theoreticalArrival - burst - now);
+        theoreticalArrival += interval;
+        return wait;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void throttle(long now, long retryAfterNanos) {
+      lock.lock();
+      try {
+        // further 429s of the same episode only extend the pause
+        if (now - blockedUntil >= 0 && now - lastThrottle >= ADJUSTMENT_NANOS) {
+          double base =
+              Double.isInfinite(rate) ? Math.max(windowCount, previousWindowCount) : rate;
+          rate = Math.max(MIN_RATE, base / 2);
+          lastAdjustment = now;
+          lastThrottle = now;
+        }
+        blockedUntil = Math.max(blockedUntil, now + retryAfterNanos);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private double rate() {
+      lock.lock();
+      try {
+        return rate;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void recover(long now) {
+      if (rate < configuredRate && now - lastAdjustment >= RECOVERY_NANOS) {
+        rate = Math.min(configuredRate, rate * 1.25);
+        lastAdjustment = now;
+      }
+    }
+
+    private void countRequest(long now) {
+      if (now - windowStart >= SECOND_NANOS) {
+        previousWindowCount = now - windowStart < 2 * SECOND_NANOS ? windowCount : 0;
+        windowStart = now;
+        windowCount = 0;
+      }
+      windowCount++;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.time.Duration;
+
+/**
+ * Node-wide retry and circuit breaker settings, read from system properties:
+ *
+ * <ul>
+ *   <li>{@code skyflow.retry.maxRetries} - retries of a failed idempotent call (default 3)
+ *   <li>{@code skyflow.retry.initialBackoffMs} - first back-off, doubled per retry (default 200)
+ *   <li>{@code skyflow.retry.maxBackoffMs} - cap of a single back-off (default 5000)
+ *   <li>{@code skyflow.circuitBreaker.failureThreshold} - consecutive failures that open a vault's
+ *       circuit (default 5)
+ *   <li>{@code skyflow.circuitBreaker.openMs} - how long an open circuit fails fast (default
+ *       30000)
+ * </ul>
+ *
+ * @param maxRetries how often a call failing with HTTP 5xx or an I/O error is retried
+ * @param initialBackoff back-off before the first retry
+ * @param maxBackoff longest back-off between two retries
+ * @param failureThreshold consecutive failures after which a vault's circuit opens
+ * @param openDuration time an open circuit rejects calls before letting a probe through
+ */
+public record SkyflowResilienceSettings(
+    int maxRetries,
+    Duration initialBackoff,
+    Duration maxBackoff,
+    int failureThreshold,
+    Duration openDuration) {
+
+  public static SkyflowResilienceSettings defaults() {
+    return new SkyflowResilienceSettings(
+        3, Duration.ofMillis(200), Duration.ofSeconds(5), 5, Duration.ofSeconds(30));
+  }
+
+  public static SkyflowResilienceSettings fromSystemProperties() {
+    var defaults = defaults();
+    return new SkyflowResilienceSettings(
+        Integer.getInteger("skyflow.retry.maxRetries", defaults.maxRetries()),
+        Duration.ofMillis(
+            Long.getLong("skyflow.retry.initialBackoffMs", defaults.initialBackoff().toMillis())),
+        Duration.ofMillis(
+            Long.getLong("skyflow.retry.maxBackoffMs", defaults.maxBackoff().toMillis())),
+        Integer.getInteger("skyflow.circuitBreaker.failureThreshold", defaults.failureThreshold()),
+        Duration.ofMillis(
+            Long.getLong("skyflow.circuitBreaker.openMs", defaults.openDuration().toMillis())));
+  }
+}
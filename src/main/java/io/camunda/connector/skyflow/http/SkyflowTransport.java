@@ -0,0 +1,216 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived HTTP transport for a single Skyflow vault base URL.
+ *
+ * <p>Wraps one {@link HttpClient} (HTTP/2, shared executor) so that connections, TLS sessions and
+ * the client's selector thread are reused by every job talking to the same vault. The number of
+ * in-flight requests is capped by {@link SkyflowTransportSettings#maxConcurrentRequests()}; excess
+ * requests queue without blocking a thread. Requests are also paced by the node-wide {@link
+ * SkyflowRateLimiter}, guarded by the vault's circuit breaker and retried when throttled or
+ * failed.
+ *
+ * <p>With {@link SkyflowTransportSettings#gzip()}, responses read through {@link #bodyHandler()}
+ * may come gzip-compressed, and {@link #post} compresses large request bodies for the endpoints
+ * accepting it.
+ */
+public final class SkyflowTransport implements AutoCloseable {
+
+  private final String baseUrl;
+  private final HttpClient client;
+  private final Executor executor;
+  private final AsyncPermits permits;
+  private final SkyflowRateLimiter rateLimiter;
+  private final SkyflowCircuitBreakers breakers;
+  private final SkyflowResilienceSettings resilience;
+  private final SkyflowTransportSettings settings;
+  private final GzipTransfer gzip;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong lastUsedNanos = new AtomicLong(System.nanoTime());
+
+  SkyflowTransport(
+      String baseUrl,
+      SkyflowTransportSettings settings,
+      Executor executor,
+      SkyflowRateLimiter rateLimiter,
+      SkyflowCircuitBreakers breakers,
+      SkyflowResilienceSettings resilience,
+      GzipTransfer gzip) {
+    this.baseUrl = baseUrl;
+    this.settings = settings;
+    this.gzip = gzip;
+    this.executor = executor;
+    this.rateLimiter = rateLimiter;
+    this.breakers = breakers;
+    this.resilience = resilience;
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(settings.connectTimeout())
+            .executor(executor)
+            .build();
+    this.permits = new AsyncPermits(settings.maxConcurrentRequests());
+  }
+
+  public String baseUrl() {
+    return baseUrl;
+  }
+
+  /**
+   * Handler streaming the response body; with compression enabled, a gzip-encoded body is
+   * inflated while it is read.
+   */
+  public HttpResponse.BodyHandler<InputStream> bodyHandler() {
+    return settings.gzip()
+        ? gzip.responseHandler()
+        : HttpResponse.BodyHandlers.ofInputStream();
+  }
+
+  /**
+   * Sets {@code body} as the POST body of {@code request}. With compression enabled, a body larger
+   * than {@link SkyflowTransportSettings#gzipMinRequestBytes()} is sent gzip-compressed if {@code
+   * endpoint} accepts it.
+   */
+  public HttpRequest.Builder post(
+      HttpRequest.Builder request, SkyflowEndpoint endpoint, SkyflowFileBodyPublisher body)
+      throws IOException {
+    if (settings.gzip()
+        && endpoint.gzipRequests()
+        && settings.gzipMinRequestBytes() >= 0
+        && body.exceeds(settings.gzipMinRequestBytes())) {
+      return request
+          .header(GzipTransfer.CONTENT_ENCODING, GzipTransfer.GZIP)
+          .POST(body.gzipBodyPublisher(gzip.requestSizes()));
+    }
+    return request.POST(body.bodyPublisher());
+  }
+
+  /**
+   * Sends the request and blocks until the response is available; see {@link #sendAsync(String,
+   * SkyflowEndpoint, HttpRequest, HttpResponse.BodyHandler)}.
+   */
+  public <T> HttpResponse<T> send(
+      String vaultId,
+      SkyflowEndpoint endpoint,
+      HttpRequest request,
+      HttpResponse.BodyHandler<T> handler)
+      throws IOException, InterruptedException {
+    var future = sendAsync(vaultId, endpoint, request, handler);
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      throw rethrow(e.getCause());
+    }
+  }
+
+  /**
+   * Sends the request without blocking the caller, once the vault's circuit, its rate limit and a
+   * concurrency permit allow it. Throttled and failed calls are retried as described in {@link
+   * ResilientCall}.
+   */
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+      String vaultId,
+      SkyflowEndpoint endpoint,
+      HttpRequest request,
+      HttpResponse.BodyHandler<T> handler) {
+    if (handler instanceof GzipTransfer.DecodingHandler) {
+      request =
+          HttpRequest.newBuilder(request, (name, value) -> true)
+              .header(GzipTransfer.ACCEPT_ENCODING, GzipTransfer.GZIP)
+              .build();
+    }
+    var sent = request;
+    return new ResilientCall<>(
+            vaultId,
+            endpoint,
+            sent,
+            handler,
+            attemptHandler -> dispatch(sent, attemptHandler),
+            rateLimiter,
+            breakers,
+            resilience,
+            executor)
+        .start();
+  }
+
+  /** Sends the request once a permit is available, without blocking the caller. */
+  private <T> CompletableFuture<HttpResponse<T>> dispatch(
+      HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+    touch();
+    var permit = permits.acquire();
+    var response =
+        permit.thenCompose(
+            granted -> {
+              inFlight.incrementAndGet();
+              return client
+                  .sendAsync(request, handler)
+                  .whenComplete(
+                      (r, e) -> {
+                        inFlight.decrementAndGet();
+                        touch();
+                        permits.release();
+                      });
+            });
+    // a caller giving up before the permit was granted must not leave a queued waiter behind
+    response.whenComplete(
+        (r, e) -> {
+          if (e instanceof CancellationException) {
+            permit.cancel(false);
+          }
+        });
+    return response;
+  }
+
+  boolean isIdle(long nowNanos, long idleTimeoutNanos) {
+    return inFlight.get() == 0
+        && permits.queued() == 0
+        && nowNanos - lastUsedNanos.get() > idleTimeoutNanos;
+  }
+
+  void touch() {
+    lastUsedNanos.set(System.nanoTime());
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+
+  private static IOException rethrow(Throwable cause) throws InterruptedException {
+    cause = ResilientCall.unwrap(cause);
+    if (cause instanceof IOException io) {
+      return io;
+    }
+    if (cause instanceof InterruptedException ie) {
+      throw ie;
+    }
+    if (cause instanceof RuntimeException re) {
+      throw re;
+    }
+    if (cause instanceof Error err) {
+      throw err;
+    }
+    return new IOException(cause);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of long-lived {@link SkyflowTransport}s keyed by normalized vault base URL.
+ *
+ * <p>The registry is safe for concurrent job workers: a transport is created once per base URL
+ * and handed to every subsequent caller. Transports that stayed unused for longer than {@link
+ * SkyflowTransportSettings#idleTimeout()} are evicted and closed; the sweep piggybacks on {@link
+ * #forBaseUrl(String)} so no background thread is needed.
+ */
+public final class SkyflowTransportRegistry implements AutoCloseable {
+
+  private static final class Holder {
+    private static final SkyflowTransportRegistry SHARED =
+        new SkyflowTransportRegistry(
+            SkyflowTransportSettings.fromSystemProperties(),
+            SkyflowRateLimitSettings.fromSystemProperties(),
+            SkyflowResilienceSettings.fromSystemProperties(),
+            SkyflowMetrics.shared());
+  }
+
+  private final SkyflowTransportSettings settings;
+  private final ExecutorService executor;
+  private final SkyflowRateLimiter rateLimiter;
+  private final SkyflowCircuitBreakers breakers;
+  private final SkyflowResilienceSettings resilience;
+  private final GzipTransfer gzip;
+  private final Map<String, SkyflowTransport> transports = new ConcurrentHashMap<>();
+  private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+  public SkyflowTransportRegistry(SkyflowTransportSettings settings) {
+    this(settings, SkyflowRateLimitSettings.defaults(), SkyflowResilienceSettings.defaults());
+  }
+
+  public SkyflowTransportRegistry(
+      SkyflowTransportSettings settings,
+      SkyflowRateLimitSettings rateLimitSettings,
+      SkyflowResilienceSettings resilience) {
+    this(settings, rateLimitSettings, resilience, SkyflowMetrics.NOOP);
+  }
+
+  public SkyflowTransportRegistry(
+      SkyflowTransportSettings settings,
+      SkyflowRateLimitSettings rateLimitSettings,
+      SkyflowResilienceSettings resilience,
+      SkyflowMetrics metrics) {
+    this.settings = settings;
+    this.rateLimiter = new SkyflowRateLimiter(rateLimitSettings);
+    this.breakers = new SkyflowCircuitBreakers(resilience);
+    this.resilience = resilience;
+    this.gzip = new GzipTransfer(metrics);
+    this.executor =
+        settings.virtualThreads()
+            ? Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("skyflow-http-", 1).factory())
+            : Executors.newFixedThreadPool(
+                settings.executorThreads(), daemonThreads("skyflow-http-"));
+  }
+
+  /** Node-wide registry shared by all connector instances. */
+  public static SkyflowTransportRegistry shared() {
+    return Holder.SHARED;
+  }
+
+  public SkyflowTransport forBaseUrl(String baseUrl) {
+    evictIdle();
+    return transports.compute(
+        baseUrl,
+        (url, existing) -> {
+          if (existing != null) {
+            existing.touch();
+            return existing;
+          }
+          return new SkyflowTransport(
+              url, settings, executor, rateLimiter, breakers, resilience, gzip);
+        });
+  }
+
+  /** Rate limiter shared by all transports of this registry. */
+  public SkyflowRateLimiter rateLimiter() {
+    return rateLimiter;
+  }
+
+  /** Circuit breakers shared by all transports of this registry. */
+  public SkyflowCircuitBreakers circuitBreakers() {
+    return breakers;
+  }
+
+  public int size() {
+    return transports.size();
+  }
+
+  void evictIdle() {
+    long now = System.nanoTime();
+    long idleNanos = settings.idleTimeout().toNanos();
+    long last = lastSweepNanos.get();
+    // sweep at most a few times per idle period
+    if (now - last < idleNanos / 4 || !lastSweepNanos.compareAndSet(last, now)) {
+      return;
+    }
+    for (var url : transports.keySet()) {
+      var evicted = new SkyflowTransport[1];
+      transports.computeIfPresent(
+          url,
+          (key, transport) -> {
+            if (transport.isIdle(now, idleNanos)) {
+              evicted[0] = transport;
+              return null;
+            }
+            return transport;
+          });
+      if (evicted[0] != null) {
+        evicted[0].close();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    transports.values().forEach(SkyflowTransport::close);
+    transports.clear();
+    executor.shutdown();
+  }
+
+  static ThreadFactory daemonThreads(String prefix) {
+    var counter = new AtomicInteger();
+    return runnable -> {
+      var thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.time.Duration;
+
+/**
+ * Node-wide settings for the shared Skyflow HTTP transports.
+ *
+ * <p>Transports are shared by every job handled on the node, so these settings are read from
+ * system properties rather than from the per-job {@code SkyflowRequest}:
+ *
+ * <ul>
+ *   <li>{@code skyflow.http.connectTimeoutMs} (default 20000)
+ *   <li>{@code skyflow.http.maxConcurrentRequests} - in-flight requests per vault (default 64)
+ *   <li>{@code skyflow.http.idleTimeoutMs} - unused transports are closed after this (default 300000)
+ *   <li>{@code skyflow.http.executorThreads} - threads shared by all transports (default 4)
+ *   <li>{@code skyflow.virtualThreads} - run HTTP exchanges, retries and batch calls on virtual
+ *       threads instead of the fixed executor (default false)
+ *   <li>{@code skyflow.http.gzip} - ask for gzip-compressed responses and compress large request
+ *       bodies (default false)
+ *   <li>{@code skyflow.http.gzipMinRequestBytes} - request bodies up to this size are sent
+ *       uncompressed; negative to compress responses only (default 16384)
+ * </ul>
+ *
+ * @param connectTimeout TCP/TLS connect timeout
+ * @param maxConcurrentRequests maximum number of in-flight requests per vault base URL
+ * @param idleTimeout how long a transport may stay unused before it is evicted and closed
+ * @param executorThreads size of the executor shared by all transports, unless virtual threads
+ *     are used
+ * @param virtualThreads whether the connector's own work runs on one virtual thread per task
+ * @param gzip whether responses may be gzip-compressed and request bodies are compressed
+ * @param gzipMinRequestBytes request bodies larger than this are compressed if the endpoint
+ *     accepts it; negative to never compress request bodies
+ */
+public record SkyflowTransportSettings(
+    Duration connectTimeout,
+    int maxConcurrentRequests,
+    Duration idleTimeout,
+    int executorThreads,
+    boolean virtualThreads,
+    boolean gzip,
+    long gzipMinRequestBytes) {
+
+  public SkyflowTransportSettings(
+      Duration connectTimeout,
+      int maxConcurrentRequests,
+      Duration idleTimeout,
+      int executorThreads,
+      boolean virtualThreads) {
+    this(
+        connectTimeout,
+        maxConcurrentRequests,
+        idleTimeout,
+        executorThreads,
+        virtualThreads,
+        false,
+        defaults().gzipMinRequestBytes());
+  }
+
+  public static SkyflowTransportSettings defaults() {
+    return new SkyflowTransportSettings(
+        Duration.ofSeconds(20), 64, Duration.ofMinutes(5), 4, false, false, 16 * 1024);
+  }
+
+  public static SkyflowTransportSettings fromSystemProperties() {
+    var defaults = defaults();
+    return new SkyflowTransportSettings(
+        Duration.ofMillis(
+            Long.getLong("skyflow.http.connectTimeoutMs", defaults.connectTimeout().toMillis())),
+        Integer.getInteger("skyflow.http.maxConcurrentRequests", defaults.maxConcurrentRequests()),
+        Duration.ofMillis(
+            Long.getLong("skyflow.http.idleTimeoutMs", defaults.idleTimeout().toMillis())),
+        Integer.getInteger("skyflow.http.executorThreads", defaults.executorThreads()),
+        Boolean.parseBoolean(
+            System.getProperty(
+                "skyflow.virtualThreads", String.valueOf(defaults.virtualThreads()))),
+        Boolean.parseBoolean(
+            System.getProperty("skyflow.http.gzip", String.valueOf(defaults.gzip()))),
+        Long.getLong("skyflow.http.gzipMinRequestBytes", defaults.gzipMinRequestBytes()));
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import io.camunda.connector.api.error.ConnectorException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the leaves of a payload that are sent to Skyflow, from include and exclude path
+ * expressions.
+ *
+ * <p>An expression is either a JSON Pointer ({@code /customer/email}) or a JSONPath subset ({@code
+ * $.customer.email}, {@code $.items[*].note}, {@code $['first name']}, {@code $..email}). JSON
+ * Pointers additionally accept {@code *} as a segment matching any key or index. An expression
+ * selects the whole subtree below the nodes it matches.
+ *
+ * <p>A leaf is selected if it lies below a match of any include expression (or if there are no
+ * include expressions) and below no match of an exclude expression.
+ */
+public final class FieldSelection {
+
+  private static final FieldSelection ALL = new FieldSelection(List.of(), List.of());
+
+  private final List<List<Step>> include;
+  private final List<List<Step>> exclude;
+
+  private FieldSelection(List<List<Step>> include, List<List<Step>> exclude) {
+    this.include = include;
+    this.exclude = exclude;
+  }
+
+  /**
+   * Parses the expressions; {@code null} lists select everything.
+   *
+   * @throws ConnectorException with code {@code SKYFLOW_BAD_PATH} if an expression is invalid
+   */
+  public static FieldSelection of(List<String> include, List<String> exclude) {
+    if ((include == null || include.isEmpty()) && (exclude == null || exclude.isEmpty())) {
+      return ALL;
+    }
+    return new FieldSelection(parseAll(include), parseAll(exclude));
+  }
+
+  /** Whether every leaf is selected, so the payload can be sent as is. */
+  public boolean selectsAll() {
+    return include.isEmpty() && exclude.isEmpty();
+  }
+
+  /** Whether the leaf at {@code path} is sent to Skyflow. */
+  public boolean includes(List<Object> path) {
+    return (include.isEmpty() || anyMatches(include, path)) && !anyMatches(exclude, path);
+  }
+
+  /** Copies {@code payload} keeping only the selected leaves. */
+  public Map<String, Object> select(Map<String, Object> payload) {
+    return JsonTrees.prune(payload, this::includes);
+  }
+
+  /**
+   * Copies {@code payload} replacing every selected leaf by its counterpart in {@code processed},
+   * the result of sending {@link #select(Map)} to Skyflow.
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, Object> merge(Map<String, Object> payload, Map<String, Object> processed) {
+    return (Map<String, Object>)
+        JsonTrees.mapLeaves(
+            payload,
+            (path, value) -> {
+              if (value == null || !includes(path)) {
+                return value;
+              }
+              Object token = JsonTrees.get(processed, path);
+              if (token == null) {
+                throw new ConnectorException(
+                    "SKYFLOW_MISSING_PROCESSED_FILE",
+                    "Processed file is missing the field at " + path);
+              }
+              return token;
+            });
+  }
+
+  private static boolean anyMatches(List<List<Step>> expressions, List<Object> path) {
+    for (var steps : expressions) {
+      if (matches(steps, 0, path, 0)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Whether {@code steps} match a prefix of {@code path}. */
+  private static boolean matches(List<Step> steps, int s, List<Object> path, int p) {
+    if (s == steps.size()) {
+      return true;
+    }
+    if (p == path.size()) {
+      return false;
+    }
+    var step = steps.get(s);
+    if (step.accepts(path.get(p)) && matches(steps, s + 1, path, p + 1)) {
+      return true;
+    }
+    return step.descendant() && matches(steps, s, path, p + 1);
+  }
+
+  private static List<List<Step>> parseAll(List<String> expressions) {
+    if (expressions == null) {
+      return List.of();
+    }
+    var parsed = new ArrayList<List<Step>>(expressions.size());
+    for (var expression : expressions) {
+      if (expression == null) {
+        throw badPath(null, "expression is null");
+      }
+      var trimmed = expression.trim();
+      parsed.add(trimmed.startsWith("$") ? parseJsonPath(trimmed) : parsePointer(trimmed));
+    }
+    return List.copyOf(parsed);
+  }
+
+  private static List<Step> parsePointer(String pointer) {
+    if (pointer.isEmpty()) {
+      return List.of();
+    }
+    if (!pointer.startsWith("/")) {
+      throw badPath(pointer, "expected a JSON Pointer (/...) or a JSONPath ($...)");
+    }
+    var steps = new ArrayList<Step>();
+    for (var token : pointer.substring(1).split("/", -1)) {
+      steps.add(
+          token.equals("*")
+              ? Step.any(false)
+              : new Step(token.replace("~1", "/").replace("~0", "~"), false, false));
+    }
+    return List.copyOf(steps);
+  }
+
+  private static List<Step> parseJsonPath(String path) {
+    var steps = new ArrayList<Step>();
+    int i = 1;
+    while (i < path.length()) {
+      boolean descendant = path.startsWith("..", i);
+      if (descendant || path.charAt(i) == '.') {
+        i += descendant ? 2 : 1;
+        if (i < path.length() && path.charAt(i) == '[') {
+          if (!descendant) {
+            throw badPath(path, "unexpected '[' after '.' at " + i);
+          }
+          continue;
+        }
+        int end = i;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          end++;
+        }
+        var name = path.substring(i, end);
+        if (name.isEmpty()) {
+          throw badPath(path, "missing name at " + i);
+        }
+        steps.add(name.equals("*") ? Step.any(descendant) : new Step(name, false, descendant));
+        i = end;
+        continue;
+      }
+      if (path.charAt(i) != '[') {
+        throw badPath(path, "unexpected '" + path.charAt(i) + "' at " + i);
+      }
+      int close = bracketEnd(path, i);
+      var selector = path.substring(i + 1, close).trim();
+      boolean deep = path.startsWith("..", i - 2);
+      if (selector.equals("*")) {
+        steps.add(Step.any(deep));
+      } else if (selector.length() >= 2
+          && (selector.charAt(0) == '\'' || selector.charAt(0) == '"')
+          && selector.charAt(selector.length() - 1) == selector.charAt(0)) {
+        steps.add(new Step(selector.substring(1, selector.length() - 1), false, deep));
+      } else {
+        try {
+          steps.add(new Step(Integer.parseInt(selector), false, deep));
+        } catch (NumberFormatException e) {
+          throw badPath(path, "unsupported selector [" + selector + "]");
+        }
+      }
+      i = close + 1;
+    }
+    return List.copyOf(steps);
+  }
+
+  private static int bracketEnd(String path, int open) {
+    char quote = 0;
+    for (int i = open + 1; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == ']') {
+        return i;
+      }
+    }
+    throw badPath(path, "unclosed '[' at " + open);
+  }
+
+  private static ConnectorException badPath(String expression, String reason) {
+    return new ConnectorException(
+        "SKYFLOW_BAD_PATH", "Invalid include/exclude path " + expression + ": " + reason);
+  }
+
+  /**
+   * One path step: a key or index ({@code selector}), any key or index ({@code any}), optionally
+   * matched at any depth below the previous step ({@code descendant}).
+   */
+  private record Step(Object selector, boolean any, boolean descendant) {
+
+    static Step any(boolean descendant) {
+      return new Step(null, true, descendant);
+    }
+
+    boolean accepts(Object pathElement) {
+      if (any) {
+        return true;
+      }
+      if (selector instanceof Integer index) {
+        return index.equals(pathElement);
+      }
+      // JSON Pointer addresses list indices with numeric tokens
+      return selector.equals(String.valueOf(pathElement));
+    }
+  }
+}
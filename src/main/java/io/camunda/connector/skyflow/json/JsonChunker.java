@@ -0,0 +1,190 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a JSON object into size-bounded chunks that keep the original shape, and merges the
+ * chunks back.
+ *
+ * <p>Entries are packed into chunks in document order. An object that does not fit into a chunk
+ * is split along its keys, an array along its elements; each chunk holds the path down to the
+ * entries it carries. Array elements and scalar values are never split, so a single element
+ * larger than the limit ends up alone in an oversized chunk.
+ *
+ * <p>Because chunks are cut in document order, {@link #merge(List)} restores the original object
+ * by merging objects key by key and concatenating arrays, as long as the chunks are passed in the
+ * order {@link #split} returned them.
+ */
+public final class JsonChunker {
+
+  /** Braces of an object or brackets of an array. */
+  private static final int OBJECT_BYTES = 2;
+
+  private final ObjectMapper mapper;
+  private final long maxChunkBytes;
+  private final List<Map<String, Object>> chunks = new ArrayList<>();
+  private Map<String, Object> current = new LinkedHashMap<>();
+  private long currentBytes = OBJECT_BYTES;
+
+  private JsonChunker(ObjectMapper mapper, long maxChunkBytes) {
+    this.mapper = mapper;
+    this.maxChunkBytes = maxChunkBytes;
+  }
+
+  /** Splits {@code payload} into chunks of about {@code maxChunkBytes} serialized bytes each. */
+  public static List<Map<String, Object>> split(
+      ObjectMapper mapper, Map<String, Object> payload, long maxChunkBytes) throws IOException {
+    var chunker = new JsonChunker(mapper, maxChunkBytes);
+    if (chunker.sizeOf(payload) <= maxChunkBytes) {
+      return List.of(payload);
+    }
+    chunker.walk(payload, List.of());
+    chunker.flush();
+    return chunker.chunks;
+  }
+
+  /** Reassembles chunks returned by {@link #split}, or processed copies of them, in order. */
+  public static Map<String, Object> merge(List<Map<String, Object>> chunks) {
+    if (chunks.size() == 1) {
+      return chunks.getFirst();
+    }
+    var result = new LinkedHashMap<String, Object>();
+    chunks.forEach(chunk -> mergeInto(result, chunk));
+    return result;
+  }
+
+  private void walk(Map<?, ?> object, List<String> path) throws IOException {
+    for (var entry : object.entrySet()) {
+      var key = String.valueOf(entry.getKey());
+      var value = entry.getValue();
+      var childPath = append(path, key);
+      // "key":value,
+      long bytes = sizeOf(key) + 1 + sizeOf(value) + 1;
+      if (currentBytes + bytes <= maxChunkBytes) {
+        add(childPath, value, bytes);
+      } else if (bytes > maxChunkBytes && value instanceof Map<?, ?> map && !map.isEmpty()) {
+        walk(map, childPath);
+      } else if (bytes > maxChunkBytes && value instanceof List<?> list && !list.isEmpty()) {
+        for (var element : list) {
+          long elementBytes = sizeOf(element) + 1;
+          if (currentBytes + elementBytes > maxChunkBytes) {
+            flush();
+          }
+          addElement(childPath, element, elementBytes);
+        }
+      } else {
+        flush();
+        add(childPath, value, bytes);
+      }
+    }
+  }
+
+  private void add(List<String> path, Object value, long bytes) throws IOException {
+    parent(path).put(path.getLast(), value);
+    currentBytes += bytes;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addElement(List<String> path, Object element, long bytes) throws IOException {
+    var parent = parent(path);
+    var list = (List<Object>) parent.get(path.getLast());
+    if (list == null) {
+      list = new ArrayList<>();
+      parent.put(path.getLast(), list);
+      currentBytes += containerBytes(path.getLast());
+    }
+    list.add(element);
+    currentBytes += bytes;
+  }
+
+  /** Object of the current chunk that holds the last element of {@code path}. */
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> parent(List<String> path) throws IOException {
+    var node = current;
+    for (var key : path.subList(0, path.size() - 1)) {
+      var child = (Map<String, Object>) node.get(key);
+      if (child == null) {
+        child = new LinkedHashMap<>();
+        node.put(key, child);
+        currentBytes += containerBytes(key);
+      }
+      node = child;
+    }
+    return node;
+  }
+
+  /** "key":{}, of a container repeating the path to an entry in a new chunk. */
+  private long containerBytes(String key) throws IOException {
+    return sizeOf(key) + 1 + OBJECT_BYTES + 1;
+  }
+
+  private void flush() {
+    if (!current.isEmpty()) {
+      chunks.add(current);
+      current = new LinkedHashMap<>();
+      currentBytes = OBJECT_BYTES;
+    }
+  }
+
+  private long sizeOf(Object value) throws IOException {
+    var counter = new ByteCounter();
+    mapper.writeValue(counter, value);
+    return counter.count;
+  }
+
+  private static List<String> append(List<String> path, String key) {
+    var result = new ArrayList<String>(path.size() + 1);
+    result.addAll(path);
+    result.add(key);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void mergeInto(Map<String, Object> target, Map<String, Object> chunk) {
+    for (var entry : chunk.entrySet()) {
+      var existing = target.get(entry.getKey());
+      var value = entry.getValue();
+      if (existing instanceof Map<?, ?> map && value instanceof Map<?, ?> part) {
+        mergeInto((Map<String, Object>) map, (Map<String, Object>) part);
+      } else if (existing instanceof List<?> list && value instanceof List<?> part) {
+        ((List<Object>) list).addAll(part);
+      } else if (value instanceof Map<?, ?> map) {
+        // copied because later chunks merge into it
+        var copy = new LinkedHashMap<String, Object>();
+        mergeInto(copy, (Map<String, Object>) map);
+        target.put(entry.getKey(), copy);
+      } else if (value instanceof List<?> list) {
+        target.put(entry.getKey(), new ArrayList<>(list));
+      } else {
+        target.put(entry.getKey(), value);
+      }
+    }
+  }
+
+  private static final class ByteCounter extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) {
+      count += len;
+    }
+  }
+}
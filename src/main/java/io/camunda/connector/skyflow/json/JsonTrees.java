@@ -0,0 +1,168 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Helpers for JSON documents held as {@link Map}/{@link List} trees, as produced by Jackson and
+ * by FEEL.
+ *
+ * <p>A path is a list of map keys ({@link String}) and list indices ({@link Integer}) from the
+ * root to a node.
+ */
+public final class JsonTrees {
+
+  private static final Object PRUNED = new Object();
+
+  private JsonTrees() {}
+
+  /** A scalar node (anything but a map or a list) and its path. */
+  public record Leaf(List<Object> path, Object value) {}
+
+  /** Returns all scalar nodes in document order. {@code null} values are leaves too. */
+  public static List<Leaf> leaves(Object root) {
+    var leaves = new ArrayList<Leaf>();
+    collect(root, new ArrayList<>(), leaves);
+    return leaves;
+  }
+
+  /** Returns the node at {@code path}, or {@code null} if there is none. */
+  public static Object get(Object root, List<Object> path) {
+    Object node = root;
+    for (Object step : path) {
+      if (node instanceof Map<?, ?> map && step instanceof String key) {
+        node = map.get(key);
+      } else if (node instanceof List<?> list && step instanceof Integer index) {
+        node = index >= 0 && index < list.size() ? list.get(index) : null;
+      } else {
+        return null;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Copies the object keeping only the leaves accepted by {@code keep}. Map entries without any
+   * kept leaf are dropped; list elements keep their position and become {@code null} so that
+   * indices stay stable.
+   */
+  @SuppressWarnings("unchecked")
+  public static Map<String, Object> prune(Map<String, Object> root, Predicate<List<Object>> keep) {
+    var pruned = prune(root, new ArrayList<>(), keep);
+    return pruned == PRUNED ? new LinkedHashMap<>() : (Map<String, Object>) pruned;
+  }
+
+  /**
+   * Copies the tree replacing every leaf by {@code replacement.apply(path, value)}. The original
+   * tree is left untouched.
+   */
+  public static Object mapLeaves(
+      Object root, BiFunction<List<Object>, Object, Object> replacement) {
+    return mapLeaves(root, new ArrayList<>(), replacement);
+  }
+
+  /**
+   * Estimates the size of the tree serialized as JSON without serializing it. Escapes and
+   * multi-byte characters are not counted, so the estimate can be low for such strings.
+   */
+  public static long estimatedJsonBytes(Object root) {
+    if (root instanceof Map<?, ?> map) {
+      long bytes = 2;
+      for (var entry : map.entrySet()) {
+        // quotes, colon and comma
+        bytes += String.valueOf(entry.getKey()).length() + 4 + estimatedJsonBytes(entry.getValue());
+      }
+      return bytes;
+    }
+    if (root instanceof List<?> list) {
+      long bytes = 2;
+      for (var element : list) {
+        bytes += 1 + estimatedJsonBytes(element);
+      }
+      return bytes;
+    }
+    if (root instanceof CharSequence text) {
+      return text.length() + 2;
+    }
+    return root == null ? 4 : String.valueOf(root).length();
+  }
+
+  private static void collect(Object node, List<Object> path, List<Leaf> leaves) {
+    if (node instanceof Map<?, ?> map) {
+      for (var entry : map.entrySet()) {
+        path.add(String.valueOf(entry.getKey()));
+        collect(entry.getValue(), path, leaves);
+        path.removeLast();
+      }
+    } else if (node instanceof List<?> list) {
+      for (int i = 0; i < list.size(); i++) {
+        path.add(i);
+        collect(list.get(i), path, leaves);
+        path.removeLast();
+      }
+    } else {
+      leaves.add(new Leaf(List.copyOf(path), node));
+    }
+  }
+
+  private static Object prune(Object node, List<Object> path, Predicate<List<Object>> keep) {
+    if (node instanceof Map<?, ?> map) {
+      var copy = new LinkedHashMap<String, Object>();
+      for (var entry : map.entrySet()) {
+        path.add(String.valueOf(entry.getKey()));
+        var child = prune(entry.getValue(), path, keep);
+        path.removeLast();
+        if (child != PRUNED) {
+          copy.put(String.valueOf(entry.getKey()), child);
+        }
+      }
+      return copy.isEmpty() && !map.isEmpty() ? PRUNED : copy;
+    }
+    if (node instanceof List<?> list) {
+      var copy = new ArrayList<>(list.size());
+      boolean any = false;
+      for (int i = 0; i < list.size(); i++) {
+        path.add(i);
+        var child = prune(list.get(i), path, keep);
+        path.removeLast();
+        any |= child != PRUNED;
+        copy.add(child == PRUNED ? null : child);
+      }
+      return any || list.isEmpty() ? copy : PRUNED;
+    }
+    return keep.test(path) ? node : PRUNED;
+  }
+
+  private static Object mapLeaves(
+      Object node, List<Object> path, BiFunction<List<Object>, Object, Object> replacement) {
+    if (node instanceof Map<?, ?> map) {
+      var copy = new LinkedHashMap<String, Object>();
+      for (var entry : map.entrySet()) {
+        path.add(String.valueOf(entry.getKey()));
+        copy.put(String.valueOf(entry.getKey()), mapLeaves(entry.getValue(), path, replacement));
+        path.removeLast();
+      }
+      return copy;
+    }
+    if (node instanceof List<?> list) {
+      var copy = new ArrayList<>(list.size());
+      for (int i = 0; i < list.size(); i++) {
+        path.add(i);
+        copy.add(mapLeaves(list.get(i), path, replacement));
+        path.removeLast();
+      }
+      return copy;
+    }
+    return replacement.apply(List.copyOf(path), node);
+  }
+}
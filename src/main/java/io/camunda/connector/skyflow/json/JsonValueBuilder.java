@@ -0,0 +1,81 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link Map}/{@link List} tree from parser events, one token at a time.
+ *
+ * <p>Produces the same value types as Jackson's untyped deserialization ({@code Integer}/{@code
+ * Long}/{@code BigInteger} for integers, {@code Double} for decimals) and can be driven by a
+ * non-blocking parser.
+ */
+final class JsonValueBuilder {
+
+  private final Deque<Object> containers = new ArrayDeque<>();
+  private String fieldName;
+  private Object root;
+  private boolean complete;
+
+  /** Consumes the current token of {@code parser}. */
+  void accept(JsonParser parser, JsonToken token) throws IOException {
+    switch (token) {
+      case START_OBJECT -> open(new LinkedHashMap<String, Object>());
+      case START_ARRAY -> open(new ArrayList<>());
+      case END_OBJECT, END_ARRAY -> {
+        containers.pop();
+        complete = containers.isEmpty();
+      }
+      case FIELD_NAME -> fieldName = parser.currentName();
+      case VALUE_STRING -> value(parser.getText());
+      case VALUE_NUMBER_INT -> value(parser.getNumberValue());
+      case VALUE_NUMBER_FLOAT -> value(parser.getDoubleValue());
+      case VALUE_TRUE -> value(Boolean.TRUE);
+      case VALUE_FALSE -> value(Boolean.FALSE);
+      case VALUE_NULL -> value(null);
+      default -> {
+        // NOT_AVAILABLE and embedded objects carry no value
+      }
+    }
+  }
+
+  boolean isComplete() {
+    return complete;
+  }
+
+  Object root() {
+    return root;
+  }
+
+  private void open(Object container) {
+    value(container);
+    complete = false;
+    containers.push(container);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void value(Object value) {
+    var parent = containers.peek();
+    if (parent == null) {
+      root = value;
+      complete = true;
+    } else if (parent instanceof Map<?, ?> map) {
+      ((Map<String, Object>) map).put(fieldName, value);
+    } else {
+      ((List<Object>) parent).add(value);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.camunda.connector.api.error.ConnectorException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decodes Skyflow Detect responses that carry a base64 {@code processed_file}.
+ *
+ * <p>The response is read with a streaming parser. The processed file value is base64-decoded by
+ * the parser as it is read and fed chunk by chunk into a non-blocking parser that builds the
+ * result object, so neither the response body, the base64 string nor the decoded bytes are held
+ * in memory. All other fields are buffered as tokens and bound to the response DTO.
+ *
+ * <p>Processed files that are not JSON, such as those of documents, are instead written to a
+ * {@link ProcessedFileTarget} as they are decoded.
+ */
+public final class SkyflowResponseDecoder {
+
+  private static final Set<String> PROCESSED_FILE_FIELDS =
+      Set.of("processed_file", "processedFile");
+
+  private SkyflowResponseDecoder() {}
+
+  /** Receives the decoded bytes of a processed file. */
+  @FunctionalInterface
+  public interface ProcessedFileTarget {
+
+    /**
+     * Opens the stream the processed file is written to; called only for a response that has a
+     * non-empty processed file. The stream is closed once the whole file is written and left open
+     * if the response cannot be read to its end.
+     */
+    OutputStream open() throws IOException;
+  }
+
+  /**
+   * A decoded response.
+   *
+   * @param response the response DTO, with its processed file field left {@code null}
+   * @param processedFile the decoded processed file, {@code null} if the response had none or it
+   *     was written to a {@link ProcessedFileTarget}
+   * @param processedFileBytes size of the processed file after base64 decoding
+   */
+  public record Decoded<T>(
+      T response, Map<String, Object> processedFile, long processedFileBytes) {
+
+    /** Returns the processed file or fails with {@code SKYFLOW_MISSING_PROCESSED_FILE}. */
+    public Map<String, Object> requireProcessedFile() {
+      if (processedFile == null) {
+        throw new ConnectorException(
+            "SKYFLOW_MISSING_PROCESSED_FILE", "Missing processed_file in Skyflow response");
+      }
+      return processedFile;
+    }
+  }
+
+  /**
+   * Reads {@code body} to its end and closes it. Only the first processed file of the response is
+   * decoded.
+   */
+  public static <T> Decoded<T> decode(ObjectMapper mapper, InputStream body, Class<T> type)
+      throws IOException {
+    return decode(mapper, body, type, parser -> decodeProcessedFile(mapper, parser));
+  }
+
+  /**
+   * Like {@link #decode(ObjectMapper, InputStream, Class)}, but writes the processed file to
+   * {@code target} instead of parsing it; {@link Decoded#processedFile()} is always {@code null}.
+   */
+  public static <T> Decoded<T> decode(
+      ObjectMapper mapper, InputStream body, Class<T> type, ProcessedFileTarget target)
+      throws IOException {
+    return decode(mapper, body, type, parser -> writeProcessedFile(parser, target));
+  }
+
+  private static <T> Decoded<T> decode(
+      ObjectMapper mapper, InputStream body, Class<T> type, ProcessedFileReader reader)
+      throws IOException {
+    ProcessedFile processedFile = null;
+    try (var parser = mapper.getFactory().createParser(body);
+        var metadata = new TokenBuffer(parser)) {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        if (token == JsonToken.FIELD_NAME
+            && processedFile == null
+            && PROCESSED_FILE_FIELDS.contains(parser.currentName())) {
+          metadata.writeFieldName(parser.currentName());
+          if (parser.nextToken() == JsonToken.VALUE_STRING) {
+            processedFile = reader.read(parser);
+            metadata.writeNull();
+          } else {
+            metadata.copyCurrentStructure(parser);
+          }
+          continue;
+        }
+        metadata.copyCurrentEvent(parser);
+      }
+      try (var metadataParser = metadata.asParser(mapper)) {
+        var response = mapper.readValue(metadataParser, type);
+        return processedFile == null
+            ? new Decoded<>(response, null, 0)
+            : new Decoded<>(response, processedFile.content(), processedFile.bytes());
+      }
+    }
+  }
+
+  /** @param content the parsed file, {@code null} if it was written to a target */
+  private record ProcessedFile(Map<String, Object> content, long bytes) {}
+
+  @FunctionalInterface
+  private interface ProcessedFileReader {
+
+    /** Reads the current string value; returns {@code null} if it is empty. */
+    ProcessedFile read(JsonParser parser) throws IOException;
+  }
+
+  private static ProcessedFile writeProcessedFile(JsonParser parser, ProcessedFileTarget target)
+      throws IOException {
+    var sink =
+        new OutputStream() {
+          private OutputStream out;
+
+          @Override
+          public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+          }
+
+          @Override
+          public void write(byte[] bytes, int off, int len) throws IOException {
+            if (out == null) {
+              out = target.open();
+            }
+            out.write(bytes, off, len);
+          }
+
+          @Override
+          public void close() throws IOException {
+            if (out != null) {
+              out.close();
+            }
+          }
+        };
+    int decodedBytes = parser.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, sink);
+    sink.close();
+    return decodedBytes == 0 ? null : new ProcessedFile(null, decodedBytes);
+  }
+
+  private static ProcessedFile decodeProcessedFile(ObjectMapper mapper, JsonParser parser)
+      throws IOException {
+    try (var content = mapper.getFactory().createNonBlockingByteArrayParser()) {
+      var feeder = (ByteArrayFeeder) content.getNonBlockingInputFeeder();
+      var builder = new JsonValueBuilder();
+      var sink =
+          new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+              write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int off, int len) throws IOException {
+              feeder.feedInput(bytes, off, off + len);
+              drain(content, builder);
+            }
+          };
+      int decodedBytes = parser.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, sink);
+      if (decodedBytes == 0) {
+        return null;
+      }
+      feeder.endOfInput();
+      drain(content, builder);
+      if (!builder.isComplete() || !(builder.root() instanceof Map<?, ?>)) {
+        throw new ConnectorException(
+            "SKYFLOW_BAD_PROCESSED_FILE", "Skyflow processed_file is not a JSON object");
+      }
+      @SuppressWarnings("unchecked")
+      Map<String, Object> result = (Map<String, Object>) builder.root();
+      return new ProcessedFile(result, decodedBytes);
+    }
+  }
+
+  private static void drain(JsonParser content, JsonValueBuilder builder) throws IOException {
+    JsonToken token;
+    while ((token = content.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+      builder.accept(content, token);
+    }
+  }
+}
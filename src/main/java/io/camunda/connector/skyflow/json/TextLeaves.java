@@ -0,0 +1,97 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The text leaves of a JSON object joined into one string, for Skyflow's synchronous string
+ * endpoints, and the object rebuilt from the processed string.
+ *
+ * <p>String and number leaves are joined in document order, separated by a line holding a record
+ * separator symbol. A leaf whose processed text is unchanged keeps its original value, so numbers
+ * that are not sensitive stay numbers. Booleans and {@code null} are not sent.
+ */
+public final class TextLeaves {
+
+  static final String SEPARATOR = "\n\u241E\n";
+
+  private final Map<String, Object> payload;
+  private final List<JsonTrees.Leaf> leaves;
+  private final String text;
+
+  private TextLeaves(Map<String, Object> payload, List<JsonTrees.Leaf> leaves, String text) {
+    this.payload = payload;
+    this.leaves = leaves;
+    this.text = text;
+  }
+
+  /**
+   * Collects the text leaves of {@code payload}, or returns {@code null} if their joined text
+   * would exceed {@code maxChars} or a leaf contains the separator.
+   */
+  public static TextLeaves of(Map<String, Object> payload, int maxChars) {
+    var leaves = new ArrayList<JsonTrees.Leaf>();
+    var text = new StringBuilder();
+    for (var leaf : JsonTrees.leaves(payload)) {
+      if (!(leaf.value() instanceof String) && !(leaf.value() instanceof Number)) {
+        continue;
+      }
+      var value = String.valueOf(leaf.value());
+      if (!leaves.isEmpty()) {
+        text.append(SEPARATOR);
+      }
+      if (value.contains(SEPARATOR.strip()) || text.length() + value.length() > maxChars) {
+        return null;
+      }
+      text.append(value);
+      leaves.add(leaf);
+    }
+    return new TextLeaves(payload, leaves, text.toString());
+  }
+
+  /** Whether the payload has no leaf to process. */
+  public boolean isEmpty() {
+    return leaves.isEmpty();
+  }
+
+  public String text() {
+    return text;
+  }
+
+  /**
+   * Returns a copy of the payload with every text leaf replaced by its processed text, or {@code
+   * null} if the processed text no longer splits into one part per leaf.
+   */
+  public Map<String, Object> rebuild(String processed) {
+    if (processed == null) {
+      return null;
+    }
+    var parts =
+        leaves.isEmpty() ? new String[0] : processed.split(Pattern.quote(SEPARATOR), -1);
+    if (parts.length != leaves.size()) {
+      return null;
+    }
+    var replacements = new HashMap<List<Object>, Object>();
+    for (int i = 0; i < parts.length; i++) {
+      var leaf = leaves.get(i);
+      if (!parts[i].equals(String.valueOf(leaf.value()))) {
+        replacements.put(leaf.path(), parts[i]);
+      }
+    }
+    @SuppressWarnings("unchecked")
+    var rebuilt =
+        (Map<String, Object>)
+            JsonTrees.mapLeaves(
+                payload, (path, value) -> replacements.getOrDefault(path, value));
+    return rebuilt;
+  }
+}
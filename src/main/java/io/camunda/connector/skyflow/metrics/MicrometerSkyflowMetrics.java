@@ -0,0 +1,171 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer implementation of {@link SkyflowMetrics}.
+ *
+ * <p>Meters are looked up in the registry on every call; Micrometer caches them by name and tags.
+ * Gauges are registered once and read the last recorded values.
+ */
+public final class MicrometerSkyflowMetrics implements SkyflowMetrics {
+
+  static final String PHASE = "skyflow.phase";
+  static final String POLL_ATTEMPTS = "skyflow.run.poll.attempts";
+  static final String TIME_TO_SUCCESS = "skyflow.run.time.to.success";
+  static final String PAYLOAD = "skyflow.payload";
+  static final String ERRORS = "skyflow.errors";
+  static final String COMPRESSION = "skyflow.compression";
+  static final String ADMISSION_BYTES = "skyflow.admission.bytes";
+  static final String ADMISSION_WAITING = "skyflow.admission.waiting";
+  static final String TOKEN_CACHE_LOOKUPS = "skyflow.token.cache.lookups";
+  static final String TOKEN_CACHE_EVICTIONS = "skyflow.token.cache.evictions";
+  static final String TOKEN_CACHE_SIZE = "skyflow.token.cache.size";
+  static final String TOKEN_CACHE_BYTES = "skyflow.token.cache.bytes";
+  static final String DROPPED_RUNS = "skyflow.runs.dropped";
+
+  private final MeterRegistry registry;
+  private final AtomicLong admittedBytes = new AtomicLong();
+  private final AtomicLong waitingJobs = new AtomicLong();
+  private final AtomicLong tokenCacheEntries = new AtomicLong();
+  private final AtomicLong tokenCacheBytes = new AtomicLong();
+
+  public MicrometerSkyflowMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    Gauge.builder(ADMISSION_BYTES, admittedBytes, AtomicLong::get)
+        .description("Estimated payload bytes of the jobs admitted to the payload budget")
+        .baseUnit("bytes")
+        .register(registry);
+    Gauge.builder(ADMISSION_WAITING, waitingJobs, AtomicLong::get)
+        .description("Jobs waiting for payload budget")
+        .register(registry);
+    Gauge.builder(TOKEN_CACHE_SIZE, tokenCacheEntries, AtomicLong::get)
+        .description("Entries in the token cache")
+        .register(registry);
+    Gauge.builder(TOKEN_CACHE_BYTES, tokenCacheBytes, AtomicLong::get)
+        .description("Approximate heap bytes of the token cache entries")
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  /** Reports to Micrometer's global registry. */
+  public static SkyflowMetrics global() {
+    return new MicrometerSkyflowMetrics(Metrics.globalRegistry);
+  }
+
+  @Override
+  public void recordPhase(String operation, String phase, String outcome, Duration duration) {
+    Timer.builder(PHASE)
+        .description("Duration of a Skyflow operation phase")
+        .tags("operation", operation, "phase", phase, "outcome", outcome)
+        .register(registry)
+        .record(duration);
+  }
+
+  @Override
+  public void recordPollAttempts(String vaultId, int attempts) {
+    DistributionSummary.builder(POLL_ATTEMPTS)
+        .description("Status checks needed per Skyflow run")
+        .tags("vault", vaultId)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(attempts);
+  }
+
+  @Override
+  public void recordTimeToSuccess(String vaultId, Duration duration) {
+    Timer.builder(TIME_TO_SUCCESS)
+        .description("Time until a Skyflow run reported SUCCESS")
+        .tags("vault", vaultId)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(duration);
+  }
+
+  @Override
+  public void recordPayloadBytes(String operation, String direction, long bytes) {
+    Counter.builder(PAYLOAD)
+        .description("Payload bytes exchanged with Skyflow")
+        .baseUnit("bytes")
+        .tags("operation", operation, "direction", direction)
+        .register(registry)
+        .increment(bytes);
+  }
+
+  @Override
+  public void recordCompression(String direction, long compressedBytes, long uncompressedBytes) {
+    compression(direction, "compressed").increment(compressedBytes);
+    compression(direction, "uncompressed").increment(uncompressedBytes);
+  }
+
+  @Override
+  public void recordAdmission(long admittedBytes, int waitingJobs) {
+    this.admittedBytes.set(admittedBytes);
+    this.waitingJobs.set(waitingJobs);
+  }
+
+  @Override
+  public void recordTokenCacheLookups(long hits, long misses) {
+    tokenCacheLookups("hit").increment(hits);
+    tokenCacheLookups("miss").increment(misses);
+  }
+
+  @Override
+  public void recordTokenCacheEvictions(long evictions) {
+    Counter.builder(TOKEN_CACHE_EVICTIONS)
+        .description("Token cache entries evicted because the cache was full or they expired")
+        .register(registry)
+        .increment(evictions);
+  }
+
+  @Override
+  public void recordTokenCacheSize(int entries, long estimatedBytes) {
+    tokenCacheEntries.set(entries);
+    tokenCacheBytes.set(estimatedBytes);
+  }
+
+  @Override
+  public void recordDroppedRuns(long runs) {
+    Counter.builder(DROPPED_RUNS)
+        .description("Started runs dropped from the hand-over because too many were pending")
+        .register(registry)
+        .increment(runs);
+  }
+
+  @Override
+  public void recordError(String operation, String vaultId, String errorCode) {
+    Counter.builder(ERRORS)
+        .description("Failed connector executions")
+        .tags("operation", operation, "vault", vaultId, "code", errorCode)
+        .register(registry)
+        .increment();
+  }
+
+  private Counter tokenCacheLookups(String result) {
+    return Counter.builder(TOKEN_CACHE_LOOKUPS)
+        .description("Token cache lookups of field values")
+        .tags("result", result)
+        .register(registry);
+  }
+
+  private Counter compression(String direction, String size) {
+    return Counter.builder(COMPRESSION)
+        .description("HTTP body bytes of gzip-compressed transfers with Skyflow")
+        .baseUnit("bytes")
+        .tags("direction", direction, "size", size)
+        .register(registry);
+  }
+}
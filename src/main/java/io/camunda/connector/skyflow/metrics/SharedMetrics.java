@@ -0,0 +1,26 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.metrics;
+
+/** Picks the shared metrics implementation once, depending on whether Micrometer is present. */
+final class SharedMetrics {
+
+  static final SkyflowMetrics INSTANCE = create();
+
+  private SharedMetrics() {}
+
+  private static SkyflowMetrics create() {
+    try {
+      Class.forName(
+          "io.micrometer.core.instrument.Metrics", false, SharedMetrics.class.getClassLoader());
+    } catch (ClassNotFoundException | LinkageError e) {
+      return SkyflowMetrics.NOOP;
+    }
+    // Micrometer types are only touched inside MicrometerSkyflowMetrics, loaded from here on
+    return MicrometerSkyflowMetrics.global();
+  }
+}
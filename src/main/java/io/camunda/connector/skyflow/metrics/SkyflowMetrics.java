@@ -0,0 +1,79 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.metrics;
+
+import java.time.Duration;
+
+/**
+ * Instrumentation points of the connector. Every method is a no-op by default.
+ *
+ * <p>{@link #shared()} reports to Micrometer's global registry when Micrometer is on the
+ * classpath, which is where the Spring Boot connector runtime publishes its registries. Without
+ * Micrometer it is {@link #NOOP}.
+ */
+public interface SkyflowMetrics {
+
+  SkyflowMetrics NOOP = new SkyflowMetrics() {};
+
+  String OUTCOME_SUCCESS = "success";
+  String OUTCOME_ERROR = "error";
+
+  /** Node-wide metrics shared by all connector instances. */
+  static SkyflowMetrics shared() {
+    return SharedMetrics.INSTANCE;
+  }
+
+  /**
+   * Duration of one phase of an operation.
+   *
+   * @param operation lower-case operation, e.g. {@code deidentify} or {@code deidentify_await}
+   * @param phase e.g. {@code start}, {@code poll}, {@code reidentify} or {@code execute}
+   * @param outcome {@link #OUTCOME_SUCCESS} or {@link #OUTCOME_ERROR}
+   */
+  default void recordPhase(String operation, String phase, String outcome, Duration duration) {}
+
+  /** Number of status checks a finished run needed, whatever its outcome. */
+  default void recordPollAttempts(String vaultId, int attempts) {}
+
+  /** Time from the start of polling until a run reported {@code SUCCESS}. */
+  default void recordTimeToSuccess(String vaultId, Duration duration) {}
+
+  /** Payload bytes sent to ({@code request}) or received from ({@code response}) Skyflow. */
+  default void recordPayloadBytes(String operation, String direction, long bytes) {}
+
+  /**
+   * A gzip-compressed transfer: {@code compressedBytes} went over the wire for {@code
+   * uncompressedBytes} of HTTP body.
+   *
+   * @param direction {@code request} or {@code response}
+   */
+  default void recordCompression(String direction, long compressedBytes, long uncompressedBytes) {}
+
+  /**
+   * State of the payload budget after it changed: estimated bytes reserved by the admitted jobs
+   * and the number of jobs waiting for budget.
+   */
+  default void recordAdmission(long admittedBytes, int waitingJobs) {}
+
+  /** Token cache lookups of one job: values answered from the cache and values that missed it. */
+  default void recordTokenCacheLookups(long hits, long misses) {}
+
+  /** Token cache entries removed because the cache was full or the entry expired. */
+  default void recordTokenCacheEvictions(long evictions) {}
+
+  /** State of the token cache after it changed: entries and their approximate heap bytes. */
+  default void recordTokenCacheSize(int entries, long estimatedBytes) {}
+
+  /**
+   * Runs started without waiting that were dropped from the hand-over to the run-completion
+   * connectors because too many were pending; their completion is not correlated.
+   */
+  default void recordDroppedRuns(long runs) {}
+
+  /** A failed execution, tagged with its {@code ConnectorException} error code. */
+  default void recordError(String operation, String vaultId, String errorCode) {}
+}
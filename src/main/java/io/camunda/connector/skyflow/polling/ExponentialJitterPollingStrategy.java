@@ -0,0 +1,42 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts with a short delay and doubles it after every check up to {@code maxDelay}.
+ *
+ * <p>Each delay is jittered into {@code [d/2, d]} so that runs started together do not keep
+ * polling in lockstep.
+ */
+public record ExponentialJitterPollingStrategy(Duration initialDelay, Duration maxDelay)
+    implements PollingStrategy {
+
+  private static final Duration MIN_INITIAL_DELAY = Duration.ofMillis(100);
+
+  /** Strategy starting at an eighth of {@code maxDelay}. */
+  public static ExponentialJitterPollingStrategy upTo(Duration maxDelay) {
+    var initial = maxDelay.dividedBy(8);
+    return new ExponentialJitterPollingStrategy(
+        initial.compareTo(MIN_INITIAL_DELAY) < 0 ? MIN_INITIAL_DELAY : initial, maxDelay);
+  }
+
+  @Override
+  public Duration nextDelay(int attempt) {
+    long initialMs = initialDelay.toMillis();
+    long maxMs = Math.max(maxDelay.toMillis(), initialMs);
+    long delayMs = attempt >= 31 ? maxMs : Math.min(maxMs, initialMs << Math.min(attempt, 30));
+    return jitter(delayMs);
+  }
+
+  static Duration jitter(long delayMs) {
+    long half = delayMs / 2;
+    return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(delayMs - half + 1));
+  }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import java.time.Duration;
+
+/** Checks immediately, then at a fixed interval. */
+public record FixedPollingStrategy(Duration interval) implements PollingStrategy {
+
+  @Override
+  public Duration initialDelay() {
+    return Duration.ZERO;
+  }
+
+  @Override
+  public Duration nextDelay(int attempt) {
+    return interval;
+  }
+}
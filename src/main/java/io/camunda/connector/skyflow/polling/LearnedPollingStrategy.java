@@ -0,0 +1,75 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
+import java.time.Duration;
+
+/**
+ * Schedules the first check close to the completion time predicted by a {@link RunDurationModel}
+ * and feeds every successful run back into that model.
+ *
+ * <p>Until the model has enough observations for the vault, or once the predicted check turned out
+ * to be too early, checks follow a short exponential backoff capped at {@code maxDelay}.
+ */
+public final class LearnedPollingStrategy implements PollingStrategy {
+
+  private static final double EARLY_FACTOR = 0.9;
+  private static final Duration MAX_INITIAL_DELAY = Duration.ofSeconds(60);
+
+  private final RunDurationModel model;
+  private final String vaultKey;
+  private final double payloadKb;
+  private final ExponentialJitterPollingStrategy fallback;
+
+  /**
+   * @param model shared duration model
+   * @param vaultKey identifies the vault the run belongs to
+   * @param payloadBytes size of the submitted payload
+   * @param maxDelay upper bound of the delay between two checks after the first one
+   */
+  public LearnedPollingStrategy(
+      RunDurationModel model, String vaultKey, long payloadBytes, Duration maxDelay) {
+    this.model = model;
+    this.vaultKey = vaultKey;
+    this.payloadKb = payloadBytes / 1024.0;
+    this.fallback = ExponentialJitterPollingStrategy.upTo(maxDelay);
+  }
+
+  @Override
+  public Duration initialDelay() {
+    return model
+        .predict(vaultKey, payloadKb)
+        .map(expected -> Duration.ofMillis(Math.round(expected.toMillis() * EARLY_FACTOR)))
+        .map(delay -> delay.compareTo(MAX_INITIAL_DELAY) > 0 ? MAX_INITIAL_DELAY : delay)
+        .orElse(Duration.ZERO);
+  }
+
+  @Override
+  public Duration nextDelay(int attempt) {
+    return fallback.nextDelay(attempt);
+  }
+
+  /**
+   * Records Skyflow's reported {@code size} (KB) and {@code duration} (seconds). Missing figures
+   * fall back to the character count reported in {@code wordCharacterCount}, the local payload
+   * size and the locally observed time.
+   */
+  @Override
+  public void onSuccess(SkyflowDetectRunStatusResponse status, Duration elapsed) {
+    double sizeKb = payloadKb;
+    if (status.size() != null) {
+      sizeKb = status.size();
+    } else if (status.wordCharacterCount() != null
+        && status.wordCharacterCount().characterCount() != null) {
+      sizeKb = status.wordCharacterCount().characterCount() / 1024.0;
+    }
+    double durationMs =
+        status.duration() != null ? status.duration() * 1000 : (double) elapsed.toMillis();
+    model.record(vaultKey, sizeKb, durationMs);
+  }
+}
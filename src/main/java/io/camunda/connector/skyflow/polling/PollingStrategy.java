@@ -0,0 +1,37 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
+import java.time.Duration;
+
+/**
+ * Decides when the status of a Skyflow run is checked.
+ *
+ * <p>An instance is created per run, so implementations may keep per-run state. The number of
+ * checks is still capped by the run's {@code maxAttempts}.
+ */
+public interface PollingStrategy {
+
+  /** Delay between starting the run and the first status check. */
+  Duration initialDelay();
+
+  /**
+   * Delay before the next status check.
+   *
+   * @param attempt number of status checks already performed (1-based)
+   */
+  Duration nextDelay(int attempt);
+
+  /**
+   * Called once the run finished successfully.
+   *
+   * @param status final run status, carrying Skyflow's {@code size} and {@code duration} figures
+   * @param elapsed wall-clock time from tracking the run until the successful check
+   */
+  default void onSuccess(SkyflowDetectRunStatusResponse status, Duration elapsed) {}
+}
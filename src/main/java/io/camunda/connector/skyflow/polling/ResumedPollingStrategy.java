@@ -0,0 +1,37 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
+import java.time.Duration;
+
+/**
+ * Polls a run started by an earlier attempt of the job: it may well be finished already, so the
+ * first check is immediate. Later checks follow {@code delegate}.
+ *
+ * <p>The locally observed time misses the part of the run before it was resumed, so successes are
+ * only passed on when Skyflow reported the run's duration itself.
+ */
+public record ResumedPollingStrategy(PollingStrategy delegate) implements PollingStrategy {
+
+  @Override
+  public Duration initialDelay() {
+    return Duration.ZERO;
+  }
+
+  @Override
+  public Duration nextDelay(int attempt) {
+    return delegate.nextDelay(attempt);
+  }
+
+  @Override
+  public void onSuccess(SkyflowDetectRunStatusResponse status, Duration elapsed) {
+    if (status.duration() != null) {
+      delegate.onSuccess(status, elapsed);
+    }
+  }
+}
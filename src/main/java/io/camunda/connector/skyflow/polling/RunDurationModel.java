@@ -0,0 +1,93 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-vault model of how long Skyflow takes to process a payload of a given size.
+ *
+ * <p>Each vault keeps an exponentially weighted linear fit {@code duration = a + b * size}, so
+ * recent runs dominate and changes in Skyflow's behaviour are picked up quickly. Sizes are in
+ * kilobytes, durations in milliseconds.
+ */
+public final class RunDurationModel {
+
+  private static final class Holder {
+    private static final RunDurationModel SHARED = new RunDurationModel(0.2, 3);
+  }
+
+  private final double alpha;
+  private final int minSamples;
+  private final Map<String, Fit> fits = new ConcurrentHashMap<>();
+
+  /**
+   * @param alpha weight of a new observation, in {@code (0, 1]}
+   * @param minSamples observations required before predictions are made
+   */
+  public RunDurationModel(double alpha, int minSamples) {
+    this.alpha = alpha;
+    this.minSamples = minSamples;
+  }
+
+  /** Node-wide model shared by all connector instances. */
+  public static RunDurationModel shared() {
+    return Holder.SHARED;
+  }
+
+  public void record(String vaultKey, double sizeKb, double durationMs) {
+    if (!(sizeKb >= 0) || !(durationMs >= 0)) {
+      return;
+    }
+    fits.compute(
+        vaultKey,
+        (key, fit) ->
+            fit == null ? Fit.first(sizeKb, durationMs) : fit.add(alpha, sizeKb, durationMs));
+  }
+
+  public Optional<Duration> predict(String vaultKey, double sizeKb) {
+    var fit = fits.get(vaultKey);
+    if (fit == null || fit.samples < minSamples) {
+      return Optional.empty();
+    }
+    return Optional.of(Duration.ofMillis(Math.round(fit.predict(sizeKb))));
+  }
+
+  /** Exponentially weighted moments of size (x) and duration (y). */
+  private record Fit(double x, double y, double xx, double xy, long samples) {
+
+    static Fit first(double x, double y) {
+      return new Fit(x, y, x * x, x * y, 1);
+    }
+
+    Fit add(double alpha, double nx, double ny) {
+      return new Fit(
+          blend(alpha, x, nx),
+          blend(alpha, y, ny),
+          blend(alpha, xx, nx * nx),
+          blend(alpha, xy, nx * ny),
+          samples + 1);
+    }
+
+    double predict(double size) {
+      double variance = xx - x * x;
+      if (variance < 1e-9) {
+        return y;
+      }
+      double slope = Math.max(0, (xy - x * y) / variance);
+      double intercept = Math.max(0, y - slope * x);
+      return intercept + slope * size;
+    }
+
+    private static double blend(double alpha, double current, double sample) {
+      return current + alpha * (sample - current);
+    }
+  }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
+import io.camunda.connector.skyflow.http.SkyflowEndpoint;
+import io.camunda.connector.skyflow.http.SkyflowTransport;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder.Decoded;
+import io.camunda.connector.skyflow.json.SkyflowResponseDecoder.ProcessedFileTarget;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Node-wide engine that drives Skyflow Detect runs to completion.
+ *
+ * <p>Every pending run on the node is tracked here. Status checks are issued with {@code
+ * sendAsync} and the next check is scheduled on a single timer thread, so no thread sleeps on
+ * behalf of a run and the number of threads stays constant regardless of how many runs are in
+ * flight. Whatever may block during a check, building its request (which may wait for a bearer
+ * token) and reading its response, runs on virtual threads, never on the timer thread. Callers
+ * simply wait on the {@link CompletableFuture} of their run.
+ *
+ * <p>Concurrent callers tracking the same run (same status URI) share one poll loop, which checks
+ * the run at the pace of the caller that started it. Every caller keeps its own {@code
+ * maxAttempts}, counted in checks of the loop from when it joined: a caller whose attempts are
+ * used up fails with {@code SKYFLOW_POLL_TIMEOUT} on its own. The loop is cancelled once every
+ * caller has given up on it or timed out.
+ */
+public final class SkyflowRunCompletionEngine implements AutoCloseable {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final class Holder {
+    private static final SkyflowRunCompletionEngine SHARED =
+        new SkyflowRunCompletionEngine(SkyflowMetrics.shared());
+  }
+
+  private final ScheduledThreadPoolExecutor timer;
+  /** Runs the blocking parts of status checks. */
+  private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+  private final Map<String, PendingRun> pending = new ConcurrentHashMap<>();
+  private final SkyflowMetrics metrics;
+
+  public SkyflowRunCompletionEngine() {
+    this(SkyflowMetrics.NOOP);
+  }
+
+  public SkyflowRunCompletionEngine(SkyflowMetrics metrics) {
+    this.metrics = metrics;
+    timer =
+        new ScheduledThreadPoolExecutor(
+            1,
+            runnable -> {
+              var thread = new Thread(runnable, "skyflow-run-poller");
+              thread.setDaemon(true);
+              return thread;
+            });
+    timer.setRemoveOnCancelPolicy(true);
+  }
+
+  /** Node-wide engine shared by all connector instances. */
+  public static SkyflowRunCompletionEngine shared() {
+    return Holder.SHARED;
+  }
+
+  /**
+   * Describes a run to drive to completion.
+   *
+   * @param key unique key of the run, e.g. its status URI
+   * @param vaultId vault owning the run, used for rate limiting and metrics
+   * @param transport transport of the vault owning the run
+   * @param statusRequest builds the status request; invoked once per check, on a virtual thread,
+   *     and may block, e.g. for a bearer token
+   * @param strategy decides when the status is checked, unless the run is already polled
+   * @param maxAttempts number of status checks before this caller gives up with {@code
+   *     SKYFLOW_POLL_TIMEOUT}
+   * @param processedFileTarget receives the processed file instead of it being parsed as JSON;
+   *     {@code null} to parse it
+   */
+  public record RunPoll(
+      String key,
+      String vaultId,
+      SkyflowTransport transport,
+      Supplier<HttpRequest> statusRequest,
+      PollingStrategy strategy,
+      int maxAttempts,
+      ProcessedFileTarget processedFileTarget) {
+
+    public RunPoll(
+        String key,
+        String vaultId,
+        SkyflowTransport transport,
+        Supplier<HttpRequest> statusRequest,
+        PollingStrategy strategy,
+        int maxAttempts) {
+      this(key, vaultId, transport, statusRequest, strategy, maxAttempts, null);
+    }
+  }
+
+  /**
+   * Starts (or joins) tracking of a run. The returned future completes with the final status and
+   * its decoded processed file on {@code SUCCESS}, and exceptionally with a {@link
+   * ConnectorException} otherwise. A timeout or cancelling it detaches the caller only.
+   */
+  public CompletableFuture<Decoded<SkyflowDetectRunStatusResponse>> track(RunPoll poll) {
+    while (true) {
+      var created = new PendingRun[1];
+      var run =
+          pending.computeIfAbsent(
+              poll.key(),
+              key -> {
+                created[0] = new PendingRun(poll);
+                return created[0];
+              });
+      var view = run.attach(poll.maxAttempts());
+      if (view == null) {
+        // the run finished between lookup and attach; start over with a fresh entry
+        pending.remove(poll.key(), run);
+        continue;
+      }
+      if (created[0] == run) {
+        run.result.whenComplete(
+            (status, error) -> {
+              pending.remove(run.poll.key(), run);
+              metrics.recordPollAttempts(poll.vaultId(), run.attempts.get());
+            });
+        schedule(run, poll.strategy().initialDelay());
+      }
+      return view;
+    }
+  }
+
+  /** Blocks the calling thread until the run completed; see {@link #track(RunPoll)}. */
+  public Decoded<SkyflowDetectRunStatusResponse> awaitCompletion(RunPoll poll) throws Exception {
+    var future = track(poll);
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /** Number of runs currently tracked on this node. */
+  public int pendingRuns() {
+    return pending.size();
+  }
+
+  @Override
+  public void close() {
+    timer.shutdownNow();
+    workers.shutdownNow();
+    pending.values().forEach(run -> run.result.cancel(false));
+    pending.clear();
+  }
+
+  private void check(PendingRun run) {
+    if (run.result.isDone()) {
+      return;
+    }
+    try {
+      workers.execute(() -> send(run));
+    } catch (RejectedExecutionException e) {
+      // closed
+      run.result.cancel(false);
+    }
+  }
+
+  private void send(PendingRun run) {
+    int attempt = run.attempts.incrementAndGet();
+    HttpRequest request;
+    try {
+      request = run.poll.statusRequest().get();
+    } catch (RuntimeException e) {
+      // e.g. no bearer token could be obtained
+      run.result.completeExceptionally(e);
+      return;
+    }
+    run.poll
+        .transport()
+        .sendAsync(
+            run.poll.vaultId(),
+            SkyflowEndpoint.RUN_STATUS,
+            request,
+            run.poll.transport().bodyHandler())
+        .whenComplete(
+            (response, error) -> {
+              if (error != null) {
+                run.result.completeExceptionally(error);
+                return;
+              }
+              // reading the body blocks; keep it off the HTTP client's executor
+              workers.execute(
+                  () -> {
+                    try {
+                      onStatus(run, attempt, response);
+                    } catch (Exception e) {
+                      run.result.completeExceptionally(e);
+                    }
+                  });
+            });
+  }
+
+  private void onStatus(PendingRun run, int attempt, HttpResponse<InputStream> response)
+      throws Exception {
+    try (var body = response.body()) {
+      if (response.statusCode() / 100 != 2) {
+        throw new ConnectorException(
+            "SKYFLOW_POLL_FAILED",
+            "Skyflow request failed: HTTP "
+                + response.statusCode()
+                + " - "
+                + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      var target = run.poll.processedFileTarget();
+      var decoded =
+          target == null
+              ? SkyflowResponseDecoder.decode(MAPPER, body, SkyflowDetectRunStatusResponse.class)
+              : SkyflowResponseDecoder.decode(
+                  MAPPER, body, SkyflowDetectRunStatusResponse.class, target);
+      var parsed = decoded.response();
+      String status = parsed.status() != null ? parsed.status() : "";
+
+      if ("SUCCESS".equalsIgnoreCase(status)) {
+        var elapsed = Duration.ofNanos(System.nanoTime() - run.startNanos);
+        run.poll.strategy().onSuccess(parsed, elapsed);
+        metrics.recordTimeToSuccess(run.poll.vaultId(), elapsed);
+        run.result.complete(decoded);
+        return;
+      }
+      if ("FAILED".equalsIgnoreCase(status) || "ERROR".equalsIgnoreCase(status)) {
+        throw new ConnectorException(
+            "SKYFLOW_RUN_FAILED",
+            "Skyflow run status: "
+                + status
+                + (parsed.message() != null ? " - " + parsed.message() : ""));
+      }
+    }
+    if (run.expire(attempt)) {
+      schedule(run, run.poll.strategy().nextDelay(attempt));
+    }
+  }
+
+  private void schedule(PendingRun run, Duration delay) {
+    if (delay.isZero() || delay.isNegative()) {
+      timer.execute(() -> check(run));
+    } else {
+      timer.schedule(() -> check(run), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * A caller of a run.
+   *
+   * @param lastAttempt the check of the loop after which the caller times out
+   */
+  private record Waiter(
+      CompletableFuture<Decoded<SkyflowDetectRunStatusResponse>> view,
+      int maxAttempts,
+      int lastAttempt) {}
+
+  private static final class PendingRun {
+
+    private final RunPoll poll;
+    private final CompletableFuture<Decoded<SkyflowDetectRunStatusResponse>> result =
+        new CompletableFuture<>();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Waiter> waiters = new ArrayList<>();
+    private boolean abandoned;
+
+    private PendingRun(RunPoll poll) {
+      this.poll = poll;
+    }
+
+    /**
+     * Returns a caller-owned view of the result that times out after {@code maxAttempts} further
+     * checks, or {@code null} if the run is already over.
+     */
+    private CompletableFuture<Decoded<SkyflowDetectRunStatusResponse>> attach(int maxAttempts) {
+      Waiter waiter;
+      lock.lock();
+      try {
+        if (abandoned || result.isDone()) {
+          return null;
+        }
+        waiter = new Waiter(result.copy(), maxAttempts, attempts.get() + maxAttempts);
+        waiters.add(waiter);
+      } finally {
+        lock.unlock();
+      }
+      waiter
+          .view()
+          .whenComplete(
+              (status, error) -> {
+                if (waiter.view().isCancelled()) {
+                  detach(List.of(waiter));
+                }
+              });
+      return waiter.view();
+    }
+
+    /**
+     * Fails the callers that used up their attempts with check {@code attempt}; returns whether
+     * any caller is still waiting for the run.
+     */
+    private boolean expire(int attempt) {
+      var expired = new ArrayList<Waiter>();
+      lock.lock();
+      try {
+        for (var waiter : waiters) {
+          if (waiter.lastAttempt() <= attempt) {
+            expired.add(waiter);
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+      for (var waiter : expired) {
+        waiter
+            .view()
+            .completeExceptionally(
+                new ConnectorException(
+                    "SKYFLOW_POLL_TIMEOUT",
+                    "Skyflow run did not complete after " + waiter.maxAttempts() + " attempts"));
+      }
+      return !detach(expired);
+    }
+
+    /** Removes callers; returns whether the run was abandoned because none is left. */
+    private boolean detach(List<Waiter> leaving) {
+      lock.lock();
+      try {
+        if (abandoned) {
+          return true;
+        }
+        waiters.removeAll(leaving);
+        if (!waiters.isEmpty()) {
+          return false;
+        }
+        abandoned = true;
+      } finally {
+        lock.unlock();
+      }
+      result.cancel(false);
+      return true;
+    }
+  }
+}
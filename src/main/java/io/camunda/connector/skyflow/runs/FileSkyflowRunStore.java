@@ -0,0 +1,121 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.runs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run store keeping one small file per entry below a directory, so that runs are resumed after
+ * the runtime restarted or crashed mid-poll. Several runtimes may share the directory.
+ *
+ * <p>File names are SHA-256 hashes of the keys and files only hold the run ID. A file is written
+ * to a temporary file first and moved into place, so readers never see a partial entry. Expired
+ * files are removed on lookup and by a sweep that piggybacks on {@link #save} at most a few times
+ * per TTL, so no background thread is needed.
+ */
+public final class FileSkyflowRunStore implements SkyflowRunStore {
+
+  private static final String SUFFIX = ".run";
+
+  private final Path directory;
+  private final Duration ttl;
+  private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+  public FileSkyflowRunStore(Path directory, Duration ttl) {
+    this.directory = directory;
+    this.ttl = ttl;
+  }
+
+  @Override
+  public String find(String key) {
+    var file = file(key);
+    try {
+      if (expired(file)) {
+        Files.deleteIfExists(file);
+        return null;
+      }
+      var runId = Files.readString(file, StandardCharsets.UTF_8).trim();
+      return runId.isEmpty() ? null : runId;
+    } catch (IOException e) {
+      // missing or unreadable entry: the job starts a new run
+      return null;
+    }
+  }
+
+  @Override
+  public void save(String key, String runId) {
+    sweep();
+    Path temp = null;
+    try {
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, "run-", ".tmp");
+      Files.writeString(temp, runId, StandardCharsets.UTF_8);
+      Files.move(
+          temp, file(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      deleteQuietly(temp);
+    }
+  }
+
+  @Override
+  public void remove(String key) {
+    deleteQuietly(file(key));
+  }
+
+  private void sweep() {
+    long now = System.nanoTime();
+    long last = lastSweepNanos.get();
+    if (now - last < ttl.toNanos() / 4 || !lastSweepNanos.compareAndSet(last, now)) {
+      return;
+    }
+    try (var files = Files.newDirectoryStream(directory, "*.{run,tmp}")) {
+      for (var file : files) {
+        if (expired(file)) {
+          deleteQuietly(file);
+        }
+      }
+    } catch (IOException e) {
+      // directory not created yet or not listable; retried with the next sweep
+    }
+  }
+
+  private boolean expired(Path file) throws IOException {
+    var modified = Files.getLastModifiedTime(file).toInstant();
+    return !modified.plus(ttl).isAfter(Instant.now());
+  }
+
+  private Path file(String key) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      return directory.resolve(
+          HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8))) + SUFFIX);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // removed by the next sweep once expired
+    }
+  }
+}
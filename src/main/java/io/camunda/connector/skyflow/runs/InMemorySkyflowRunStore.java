@@ -0,0 +1,94 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.runs;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Run store kept in memory. It covers retries on the same node, e.g. after a poll timeout, but
+ * not a restart of the runtime; see {@link FileSkyflowRunStore} for that.
+ *
+ * <p>Once {@code maxEntries} runs are remembered, the oldest entry is dropped.
+ */
+public final class InMemorySkyflowRunStore implements SkyflowRunStore {
+
+  private record Entry(String runId, long expiresAtNanos) {}
+
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+  public InMemorySkyflowRunStore(int maxEntries, Duration ttl) {
+    this.maxEntries = maxEntries;
+    this.ttlNanos = ttl.toNanos();
+  }
+
+  @Override
+  public String find(String key) {
+    long now = System.nanoTime();
+    lock.lock();
+    try {
+      var entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (now - entry.expiresAtNanos() >= 0) {
+        entries.remove(key);
+        return null;
+      }
+      return entry.runId();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void save(String key, String runId) {
+    long now = System.nanoTime();
+    lock.lock();
+    try {
+      // re-inserted so that insertion order stays the expiry order
+      entries.remove(key);
+      entries.put(key, new Entry(runId, now + ttlNanos));
+      Iterator<Map.Entry<String, Entry>> oldest = entries.entrySet().iterator();
+      while (oldest.hasNext()) {
+        var next = oldest.next().getValue();
+        if (entries.size() <= maxEntries && now - next.expiresAtNanos() < 0) {
+          break;
+        }
+        oldest.remove();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void remove(String key) {
+    lock.lock();
+    try {
+      entries.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Number of remembered runs, including expired ones not swept yet. */
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
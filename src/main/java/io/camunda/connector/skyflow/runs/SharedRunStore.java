@@ -0,0 +1,31 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.runs;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/** Creates the shared run store once, from system properties. */
+final class SharedRunStore {
+
+  static final SkyflowRunStore INSTANCE = create();
+
+  private SharedRunStore() {}
+
+  private static SkyflowRunStore create() {
+    if (!Boolean.parseBoolean(System.getProperty("skyflow.runStore.enabled", "true"))) {
+      return SkyflowRunStore.NONE;
+    }
+    var ttl = Duration.ofSeconds(Long.getLong("skyflow.runStore.ttlSeconds", 3600));
+    var directory = System.getProperty("skyflow.runStore.directory");
+    if (directory != null && !directory.isBlank()) {
+      return new FileSkyflowRunStore(Path.of(directory), ttl);
+    }
+    return new InMemorySkyflowRunStore(
+        Integer.getInteger("skyflow.runStore.maxEntries", 10_000), ttl);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.runs;
+
+/**
+ * Remembers which Skyflow run was started for a payload, so that a retried job resumes polling
+ * that run instead of starting (and paying for) a new one.
+ *
+ * <p>Keys are opaque strings chosen by the caller. Entries expire after a store-specific TTL.
+ * Stores are best effort: a lookup that fails is reported as a missing entry, so a broken store
+ * only costs a new run and never fails a job.
+ *
+ * <p>{@link #shared()} is configured through system properties:
+ *
+ * <ul>
+ *   <li>{@code skyflow.runStore.enabled} (default true)
+ *   <li>{@code skyflow.runStore.directory} - keeps entries in files below this directory so they
+ *       survive a restart of the runtime; in memory if unset
+ *   <li>{@code skyflow.runStore.ttlSeconds} (default 3600)
+ *   <li>{@code skyflow.runStore.maxEntries} - bound of the in-memory store (default 10000)
+ * </ul>
+ */
+public interface SkyflowRunStore {
+
+  /** Remembers nothing; every job starts a new run. */
+  SkyflowRunStore NONE =
+      new SkyflowRunStore() {
+        @Override
+        public String find(String key) {
+          return null;
+        }
+
+        @Override
+        public void save(String key, String runId) {}
+
+        @Override
+        public void remove(String key) {}
+      };
+
+  /** Node-wide store shared by all connector instances. */
+  static SkyflowRunStore shared() {
+    return SharedRunStore.INSTANCE;
+  }
+
+  /** Returns the run ID saved for {@code key}, or {@code null} if there is none or it expired. */
+  String find(String key);
+
+  /** Saves the run started for {@code key}, replacing any previous one. */
+  void save(String key, String runId);
+
+  /** Forgets the run of {@code key} once it completed or failed. */
+  void remove(String key);
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.runs;
+
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node-wide hand-over of runs started without waiting for them ({@code DEIDENTIFY_START}) to the
+ * watchers waiting for their completion, i.e. the activated run-completion inbound connectors.
+ *
+ * <p>Runs and watchers are grouped by vault. A run stays pending until a watcher reports it
+ * finished, so every watcher of its vault is told about it, including watchers activated after
+ * the run started. Once {@code maxPendingRuns} runs are pending, the oldest one is dropped and
+ * counted with {@link SkyflowMetrics#recordDroppedRuns(long)}.
+ *
+ * <p>{@link #shared()} keeps at most {@code skyflow.runWatchers.maxPendingRuns} runs (default
+ * 10000).
+ */
+public final class SkyflowRunWatchers {
+
+  /** Waits for the runs of one vault. */
+  @FunctionalInterface
+  public interface Watcher {
+
+    /** Called once for every pending run of the vault; must not block. */
+    void watch(String runId);
+  }
+
+  private static final class Holder {
+    private static final SkyflowRunWatchers SHARED =
+        new SkyflowRunWatchers(
+            Integer.getInteger("skyflow.runWatchers.maxPendingRuns", 10_000),
+            SkyflowMetrics.shared());
+  }
+
+  private record PendingRun(String vault, String runId) {}
+
+  private final int maxPendingRuns;
+  private final SkyflowMetrics metrics;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, Set<Watcher>> watchers = new HashMap<>();
+  private final LinkedHashSet<PendingRun> pending = new LinkedHashSet<>();
+  private long droppedRuns;
+
+  public SkyflowRunWatchers(int maxPendingRuns) {
+    this(maxPendingRuns, SkyflowMetrics.NOOP);
+  }
+
+  public SkyflowRunWatchers(int maxPendingRuns, SkyflowMetrics metrics) {
+    this.maxPendingRuns = maxPendingRuns;
+    this.metrics = metrics;
+  }
+
+  /** Node-wide registry shared by all connector instances. */
+  public static SkyflowRunWatchers shared() {
+    return Holder.SHARED;
+  }
+
+  /** Hands a run that was just started to the watchers of its vault. */
+  public void started(String vault, String runId) {
+    List<Watcher> current;
+    int dropped = 0;
+    lock.lock();
+    try {
+      pending.add(new PendingRun(vault, runId));
+      var oldest = pending.iterator();
+      while (pending.size() > maxPendingRuns) {
+        oldest.next();
+        oldest.remove();
+        dropped++;
+      }
+      droppedRuns += dropped;
+      current = List.copyOf(watchers.getOrDefault(vault, Set.of()));
+    } finally {
+      lock.unlock();
+    }
+    if (dropped > 0) {
+      metrics.recordDroppedRuns(dropped);
+    }
+    current.forEach(watcher -> watcher.watch(runId));
+  }
+
+  /** Registers a watcher and hands it the runs of its vault that are already pending. */
+  public void subscribe(String vault, Watcher watcher) {
+    var runIds = new ArrayList<String>();
+    lock.lock();
+    try {
+      watchers.computeIfAbsent(vault, key -> new LinkedHashSet<>()).add(watcher);
+      for (var run : pending) {
+        if (run.vault().equals(vault)) {
+          runIds.add(run.runId());
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    runIds.forEach(watcher::watch);
+  }
+
+  /** Removes a watcher; the runs it was told about stay pending for the other watchers. */
+  public void unsubscribe(String vault, Watcher watcher) {
+    lock.lock();
+    try {
+      var current = watchers.get(vault);
+      if (current != null && current.remove(watcher) && current.isEmpty()) {
+        watchers.remove(vault);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Forgets a run once its completion was handled. */
+  public void finished(String vault, String runId) {
+    lock.lock();
+    try {
+      pending.remove(new PendingRun(vault, runId));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Number of runs dropped because {@code maxPendingRuns} runs were pending. */
+  public long droppedRuns() {
+    lock.lock();
+    try {
+      return droppedRuns;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Number of runs nobody reported finished yet. */
+  public int pendingRuns() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.camunda.connector.api.inbound.CorrelationResult;
+import io.camunda.connector.runtime.test.inbound.InboundConnectorContextBuilder;
+import io.camunda.connector.runtime.test.outbound.OutboundConnectorContextBuilder;
+import io.camunda.connector.skyflow.runs.InMemorySkyflowRunStore;
+import io.camunda.connector.skyflow.runs.SkyflowRunWatchers;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SkyflowRunCompletionConnectorTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static WireMockServer wireMockServer;
+  private SkyflowRunWatchers watchers;
+  private SkyflowDetectConnector outbound;
+  private SkyflowRunCompletionConnector inbound;
+
+  @BeforeAll
+  static void startWireMock() {
+    wireMockServer = new WireMockServer(0);
+    wireMockServer.start();
+    configureFor("localhost", wireMockServer.port());
+  }
+
+  @AfterAll
+  static void stopWireMock() {
+    wireMockServer.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    wireMockServer.resetAll();
+    watchers = new SkyflowRunWatchers(100);
+    var shared = SkyflowServices.shared();
+    var services =
+        new SkyflowServices(
+            shared.transports(),
+            shared.completionEngine(),
+            shared.durationModel(),
+            shared.batcher(),
+            shared.tokenCache(),
+            shared.metrics(),
+            new InMemorySkyflowRunStore(100, Duration.ofMinutes(5)),
+            watchers,
+            shared.bearerTokens(),
+            shared.admission());
+    outbound = new SkyflowDetectConnector(services);
+    inbound = new SkyflowRunCompletionConnector(services);
+  }
+
+  @AfterEach
+  void tearDown() {
+    inbound.deactivate();
+  }
+
+  @Test
+  @DisplayName("Should correlate the result of a run started before the activation")
+  void testCorrelateCompletedRun() throws Exception {
+    // Given
+    Map<String, Object> tokenizedData = Map.of("name", "[NAME_1]");
+    var runId = "test-run-watched";
+    setupDeidentifyStartMock(runId);
+    setupPollingSuccessMock(runId, tokenizedData);
+    startRun();
+    var context = InboundConnectorContextBuilder.create().properties(properties()).build();
+
+    // When
+    inbound.activate(context);
+
+    // Then
+    await().atMost(Duration.ofSeconds(5)).until(() -> !context.getCorrelations().isEmpty());
+    assertThat(context.getCorrelations())
+        .containsExactly(Map.of("runId", runId, "result", tokenizedData));
+    await().atMost(Duration.ofSeconds(5)).until(() -> watchers.pendingRuns() == 0);
+  }
+
+  @Test
+  @DisplayName("Should correlate the error of a failed run started while activated")
+  void testCorrelateFailedRun() throws Exception {
+    // Given
+    var runId = "test-run-watched-failed";
+    setupDeidentifyStartMock(runId);
+    wireMockServer.stubFor(
+        get(urlEqualTo("/v1/detect/runs/" + runId + "?vault_id=vault-123"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"status\": \"FAILED\", \"message\": \"boom\"}")));
+    var context = InboundConnectorContextBuilder.create().properties(properties()).build();
+    inbound.activate(context);
+
+    // When
+    startRun();
+
+    // Then
+    await().atMost(Duration.ofSeconds(5)).until(() -> !context.getCorrelations().isEmpty());
+    @SuppressWarnings("unchecked")
+    var variables = (Map<String, Object>) context.getCorrelations().getFirst();
+    assertThat(variables).containsEntry("runId", runId);
+    assertThat(variables.get("error"))
+        .isEqualTo(
+            Map.of("code", "SKYFLOW_RUN_FAILED", "message", "Skyflow run status: FAILED - boom"));
+  }
+
+  @Test
+  @DisplayName("Should retry a failed correlation until it succeeds")
+  void testRetryFailedCorrelation() throws Exception {
+    // Given
+    Map<String, Object> tokenizedData = Map.of("name", "[NAME_1]");
+    var runId = "test-run-correlation-retry";
+    setupDeidentifyStartMock(runId);
+    setupPollingSuccessMock(runId, tokenizedData);
+    var context = spy(InboundConnectorContextBuilder.create().properties(properties()).build());
+    doReturn(new CorrelationResult.Failure.Other(new IllegalStateException("engine unavailable")))
+        .doCallRealMethod()
+        .when(context)
+        .correlate(any());
+    inbound.activate(context);
+
+    // When
+    startRun();
+
+    // Then
+    await().atMost(Duration.ofSeconds(5)).until(() -> !context.getCorrelations().isEmpty());
+    assertThat(context.getCorrelations())
+        .containsExactly(Map.of("runId", runId, "result", tokenizedData));
+    verify(context, times(2)).correlate(any());
+    await().atMost(Duration.ofSeconds(5)).until(() -> watchers.pendingRuns() == 0);
+  }
+
+  private void startRun() throws Exception {
+    var request =
+        new SkyflowRequest(
+            new SkyflowAuthentication(
+                "http://localhost:" + wireMockServer.port(), "vault-123", "test-token"),
+            SkyflowOperationType.DEIDENTIFY_START,
+            Map.of("name", "John Doe"),
+            "vault_token",
+            null,
+            false,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null);
+    outbound.execute(OutboundConnectorContextBuilder.create().variables(request).build());
+  }
+
+  private Map<String, Object> properties() {
+    return Map.of(
+        "authentication",
+        Map.of(
+            "vaultUri",
+            "http://localhost:" + wireMockServer.port(),
+            "vaultId",
+            "vault-123",
+            "apiToken",
+            "test-token"),
+        "pollIntervalMs",
+        50,
+        "maxPollAttempts",
+        20);
+  }
+
+  private void setupDeidentifyStartMock(String runId) throws Exception {
+    wireMockServer.stubFor(
+        post(urlEqualTo("/v1/detect/deidentify/file/structured_text"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(MAPPER.writeValueAsString(Map.of("run_id", runId)))));
+  }
+
+  private void setupPollingSuccessMock(String runId, Map<String, Object> output) throws Exception {
+    var base64Output =
+        Base64.getEncoder()
+            .encodeToString(MAPPER.writeValueAsString(output).getBytes(StandardCharsets.UTF_8));
+
+    wireMockServer.stubFor(
+        get(urlEqualTo("/v1/detect/runs/" + runId + "?vault_id=vault-123"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        MAPPER.writeValueAsString(
+                            Map.of(
+                                "status",
+                                "SUCCESS",
+                                "output",
+                                List.of(
+                                    Map.of(
+                                        "processedFile",
+                                        base64Output,
+                                        "processedFileExtension",
+                                        "json")))))));
+  }
+}
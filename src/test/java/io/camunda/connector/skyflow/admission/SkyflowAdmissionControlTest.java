@@ -0,0 +1,129 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.awaitility.Awaitility.await;
+
+class SkyflowAdmissionControlTest {
+
+  private final List<long[]> reported = new CopyOnWriteArrayList<>();
+  private final SkyflowMetrics metrics =
+      new SkyflowMetrics() {
+        @Override
+        public void recordAdmission(long admittedBytes, int waitingJobs) {
+          reported.add(new long[] {admittedBytes, waitingJobs});
+        }
+      };
+
+  @Test
+  @DisplayName("Should admit waiting jobs in arrival order once budget is returned")
+  void testWaitsInOrder() throws Exception {
+    var admission = new SkyflowAdmissionControl(100, Duration.ofSeconds(10), metrics);
+    var first = admission.acquire(60);
+
+    var second = CompletableFuture.supplyAsync(() -> acquire(admission, 60));
+    await().until(() -> admission.waiting() == 1);
+    // fits, but must not overtake the job queued before it
+    var third = CompletableFuture.supplyAsync(() -> acquire(admission, 30));
+    await().until(() -> admission.waiting() == 2);
+    assertThat(second).isNotDone();
+    assertThat(third).isNotDone();
+
+    first.close();
+
+    second.get().close();
+    third.get().close();
+    assertThat(admission.admittedBytes()).isZero();
+    assertThat(reported.getLast()).containsExactly(0, 0);
+    assertThat(reported).anySatisfy(state -> assertThat(state).containsExactly(60, 2));
+  }
+
+  @Test
+  @DisplayName("Should fail fast with a distinct error code when the budget is used up")
+  void testFailFast() throws Exception {
+    var admission = new SkyflowAdmissionControl(100, Duration.ZERO, metrics);
+    try (var held = admission.acquire(80)) {
+      assertThatThrownBy(() -> admission.acquire(30))
+          .isInstanceOf(ConnectorException.class)
+          .satisfies(
+              e ->
+                  assertThat(((ConnectorException) e).getErrorCode())
+                      .isEqualTo("SKYFLOW_PAYLOAD_BUDGET_EXHAUSTED"));
+      assertThat(admission.waiting()).isZero();
+    }
+    assertThat(admission.admittedBytes()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should give up after the maximum wait and let later jobs in")
+  void testWaitTimeout() throws Exception {
+    var admission = new SkyflowAdmissionControl(100, Duration.ofMillis(200), metrics);
+    var held = admission.acquire(50);
+
+    long started = System.nanoTime();
+    assertThatThrownBy(() -> admission.acquire(60)).isInstanceOf(ConnectorException.class);
+    assertThat(Duration.ofNanos(System.nanoTime() - started))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    assertThat(admission.waiting()).isZero();
+
+    admission.acquire(50).close();
+    held.close();
+    assertThat(admission.admittedBytes()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should admit a job larger than the whole budget alone")
+  void testOversizedJob() throws Exception {
+    var admission = new SkyflowAdmissionControl(100, Duration.ZERO, metrics);
+    try (var large = admission.acquire(1_000)) {
+      assertThat(admission.admittedBytes()).isEqualTo(100);
+      assertThatThrownBy(() -> admission.acquire(1)).isInstanceOf(ConnectorException.class);
+    }
+    admission.acquire(1).close();
+  }
+
+  @Test
+  @DisplayName("Should estimate the footprint from the JSON size of the payload")
+  void testFootprint() throws Exception {
+    Map<String, Object> payload =
+        Map.of(
+            "customers",
+            IntStream.range(0, 100)
+                .mapToObj(i -> Map.of("name", "John " + i, "age", i, "vip", i % 2 == 0))
+                .toList());
+    long json = new ObjectMapper().writeValueAsBytes(payload).length;
+
+    assertThat(SkyflowAdmissionControl.footprint(payload))
+        .isCloseTo(json * SkyflowAdmissionControl.HEAP_BYTES_PER_JSON_BYTE, withinPercentage(10));
+    assertThat(SkyflowAdmissionControl.footprint(null)).isZero();
+  }
+
+  private static SkyflowAdmissionControl.Permit acquire(
+      SkyflowAdmissionControl admission, long bytes) {
+    try {
+      return admission.acquire(bytes);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
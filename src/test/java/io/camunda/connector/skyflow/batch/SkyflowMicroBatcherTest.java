@@ -0,0 +1,131 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.batch;
+
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.batch.SkyflowMicroBatcher.BatchProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkyflowMicroBatcherTest {
+
+  private final SkyflowMicroBatcher batcher = new SkyflowMicroBatcher();
+  private final List<Map<String, Object>> calls = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    batcher.close();
+  }
+
+  @Test
+  @DisplayName("Should combine payloads submitted within the window into one call")
+  void testCombinesPayloads() throws Exception {
+    var first = submit("key", "a", Duration.ofMillis(100), 10);
+    var second = submit("key", "b", Duration.ofMillis(100), 10);
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("name", "[a]"));
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("name", "[b]"));
+    assertThat(calls).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Should flush as soon as the batch is full")
+  void testFlushOnSize() throws Exception {
+    var first = submit("key", "a", Duration.ofHours(1), 2);
+    var second = submit("key", "b", Duration.ofHours(1), 2);
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("name", "[a]"));
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("name", "[b]"));
+  }
+
+  @Test
+  @DisplayName("Should not combine payloads with different keys")
+  void testSeparateKeys() throws Exception {
+    var first = submit("a", "a", Duration.ofMillis(50), 10);
+    var second = submit("b", "b", Duration.ofMillis(50), 10);
+
+    first.get(5, TimeUnit.SECONDS);
+    second.get(5, TimeUnit.SECONDS);
+    assertThat(calls).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("Should isolate the failure of a single payload")
+  void testIsolatesFailures() throws Exception {
+    var good = submit("key", "a", Duration.ofMillis(100), 10);
+    var bad = submit("key", "bad", Duration.ofMillis(100), 10);
+
+    assertThat(good.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("name", "[a]"));
+    assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(ConnectorException.class);
+  }
+
+  @Test
+  @DisplayName("Should fail every job with the error of a combined call not due to a payload")
+  void testFailsAllOnOtherErrors() {
+    BatchProcessor open =
+        payload -> {
+          calls.add(payload);
+          throw new ConnectorException("SKYFLOW_CIRCUIT_OPEN", "open");
+        };
+    var first = batcher.submit("key", Map.of("name", "a"), Duration.ofMillis(100), 10, open);
+    var second = batcher.submit("key", Map.of("name", "b"), Duration.ofMillis(100), 10, open);
+
+    for (var result : List.of(first, second)) {
+      assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .satisfies(
+              e ->
+                  assertThat(((ConnectorException) e.getCause()).getErrorCode())
+                      .isEqualTo("SKYFLOW_CIRCUIT_OPEN"));
+    }
+    // no payload was retried on its own
+    assertThat(calls).hasSize(1);
+  }
+
+  private CompletableFuture<Map<String, Object>> submit(
+      String key, String name, Duration window, int maxSize) {
+    return batcher.submit(key, Map.of("name", name), window, maxSize, this::process);
+  }
+
+  /** Fake Skyflow call: rejects any payload containing "bad". */
+  private Map<String, Object> process(Map<String, Object> payload) {
+    calls.add(payload);
+    if (payload.toString().contains("bad")) {
+      throw new ConnectorException("SKYFLOW_RUN_FAILED", "Skyflow run status: FAILED");
+    }
+    return tokenize(payload);
+  }
+
+  /** Wraps leaf values in brackets. */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> tokenize(Map<String, Object> payload) {
+    var result = new HashMap<String, Object>();
+    payload.forEach(
+        (key, value) ->
+            result.put(
+                key,
+                value instanceof Map<?, ?> nested
+                    ? tokenize((Map<String, Object>) nested)
+                    : "[" + value + "]"));
+    return result;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.error.ConnectorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkyflowRecordBatchTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private final List<Map<String, Object>> calls = new CopyOnWriteArrayList<>();
+
+  @Test
+  @DisplayName("Should pack records into files within the size limit and keep their order")
+  void testPacksRecords() throws Exception {
+    var records = new ArrayList<Object>();
+    for (int i = 0; i < 50; i++) {
+      records.add(Map.of("name", "John " + i));
+    }
+
+    var results = SkyflowRecordBatch.process(MAPPER, records, 300, 4, this::tokenize);
+
+    assertThat(calls).hasSizeBetween(2, 49);
+    for (var call : calls) {
+      assertThat(MAPPER.writeValueAsBytes(call).length).isLessThanOrEqualTo(300);
+    }
+    assertThat(results).hasSize(50);
+    for (int i = 0; i < 50; i++) {
+      assertThat(results.get(i)).isEqualTo(Map.of("result", Map.of("name", "[NAME_" + i + "]")));
+    }
+  }
+
+  @Test
+  @DisplayName("Should report failed records without failing the others")
+  void testIsolatesFailures() throws Exception {
+    List<Object> records =
+        List.of(
+            Map.of("name", "John 1"), Map.of("name", "FAIL"), "John 3", Map.of("name", "John 4"));
+
+    var results = SkyflowRecordBatch.process(MAPPER, records, 1 << 20, 4, this::tokenize);
+
+    assertThat(results.get(0)).isEqualTo(Map.of("result", Map.of("name", "[NAME_1]")));
+    assertThat(results.get(1))
+        .isEqualTo(Map.of("error", Map.of("code", "SKYFLOW_RUN_FAILED", "message", "rejected")));
+    assertThat(((Map<?, ?>) results.get(2).get("error")).get("code"))
+        .isEqualTo("SKYFLOW_BAD_PAYLOAD");
+    assertThat(results.get(3)).isEqualTo(Map.of("result", Map.of("name", "[NAME_4]")));
+    // the combined file, then each of its records on its own
+    assertThat(calls).hasSize(4);
+  }
+
+  @Test
+  @DisplayName("Should fail the job without retrying records when the failure is not theirs")
+  void testRethrowsOtherFailures() {
+    List<Object> records = List.of(Map.of("name", "John 1"), Map.of("name", "John 2"));
+
+    assertThatThrownBy(
+            () ->
+                SkyflowRecordBatch.process(
+                    MAPPER,
+                    records,
+                    1 << 20,
+                    4,
+                    file -> {
+                      calls.add(file);
+                      throw new ConnectorException("SKYFLOW_CIRCUIT_OPEN", "open");
+                    }))
+        .isInstanceOfSatisfying(
+            ConnectorException.class,
+            e -> assertThat(e.getErrorCode()).isEqualTo("SKYFLOW_CIRCUIT_OPEN"));
+    assertThat(calls).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Should retry a bounded number of records on their own")
+  void testBoundsIsolation() throws Exception {
+    var records = new ArrayList<Object>();
+    for (int i = 0; i < SkyflowRecordBatch.MAX_ISOLATED_RECORDS + 1; i++) {
+      records.add(Map.of("name", "FAIL " + i));
+    }
+
+    var results = SkyflowRecordBatch.process(MAPPER, records, 1 << 20, 4, this::tokenize);
+
+    assertThat(results)
+        .allSatisfy(
+            result ->
+                assertThat(result)
+                    .isEqualTo(
+                        Map.of(
+                            "error", Map.of("code", "SKYFLOW_RUN_FAILED", "message", "rejected"))));
+    assertThat(calls).hasSize(1);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> tokenize(Map<String, Object> file) throws Exception {
+    calls.add(file);
+    var json = MAPPER.writeValueAsString(file);
+    if (json.contains("FAIL")) {
+      throw new ConnectorException("SKYFLOW_RUN_FAILED", "rejected");
+    }
+    return MAPPER.readValue(json.replaceAll("John (\\d+)", "[NAME_$1]"), Map.class);
+  }
+}
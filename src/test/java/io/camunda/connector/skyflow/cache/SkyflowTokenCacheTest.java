@@ -0,0 +1,163 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.cache;
+
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.json.JsonTrees;
+import io.camunda.connector.skyflow.metrics.MicrometerSkyflowMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkyflowTokenCacheTest {
+
+  private final List<Map<String, Object>> calls = new CopyOnWriteArrayList<>();
+
+  @Test
+  @DisplayName("Should only send values missing from the cache")
+  void testOnlyMissesAreSent() throws Exception {
+    var cache = new SkyflowTokenCache(100, Duration.ofMinutes(1));
+    cache.deidentify(Map.of("email", "a@b.com"), "scope", this::tokenize);
+
+    var result =
+        cache.deidentify(
+            Map.of("email", "a@b.com", "contacts", List.of(Map.of("phone", "123"))),
+            "scope",
+            this::tokenize);
+
+    assertThat(result)
+        .isEqualTo(
+            Map.of("email", "<a@b.com>", "contacts", List.of(Map.of("phone", "<123>"))));
+    assertThat(calls).hasSize(2);
+    assertThat(calls.get(1)).isEqualTo(Map.of("contacts", List.of(Map.of("phone", "123"))));
+    assertThat(cache.stats().hits()).isEqualTo(1);
+    assertThat(cache.stats().misses()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should not call Skyflow when every value is cached")
+  void testFullHit() throws Exception {
+    var cache = new SkyflowTokenCache(100, Duration.ofMinutes(1));
+    cache.deidentify(Map.of("name", "John", "age", 30), "scope", this::tokenize);
+
+    var result = cache.deidentify(Map.of("name", "John", "age", 30), "scope", this::tokenize);
+
+    assertThat(result).isEqualTo(Map.of("name", "<John>", "age", "<30>"));
+    assertThat(calls).hasSize(1);
+    assertThat(cache.stats().hitRate()).isEqualTo(0.5);
+  }
+
+  @Test
+  @DisplayName("Should not share tokens across scopes")
+  void testScopes() throws Exception {
+    var cache = new SkyflowTokenCache(100, Duration.ofMinutes(1));
+    cache.deidentify(Map.of("name", "John"), "vault-a", this::tokenize);
+    cache.deidentify(Map.of("name", "John"), "vault-b", this::tokenize);
+
+    assertThat(calls).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("Should evict least recently used and expired entries")
+  void testEviction() throws Exception {
+    var cache = new SkyflowTokenCache(2, Duration.ofMillis(50));
+    cache.deidentify(Map.of("a", "1", "b", "2", "c", "3"), "scope", this::tokenize);
+
+    assertThat(cache.stats().size()).isEqualTo(2);
+    assertThat(cache.stats().evictions()).isEqualTo(1);
+    assertThat(cache.stats().estimatedBytes()).isPositive();
+
+    Thread.sleep(100);
+    cache.deidentify(Map.of("c", "3"), "scope", this::tokenize);
+    assertThat(calls).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("Should report hits, misses, evictions and size to the metrics")
+  void testMetrics() throws Exception {
+    var registry = new SimpleMeterRegistry();
+    var cache =
+        new SkyflowTokenCache(2, Duration.ofMinutes(1), new MicrometerSkyflowMetrics(registry));
+    cache.deidentify(Map.of("a", "1", "b", "2", "c", "3"), "scope", this::tokenize);
+    cache.deidentify(Map.of("c", "3"), "scope", this::tokenize);
+
+    assertThat(
+            registry.get("skyflow.token.cache.lookups").tags("result", "hit").counter().count())
+        .isEqualTo(1);
+    assertThat(
+            registry.get("skyflow.token.cache.lookups").tags("result", "miss").counter().count())
+        .isEqualTo(3);
+    assertThat(registry.get("skyflow.token.cache.evictions").counter().count()).isEqualTo(1);
+    assertThat(registry.get("skyflow.token.cache.size").gauge().value()).isEqualTo(2);
+    assertThat(registry.get("skyflow.token.cache.bytes").gauge().value())
+        .isEqualTo(cache.stats().estimatedBytes());
+  }
+
+  @Test
+  @DisplayName("Should share one in-flight lookup between concurrent identical misses")
+  void testSingleFlight() throws Exception {
+    var cache = new SkyflowTokenCache(100, Duration.ofMinutes(1));
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var pool = Executors.newFixedThreadPool(2);
+    try {
+      Future<Map<String, Object>> first =
+          pool.submit(
+              () ->
+                  cache.deidentify(
+                      Map.of("email", "a@b.com"),
+                      "scope",
+                      payload -> {
+                        started.countDown();
+                        release.await();
+                        return tokenize(payload);
+                      }));
+      started.await(5, TimeUnit.SECONDS);
+      Future<Map<String, Object>> second =
+          pool.submit(() -> cache.deidentify(Map.of("email", "a@b.com"), "scope", this::tokenize));
+      Thread.sleep(50);
+      release.countDown();
+
+      assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("email", "<a@b.com>"));
+      assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("email", "<a@b.com>"));
+      assertThat(calls).hasSize(1);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Should fail when Skyflow drops a field")
+  void testMissingField() {
+    var cache = new SkyflowTokenCache(100, Duration.ofMinutes(1));
+
+    assertThatThrownBy(
+            () -> cache.deidentify(Map.of("email", "a@b.com"), "scope", payload -> Map.of()))
+        .isInstanceOf(ConnectorException.class)
+        .hasMessageContaining("missing the field");
+  }
+
+  /** Fake Skyflow call wrapping every leaf in angle brackets. */
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> tokenize(Map<String, Object> payload) {
+    calls.add(payload);
+    return (Map<String, Object>)
+        JsonTrees.mapLeaves(payload, (path, value) -> value == null ? null : "<" + value + ">");
+  }
+}
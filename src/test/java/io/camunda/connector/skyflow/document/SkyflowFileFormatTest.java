@@ -0,0 +1,55 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.document;
+
+import io.camunda.connector.api.error.ConnectorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkyflowFileFormatTest {
+
+  @Test
+  @DisplayName("Should choose the data format and endpoint by content type")
+  void testContentType() {
+    var csv = SkyflowFileFormat.of("text/csv; charset=UTF-8", "customers.txt");
+    assertThat(csv).isEqualTo(SkyflowFileFormat.CSV);
+    assertThat(csv.dataFormat()).isEqualTo("csv");
+    assertThat(csv.deidentifyPath()).isEqualTo("/v1/detect/deidentify/file/spreadsheet");
+
+    var json = SkyflowFileFormat.of("Application/JSON", null);
+    assertThat(json.dataFormat()).isEqualTo("json");
+    assertThat(json.deidentifyPath()).isEqualTo("/v1/detect/deidentify/file/structured_text");
+
+    assertThat(SkyflowFileFormat.of("application/pdf", null).deidentifyPath())
+        .isEqualTo("/v1/detect/deidentify/file/document/pdf");
+  }
+
+  @Test
+  @DisplayName("Should fall back to the file extension for generic content types")
+  void testFileExtension() {
+    assertThat(SkyflowFileFormat.of("application/octet-stream", "scan.JPEG"))
+        .isEqualTo(SkyflowFileFormat.JPG);
+    assertThat(SkyflowFileFormat.of(null, "report.docx")).isEqualTo(SkyflowFileFormat.DOCX);
+    assertThat(SkyflowFileFormat.JPG.contentType()).isEqualTo("image/jpeg");
+  }
+
+  @Test
+  @DisplayName("Should reject documents of unsupported types")
+  void testUnsupported() {
+    assertThatThrownBy(() -> SkyflowFileFormat.of("application/zip", "archive.zip"))
+        .isInstanceOf(ConnectorException.class)
+        .satisfies(
+            e ->
+                assertThat(((ConnectorException) e).getErrorCode())
+                    .isEqualTo("SKYFLOW_BAD_PAYLOAD"));
+    assertThatThrownBy(() -> SkyflowFileFormat.of(null, null))
+        .isInstanceOf(ConnectorException.class);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkyflowCircuitBreakersTest {
+
+  @Test
+  @DisplayName("Should open after consecutive failures and close after a successful probe")
+  void testOpenAndRecover() throws Exception {
+    var breakers = new SkyflowCircuitBreakers(settings(3, Duration.ofMillis(50)));
+
+    breakers.tryAcquire("vault-123").failure();
+    breakers.tryAcquire("vault-123").failure();
+    breakers.tryAcquire("vault-123").success();
+    assertThat(breakers.state("vault-123")).isEqualTo(SkyflowCircuitBreakers.State.CLOSED);
+
+    for (int i = 0; i < 3; i++) {
+      breakers.tryAcquire("vault-123").failure();
+    }
+    assertThat(breakers.state("vault-123")).isEqualTo(SkyflowCircuitBreakers.State.OPEN);
+    assertThat(breakers.tryAcquire("vault-123")).isNull();
+    assertThat(breakers.tryAcquire("other-vault")).isNotNull();
+
+    Thread.sleep(60);
+    var probe = breakers.tryAcquire("vault-123");
+    assertThat(probe).isNotNull();
+    // only one probe at a time
+    assertThat(breakers.tryAcquire("vault-123")).isNull();
+
+    probe.success();
+    assertThat(breakers.state("vault-123")).isEqualTo(SkyflowCircuitBreakers.State.CLOSED);
+  }
+
+  @Test
+  @DisplayName("Should reopen when the probe fails and ignore neutral outcomes")
+  void testFailedProbe() throws Exception {
+    var breakers = new SkyflowCircuitBreakers(settings(1, Duration.ofMillis(50)));
+
+    breakers.tryAcquire("vault-123").neutral();
+    assertThat(breakers.state("vault-123")).isEqualTo(SkyflowCircuitBreakers.State.CLOSED);
+
+    breakers.tryAcquire("vault-123").failure();
+    Thread.sleep(60);
+    breakers.tryAcquire("vault-123").failure();
+
+    assertThat(breakers.state("vault-123")).isEqualTo(SkyflowCircuitBreakers.State.OPEN);
+    assertThat(breakers.tryAcquire("vault-123")).isNull();
+  }
+
+  private static SkyflowResilienceSettings settings(int threshold, Duration open) {
+    return new SkyflowResilienceSettings(
+        3, Duration.ofMillis(10), Duration.ofMillis(50), threshold, open);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.skyflow.dto.SkyflowFile;
+import io.camunda.connector.skyflow.dto.SkyflowReidentifyFileRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkyflowFileBodyPublisherTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  @DisplayName("Should stream the same body as the non-streaming serialization")
+  void testSameBody() throws Exception {
+    Map<String, Object> payload = Map.of("name", "John Doe", "emails", java.util.List.of("a@b.c"));
+
+    var publisher = SkyflowFileBodyPublisher.of(MAPPER, envelope(), payload);
+    var out = new ByteArrayOutputStream();
+    publisher.writeTo(out);
+
+    assertThat(MAPPER.readTree(out.toByteArray())).isEqualTo(MAPPER.readTree(buffered(payload)));
+    assertThat(publisher.payloadBytes()).isEqualTo(MAPPER.writeValueAsBytes(payload).length);
+  }
+
+  @Test
+  @DisplayName("Should stream file content as the base64 file of the body")
+  void testContent() throws Exception {
+    byte[] csv =
+        "name,email\nJohn Doe,john@example.com\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+    var opened = new AtomicInteger();
+
+    var publisher =
+        SkyflowFileBodyPublisher.ofContent(
+            MAPPER,
+            new SkyflowReidentifyFileRequest(
+                new SkyflowFile(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER, "csv"), "vault-123"),
+            () -> {
+              opened.incrementAndGet();
+              return new ByteArrayInputStream(csv);
+            });
+    var out = new ByteArrayOutputStream();
+    publisher.writeTo(out);
+    // a retry encodes the body again
+    publisher.writeTo(OutputStream.nullOutputStream());
+
+    var file = MAPPER.readTree(out.toByteArray()).path("file");
+    assertThat(Base64.getDecoder().decode(file.path("base64").asText())).isEqualTo(csv);
+    assertThat(file.path("data_format").asText()).isEqualTo("csv");
+    assertThat(publisher.payloadBytes()).isEqualTo(csv.length);
+    assertThat(opened).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Should fail the body instead of ending it when encoding fails")
+  void testFailedEncoding() throws Exception {
+    var publisher =
+        SkyflowFileBodyPublisher.ofContent(
+            MAPPER,
+            new SkyflowReidentifyFileRequest(
+                new SkyflowFile(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER, "csv"), "vault-123"),
+            () ->
+                new SequenceInputStream(
+                    new ByteArrayInputStream("name,email\n".getBytes(StandardCharsets.UTF_8)),
+                    new InputStream() {
+                      @Override
+                      public int read() throws IOException {
+                        throw new IOException("Document store unavailable");
+                      }
+                    }));
+
+    try (var body = publisher.source()) {
+      assertThatThrownBy(body::readAllBytes)
+          .isInstanceOf(IOException.class)
+          .hasRootCauseMessage("Document store unavailable");
+    }
+  }
+
+  /** The previous encoding: JSON string, bytes, base64 string and the request body string. */
+  private static String buffered(Map<String, Object> payload) throws Exception {
+    var json = MAPPER.writeValueAsString(payload);
+    var base64 = Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    return MAPPER.writeValueAsString(
+        new SkyflowReidentifyFileRequest(new SkyflowFile(base64, "json"), "vault-123"));
+  }
+
+  private static SkyflowReidentifyFileRequest envelope() {
+    return new SkyflowReidentifyFileRequest(
+        new SkyflowFile(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER, "json"), "vault-123");
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkyflowRateLimiterTest {
+
+  @Test
+  @DisplayName("Should space requests beyond the burst at the configured rate")
+  void testConfiguredRate() {
+    var limiter = new SkyflowRateLimiter(settings(10, Map.of()));
+
+    Duration last = Duration.ZERO;
+    for (int i = 0; i < 30; i++) {
+      last = limiter.reserve("vault-123", SkyflowEndpoint.RUN_STATUS);
+    }
+
+    // a burst of 10, then 20 more slots 100 ms apart
+    assertThat(last).isBetween(Duration.ofMillis(1900), Duration.ofMillis(2000));
+  }
+
+  @Test
+  @DisplayName("Should apply per-vault rates to each endpoint separately")
+  void testPerVaultAndEndpoint() {
+    var limiter = new SkyflowRateLimiter(settings(1, Map.of("fast", 1000.0)));
+
+    limiter.reserve("slow", SkyflowEndpoint.RUN_STATUS);
+
+    assertThat(limiter.reserve("slow", SkyflowEndpoint.RUN_STATUS)).isPositive();
+    assertThat(limiter.reserve("slow", SkyflowEndpoint.DEIDENTIFY)).isZero();
+    assertThat(limiter.reserve("fast", SkyflowEndpoint.RUN_STATUS)).isZero();
+    assertThat(limiter.rate("fast", SkyflowEndpoint.RUN_STATUS)).isEqualTo(1000.0);
+  }
+
+  @Test
+  @DisplayName("Should pause and halve the rate when throttled")
+  void testThrottle() {
+    var limiter = new SkyflowRateLimiter(settings(10, Map.of()));
+
+    limiter.onThrottled("vault-123", SkyflowEndpoint.DEIDENTIFY, Duration.ofSeconds(2));
+
+    assertThat(limiter.rate("vault-123", SkyflowEndpoint.DEIDENTIFY)).isEqualTo(5.0);
+    assertThat(limiter.reserve("vault-123", SkyflowEndpoint.DEIDENTIFY))
+        .isBetween(Duration.ofMillis(1900), Duration.ofSeconds(2));
+    assertThat(limiter.reserve("vault-123", SkyflowEndpoint.RUN_STATUS)).isZero();
+  }
+
+  @Test
+  @DisplayName("Should halve the rate once for concurrent 429s")
+  void testConcurrentThrottles() throws Exception {
+    var limiter = new SkyflowRateLimiter(settings(40, Map.of()));
+    var pool = Executors.newFixedThreadPool(16);
+    try {
+      List<Callable<Void>> throttles =
+          IntStream.range(0, 50)
+              .mapToObj(
+                  i ->
+                      (Callable<Void>)
+                          () -> {
+                            limiter.onThrottled(
+                                "vault-123",
+                                SkyflowEndpoint.DEIDENTIFY,
+                                Duration.ofMillis(i % 2 == 0 ? 0 : 500));
+                            return null;
+                          })
+              .toList();
+      for (var throttle : pool.invokeAll(throttles)) {
+        throttle.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertThat(limiter.rate("vault-123", SkyflowEndpoint.DEIDENTIFY)).isEqualTo(20.0);
+
+    // a 429 while still paused belongs to the same episode
+    limiter.onThrottled("vault-123", SkyflowEndpoint.DEIDENTIFY, Duration.ofSeconds(1));
+    assertThat(limiter.rate("vault-123", SkyflowEndpoint.DEIDENTIFY)).isEqualTo(20.0);
+  }
+
+  @Test
+  @DisplayName("Should start limiting an unlimited vault once it is throttled")
+  void testUnlimitedUntilThrottled() {
+    var limiter = new SkyflowRateLimiter(settings(0, Map.of()));
+    for (int i = 0; i < 100; i++) {
+      assertThat(limiter.reserve("vault-123", SkyflowEndpoint.RUN_STATUS)).isZero();
+    }
+
+    limiter.onThrottled("vault-123", SkyflowEndpoint.RUN_STATUS, Duration.ZERO);
+
+    assertThat(limiter.rate("vault-123", SkyflowEndpoint.RUN_STATUS)).isEqualTo(50.0);
+  }
+
+  private static SkyflowRateLimitSettings settings(double rate, Map<String, Double> vaults) {
+    return new SkyflowRateLimitSettings(rate, vaults, 5, Duration.ofMinutes(1));
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.camunda.connector.skyflow.dto.SkyflowFile;
+import io.camunda.connector.skyflow.dto.SkyflowReidentifyFileRequest;
+import io.camunda.connector.skyflow.metrics.SkyflowMetrics;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkyflowTransportCompressionTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static WireMockServer wireMockServer;
+  private final List<long[]> requests = new CopyOnWriteArrayList<>();
+  private final List<long[]> responses = new CopyOnWriteArrayList<>();
+  private SkyflowTransportRegistry registry;
+  private SkyflowTransport transport;
+
+  @BeforeAll
+  static void startWireMock() {
+    // the stubs below compress on their own
+    wireMockServer = new WireMockServer(options().dynamicPort().gzipDisabled(true));
+    wireMockServer.start();
+  }
+
+  @AfterAll
+  static void stopWireMock() {
+    wireMockServer.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    wireMockServer.resetAll();
+    var defaults = SkyflowTransportSettings.defaults();
+    registry =
+        new SkyflowTransportRegistry(
+            new SkyflowTransportSettings(
+                defaults.connectTimeout(),
+                defaults.maxConcurrentRequests(),
+                defaults.idleTimeout(),
+                defaults.executorThreads(),
+                false,
+                true,
+                1024),
+            SkyflowRateLimitSettings.defaults(),
+            SkyflowResilienceSettings.defaults(),
+            new SkyflowMetrics() {
+              @Override
+              public void recordCompression(
+                  String direction, long compressedBytes, long uncompressedBytes) {
+                (direction.equals("request") ? requests : responses)
+                    .add(new long[] {compressedBytes, uncompressedBytes});
+              }
+            });
+    transport = registry.forBaseUrl("http://localhost:" + wireMockServer.port());
+  }
+
+  @AfterEach
+  void tearDown() {
+    registry.close();
+  }
+
+  @Test
+  @DisplayName("Should ask for gzip and inflate compressed responses while reading them")
+  void testGzipResponse() throws Exception {
+    var json = "{\"status\": \"SUCCESS\", \"message\": \"" + "x".repeat(10_000) + "\"}";
+    var compressed = gzip(json.getBytes(StandardCharsets.UTF_8));
+    wireMockServer.stubFor(
+        get(urlEqualTo("/v1/detect/runs/run-1"))
+            .withHeader("Accept-Encoding", equalTo("gzip"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Encoding", "gzip")
+                    .withBody(compressed)));
+
+    var response =
+        transport.send(
+            "vault-123",
+            SkyflowEndpoint.RUN_STATUS,
+            HttpRequest.newBuilder(uri("/v1/detect/runs/run-1")).build(),
+            transport.bodyHandler());
+
+    try (var body = response.body()) {
+      assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(json);
+    }
+    assertThat(responses)
+        .singleElement()
+        .satisfies(
+            sizes -> assertThat(sizes).containsExactly(compressed.length, json.length()));
+  }
+
+  @Test
+  @DisplayName("Should compress request bodies above the threshold only")
+  void testGzipRequest() throws Exception {
+    wireMockServer.stubFor(
+        post(urlEqualTo("/v1/detect/reidentify/file")).willReturn(aResponse().withStatus(200)));
+    Map<String, Object> small = Map.of("name", "John Doe");
+    Map<String, Object> large = Map.of("notes", "John Doe ".repeat(1000));
+
+    reidentify(small);
+    reidentify(large);
+
+    var sent = wireMockServer.findAll(postRequestedFor(urlEqualTo("/v1/detect/reidentify/file")));
+    assertThat(sent).hasSize(2);
+    assertThat(sent.get(0).containsHeader("Content-Encoding")).isFalse();
+    assertThat(sent.get(1).getHeader("Content-Encoding")).isEqualTo("gzip");
+    var body = gunzipped(sent.get(1).getBody());
+    assertThat(MAPPER.readTree(body).at("/file/base64").asText()).isNotEmpty();
+    assertThat(requests)
+        .singleElement()
+        .satisfies(sizes -> assertThat(sizes[0]).isLessThan(sizes[1] / 10));
+    assertThat(requests.getFirst()[1]).isEqualTo(body.length);
+  }
+
+  private void reidentify(Map<String, Object> payload) throws Exception {
+    var body =
+        SkyflowFileBodyPublisher.of(
+            MAPPER,
+            new SkyflowReidentifyFileRequest(
+                new SkyflowFile(SkyflowFileBodyPublisher.PAYLOAD_PLACEHOLDER, "json"),
+                "vault-123"),
+            payload);
+    var request =
+        transport
+            .post(
+                HttpRequest.newBuilder(uri("/v1/detect/reidentify/file"))
+                    .timeout(Duration.ofSeconds(10)),
+                SkyflowEndpoint.REIDENTIFY,
+                body)
+            .build();
+    try (var response =
+        transport.send("vault-123", SkyflowEndpoint.REIDENTIFY, request, transport.bodyHandler())
+            .body()) {
+      response.readAllBytes();
+    }
+  }
+
+  private static URI uri(String path) {
+    return URI.create("http://localhost:" + wireMockServer.port() + path);
+  }
+
+  private static byte[] gzip(byte[] bytes) throws Exception {
+    var out = new ByteArrayOutputStream();
+    try (var gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] gunzipped(byte[] bytes) throws Exception {
+    // WireMock may already have inflated the request body
+    if (bytes.length < 2 || (bytes[0] & 0xff) != 0x1f || (bytes[1] & 0xff) != 0x8b) {
+      return bytes;
+    }
+    try (var in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkyflowTransportRegistryTest {
+
+  private SkyflowTransportRegistry registry;
+
+  @AfterEach
+  void tearDown() {
+    if (registry != null) {
+      registry.close();
+    }
+  }
+
+  @Test
+  @DisplayName("Should reuse one transport per base URL")
+  void testReuseTransport() {
+    registry = new SkyflowTransportRegistry(SkyflowTransportSettings.defaults());
+
+    var first = registry.forBaseUrl("https://a.vault.skyflowapis.com");
+    var second = registry.forBaseUrl("https://a.vault.skyflowapis.com");
+    var other = registry.forBaseUrl("https://b.vault.skyflowapis.com");
+
+    assertThat(second).isSameAs(first);
+    assertThat(other).isNotSameAs(first);
+    assertThat(registry.size()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should create a single transport under concurrent workers")
+  void testConcurrentLookup() throws Exception {
+    registry = new SkyflowTransportRegistry(SkyflowTransportSettings.defaults());
+    var pool = Executors.newFixedThreadPool(16);
+    try {
+      Callable<SkyflowTransport> lookup =
+          () -> registry.forBaseUrl("https://a.vault.skyflowapis.com");
+      var results = pool.invokeAll(IntStream.range(0, 200).mapToObj(i -> lookup).toList());
+
+      var first = results.getFirst().get();
+      for (var result : results) {
+        assertThat(result.get()).isSameAs(first);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Should evict transports that stayed idle")
+  void testIdleEviction() throws Exception {
+    registry =
+        new SkyflowTransportRegistry(
+            new SkyflowTransportSettings(
+                Duration.ofSeconds(1), 4, Duration.ofMillis(20), 1, false));
+
+    var first = registry.forBaseUrl("https://a.vault.skyflowapis.com");
+    Thread.sleep(50);
+    var second = registry.forBaseUrl("https://a.vault.skyflowapis.com");
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(registry.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should handle responses on virtual threads when enabled")
+  void testVirtualThreads() throws Exception {
+    var server = new WireMockServer(0);
+    server.start();
+    try {
+      server.stubFor(
+          get(urlEqualTo("/v1/detect/runs/run-1")).willReturn(aResponse().withStatus(200)));
+      registry =
+          new SkyflowTransportRegistry(
+              new SkyflowTransportSettings(
+                  Duration.ofSeconds(1), 4, Duration.ofMinutes(5), 1, true));
+      var virtual = new AtomicBoolean();
+
+      var response =
+          registry
+              .forBaseUrl("http://localhost:" + server.port())
+              .send(
+                  "vault-123",
+                  SkyflowEndpoint.RUN_STATUS,
+                  HttpRequest.newBuilder(
+                          URI.create("http://localhost:" + server.port() + "/v1/detect/runs/run-1"))
+                      .build(),
+                  info -> {
+                    virtual.set(Thread.currentThread().isVirtual());
+                    return HttpResponse.BodySubscribers.discarding();
+                  });
+
+      assertThat(response.statusCode()).isEqualTo(200);
+      assertThat(virtual).isTrue();
+    } finally {
+      server.stop();
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.http;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.camunda.connector.api.error.ConnectorException;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkyflowTransportResilienceTest {
+
+  private static WireMockServer wireMockServer;
+  private SkyflowTransportRegistry registry;
+  private SkyflowTransport transport;
+
+  @BeforeAll
+  static void startWireMock() {
+    wireMockServer = new WireMockServer(0);
+    wireMockServer.start();
+  }
+
+  @AfterAll
+  static void stopWireMock() {
+    wireMockServer.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    wireMockServer.resetAll();
+    registry =
+        new SkyflowTransportRegistry(
+            SkyflowTransportSettings.defaults(),
+            SkyflowRateLimitSettings.defaults(),
+            new SkyflowResilienceSettings(
+                3, Duration.ofMillis(10), Duration.ofMillis(50), 4, Duration.ofSeconds(30)));
+    transport = registry.forBaseUrl("http://localhost:" + wireMockServer.port());
+  }
+
+  @AfterEach
+  void tearDown() {
+    registry.close();
+  }
+
+  @Test
+  @DisplayName("Should retry idempotent calls on 5xx")
+  void testRetryIdempotentCall() throws Exception {
+    wireMockServer.stubFor(
+        get("/v1/detect/runs/run-1")
+            .inScenario("flaky")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(502))
+            .willSetStateTo("recovered"));
+    wireMockServer.stubFor(
+        get("/v1/detect/runs/run-1")
+            .inScenario("flaky")
+            .whenScenarioStateIs("recovered")
+            .willReturn(aResponse().withStatus(200).withBody("{\"status\":\"SUCCESS\"}")));
+
+    var response = send(SkyflowEndpoint.RUN_STATUS, "/v1/detect/runs/run-1");
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    wireMockServer.verify(2, getRequestedFor(urlEqualTo("/v1/detect/runs/run-1")));
+  }
+
+  @Test
+  @DisplayName("Should not repeat a de-identify start that reached Skyflow")
+  void testNoRetryForNonIdempotentCall() throws Exception {
+    wireMockServer.stubFor(
+        get("/v1/detect/deidentify/file/structured_text")
+            .willReturn(aResponse().withStatus(503).withBody("unavailable")));
+
+    var response = send(SkyflowEndpoint.DEIDENTIFY, "/v1/detect/deidentify/file/structured_text");
+
+    assertThat(response.statusCode()).isEqualTo(503);
+    assertThat(response.body()).isEqualTo("unavailable");
+    wireMockServer.verify(
+        1, getRequestedFor(urlEqualTo("/v1/detect/deidentify/file/structured_text")));
+  }
+
+  @Test
+  @DisplayName("Should not repeat a string de-identify call that reached Skyflow")
+  void testNoRetryForDeidentifyString() throws Exception {
+    wireMockServer.stubFor(
+        get("/v1/detect/deidentify/string").willReturn(aResponse().withStatus(502)));
+
+    var response = send(SkyflowEndpoint.DEIDENTIFY_STRING, "/v1/detect/deidentify/string");
+
+    assertThat(response.statusCode()).isEqualTo(502);
+    wireMockServer.verify(1, getRequestedFor(urlEqualTo("/v1/detect/deidentify/string")));
+  }
+
+  @Test
+  @DisplayName("Should fail fast once the vault's circuit is open")
+  void testCircuitOpens() throws Exception {
+    wireMockServer.stubFor(get("/v1/detect/runs/run-2").willReturn(aResponse().withStatus(500)));
+
+    // calls to a non-idempotent endpoint are not retried: one request per failure
+    for (int i = 0; i < 4; i++) {
+      send(SkyflowEndpoint.DEIDENTIFY, "/v1/detect/runs/run-2");
+    }
+
+    assertThat(registry.circuitBreakers().state("vault-123"))
+        .isEqualTo(SkyflowCircuitBreakers.State.OPEN);
+    assertThatThrownBy(() -> send(SkyflowEndpoint.RUN_STATUS, "/v1/detect/runs/run-2"))
+        .isInstanceOfSatisfying(
+            ConnectorException.class,
+            e -> assertThat(e.getErrorCode()).isEqualTo("SKYFLOW_CIRCUIT_OPEN"));
+    wireMockServer.verify(4, getRequestedFor(urlEqualTo("/v1/detect/runs/run-2")));
+  }
+
+  private HttpResponse<String> send(SkyflowEndpoint endpoint, String path) throws Exception {
+    var request =
+        HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + wireMockServer.port() + path))
+            .GET()
+            .build();
+    return transport.send("vault-123", endpoint, request, HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import io.camunda.connector.api.error.ConnectorException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldSelectionTest {
+
+  @Test
+  @DisplayName("Should match JSON Pointers and their subtrees")
+  void testJsonPointer() {
+    var selection = FieldSelection.of(List.of("/customer", "/items/*/note", "/a~1b"), null);
+
+    assertThat(selection.includes(List.of("customer", "address", "city"))).isTrue();
+    assertThat(selection.includes(List.of("items", 3, "note"))).isTrue();
+    assertThat(selection.includes(List.of("items", 3, "qty"))).isFalse();
+    assertThat(selection.includes(List.of("a/b"))).isTrue();
+    assertThat(selection.includes(List.of("id"))).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should match JSONPaths with wildcards, indices and recursive descent")
+  void testJsonPath() {
+    var selection =
+        FieldSelection.of(List.of("$.items[*].note", "$['first name']", "$..email"), null);
+
+    assertThat(selection.includes(List.of("items", 0, "note"))).isTrue();
+    assertThat(selection.includes(List.of("first name"))).isTrue();
+    assertThat(selection.includes(List.of("orders", 2, "contact", "email"))).isTrue();
+    assertThat(selection.includes(List.of("orders", 2, "contact", "emails"))).isFalse();
+    assertThat(FieldSelection.of(List.of("$.items[1]"), null).includes(List.of("items", 0)))
+        .isFalse();
+  }
+
+  @Test
+  @DisplayName("Should let exclude paths win over include paths")
+  void testExclude() {
+    var selection = FieldSelection.of(List.of("$"), List.of("/id", "$..amount"));
+
+    assertThat(selection.includes(List.of("name"))).isTrue();
+    assertThat(selection.includes(List.of("id"))).isFalse();
+    assertThat(selection.includes(List.of("lines", 0, "amount"))).isFalse();
+    assertThat(FieldSelection.of(null, List.of()).selectsAll()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should send only selected fields and merge tokens back into the rest")
+  void testSelectAndMerge() {
+    var payload = new LinkedHashMap<String, Object>();
+    payload.put("id", 7);
+    payload.put("customer", Map.of("name", "John Doe", "email", "john@example.com"));
+    payload.put("items", List.of(Map.of("note", "call John", "qty", 1)));
+    var selection = FieldSelection.of(List.of("/customer/email", "$.items[*].note"), null);
+
+    var selected = selection.select(payload);
+    var merged =
+        selection.merge(
+            payload,
+            Map.of(
+                "customer", Map.of("email", "[EMAIL_1]"),
+                "items", List.of(Map.of("note", "call [NAME_1]"))));
+
+    assertThat(selected)
+        .isEqualTo(
+            Map.of(
+                "customer", Map.of("email", "john@example.com"),
+                "items", List.of(Map.of("note", "call John"))));
+    assertThat(merged)
+        .isEqualTo(
+            Map.of(
+                "id", 7,
+                "customer", Map.of("name", "John Doe", "email", "[EMAIL_1]"),
+                "items", List.of(Map.of("note", "call [NAME_1]", "qty", 1))));
+  }
+
+  @Test
+  @DisplayName("Should reject invalid path expressions")
+  void testInvalidPath() {
+    for (var path : List.of("customer", "$.a[x]", "$.a[0")) {
+      assertThatThrownBy(() -> FieldSelection.of(List.of(path), null))
+          .isInstanceOfSatisfying(
+              ConnectorException.class,
+              e -> assertThat(e.getErrorCode()).isEqualTo("SKYFLOW_BAD_PATH"));
+    }
+  }
+}
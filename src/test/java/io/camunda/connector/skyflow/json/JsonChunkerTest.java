@@ -0,0 +1,95 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonChunkerTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  @DisplayName("Should keep small payloads in one chunk")
+  void testSmallPayload() throws Exception {
+    var payload = Map.<String, Object>of("name", "John Doe");
+
+    assertThat(JsonChunker.split(MAPPER, payload, 1024)).containsExactly(payload);
+  }
+
+  @Test
+  @DisplayName("Should split along keys and array elements within the size limit")
+  void testSplitWithinLimit() throws Exception {
+    var payload = payload();
+
+    var chunks = JsonChunker.split(MAPPER, payload, 500);
+
+    assertThat(chunks).hasSizeGreaterThan(4);
+    for (var chunk : chunks) {
+      assertThat(MAPPER.writeValueAsBytes(chunk).length).isLessThanOrEqualTo(500);
+    }
+    assertThat(chunks.getFirst()).containsKeys("id", "customers");
+  }
+
+  @Test
+  @DisplayName("Should restore order and shape when merging processed chunks")
+  void testMergeRoundTrip() throws Exception {
+    var payload = payload();
+    var chunks = JsonChunker.split(MAPPER, payload, 500);
+
+    // processed chunks come back as freshly parsed objects
+    var processed = new ArrayList<Map<String, Object>>();
+    for (var chunk : chunks) {
+      @SuppressWarnings("unchecked")
+      Map<String, Object> copy = MAPPER.readValue(MAPPER.writeValueAsBytes(chunk), Map.class);
+      processed.add(copy);
+    }
+
+    var merged = JsonChunker.merge(processed);
+
+    assertThat(MAPPER.writeValueAsString(merged)).isEqualTo(MAPPER.writeValueAsString(payload));
+  }
+
+  @Test
+  @DisplayName("Should keep an oversized array element whole")
+  void testOversizedElement() throws Exception {
+    var payload =
+        Map.<String, Object>of(
+            "notes", List.of("a".repeat(100), "b".repeat(1000), "c".repeat(100)));
+
+    var chunks = JsonChunker.split(MAPPER, payload, 500);
+
+    assertThat(chunks).hasSize(3);
+    assertThat(chunks.get(1)).isEqualTo(Map.of("notes", List.of("b".repeat(1000))));
+    assertThat(JsonChunker.merge(chunks)).isEqualTo(payload);
+  }
+
+  private static Map<String, Object> payload() {
+    var customers = new ArrayList<Object>();
+    for (int i = 0; i < 50; i++) {
+      customers.add(Map.of("name", "John " + i, "email", "john" + i + "@example.com"));
+    }
+    var meta = new LinkedHashMap<String, Object>();
+    meta.put("comment", "x".repeat(300));
+    meta.put("tags", List.of("a", "b", "c"));
+    meta.put("owner", Map.of("note", "y".repeat(400)));
+    var payload = new LinkedHashMap<String, Object>();
+    payload.put("id", "order-1");
+    payload.put("customers", customers);
+    payload.put("meta", meta);
+    payload.put("status", "open");
+    return payload;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.dto.SkyflowReidentifyResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkyflowResponseDecoderTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  @DisplayName("Should decode the processed file and keep the other fields")
+  void testDecode() throws Exception {
+    var file =
+        Map.of(
+            "name", "[NAME_1]",
+            "contacts", List.of(Map.of("phone", "[PHONE_1]"), "x"),
+            "age", 42,
+            "active", true);
+    var body = response(MAPPER.writeValueAsString(file));
+
+    var decoded = SkyflowResponseDecoder.decode(MAPPER, body, SkyflowReidentifyResponse.class);
+
+    assertThat(decoded.processedFile()).isEqualTo(file);
+    assertThat(decoded.response().status()).isEqualTo("SUCCESS");
+    assertThat(decoded.response().output().processedFileType()).isEqualTo("json");
+    assertThat(decoded.response().output().processedFile()).isNull();
+  }
+
+  @Test
+  @DisplayName("Should decode a processed file spanning many parser chunks")
+  void testDecodeLargeFile() throws Exception {
+    var file = Map.of("text", "x".repeat(200_000), "n", 1);
+
+    var decoded =
+        SkyflowResponseDecoder.decode(
+            MAPPER, response(MAPPER.writeValueAsString(file)), SkyflowReidentifyResponse.class);
+
+    assertThat(decoded.requireProcessedFile()).isEqualTo(file);
+  }
+
+  @Test
+  @DisplayName("Should fail when the response has no processed file")
+  void testMissingProcessedFile() throws Exception {
+    var body =
+        new ByteArrayInputStream(
+            "{\"status\":\"SUCCESS\",\"output\":{}}".getBytes(StandardCharsets.UTF_8));
+
+    var decoded = SkyflowResponseDecoder.decode(MAPPER, body, SkyflowReidentifyResponse.class);
+
+    assertThatThrownBy(decoded::requireProcessedFile)
+        .isInstanceOf(ConnectorException.class)
+        .hasMessageContaining("processed_file");
+  }
+
+  @Test
+  @DisplayName("Should reject a processed file that is not a JSON object")
+  void testProcessedFileNotAnObject() {
+    assertThatThrownBy(
+            () ->
+                SkyflowResponseDecoder.decode(
+                    MAPPER, response("[1,2,3]"), SkyflowReidentifyResponse.class))
+        .isInstanceOf(ConnectorException.class)
+        .hasMessageContaining("not a JSON object");
+  }
+
+  @Test
+  @DisplayName("Should write a processed file that is not JSON to the target")
+  void testDecodeToTarget() throws Exception {
+    var file = "name,email\n[NAME_1],[EMAIL_ADDRESS_1]\n".repeat(10_000);
+    var target = new ByteArrayOutputStream();
+
+    var decoded =
+        SkyflowResponseDecoder.decode(
+            MAPPER, response(file), SkyflowReidentifyResponse.class, () -> target);
+
+    assertThat(target.toString(StandardCharsets.UTF_8)).isEqualTo(file);
+    assertThat(decoded.processedFile()).isNull();
+    assertThat(decoded.processedFileBytes()).isEqualTo(file.length());
+    assertThat(decoded.response().status()).isEqualTo("SUCCESS");
+  }
+
+  @Test
+  @DisplayName("Should not open the target when the response has no processed file")
+  void testDecodeToTargetWithoutFile() throws Exception {
+    var body =
+        new ByteArrayInputStream(
+            "{\"status\":\"IN_PROGRESS\"}".getBytes(StandardCharsets.UTF_8));
+
+    var decoded =
+        SkyflowResponseDecoder.decode(
+            MAPPER,
+            body,
+            SkyflowReidentifyResponse.class,
+            () -> {
+              throw new AssertionError("target opened");
+            });
+
+    assertThat(decoded.processedFileBytes()).isZero();
+    assertThat(decoded.response().status()).isEqualTo("IN_PROGRESS");
+  }
+
+  private static ByteArrayInputStream response(String processedFile) {
+    var base64 =
+        Base64.getEncoder().encodeToString(processedFile.getBytes(StandardCharsets.UTF_8));
+    var json =
+        "{\"status\":\"SUCCESS\",\"output_type\":\"json\",\"output\":{\"processed_file\":\""
+            + base64
+            + "\",\"processed_file_type\":\"json\"}}";
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
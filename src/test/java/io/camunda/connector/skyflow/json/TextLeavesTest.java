@@ -0,0 +1,53 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.json;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextLeavesTest {
+
+  @Test
+  @DisplayName("Should put processed text back into the leaves it came from")
+  void testRebuild() {
+    var payload = new LinkedHashMap<String, Object>();
+    payload.put("name", "John Doe");
+    payload.put("age", 30);
+    payload.put("active", true);
+    payload.put("emails", List.of("john@example.com", "none"));
+
+    var leaves = TextLeaves.of(payload, 1000);
+    var processed =
+        leaves.text().replace("John Doe", "[NAME_1]").replace("john@example.com", "[EMAIL_1]");
+
+    assertThat(leaves.text())
+        .isEqualTo(String.join(TextLeaves.SEPARATOR, "John Doe", "30", "john@example.com", "none"));
+    assertThat(leaves.rebuild(processed))
+        .isEqualTo(
+            Map.of(
+                "name", "[NAME_1]",
+                "age", 30,
+                "active", true,
+                "emails", List.of("[EMAIL_1]", "none")));
+  }
+
+  @Test
+  @DisplayName("Should refuse payloads above the size limit and mismatching processed text")
+  void testLimits() {
+    Map<String, Object> payload = Map.of("name", "John Doe", "city", "Berlin");
+
+    assertThat(TextLeaves.of(payload, 10)).isNull();
+    assertThat(TextLeaves.of(Map.of("note", "a \u241E b"), 1000)).isNull();
+    assertThat(TextLeaves.of(payload, 1000).rebuild("[NAME_1] Berlin")).isNull();
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import io.camunda.connector.skyflow.dto.SkyflowDetectRunStatusResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PollingStrategyTest {
+
+  @Test
+  @DisplayName("Should check immediately and then at a fixed interval")
+  void testFixed() {
+    var strategy = new FixedPollingStrategy(Duration.ofMillis(1500));
+
+    assertThat(strategy.initialDelay()).isZero();
+    assertThat(strategy.nextDelay(1)).isEqualTo(Duration.ofMillis(1500));
+    assertThat(strategy.nextDelay(10)).isEqualTo(Duration.ofMillis(1500));
+  }
+
+  @Test
+  @DisplayName("Should back off exponentially with jitter up to the max delay")
+  void testExponentialJitter() {
+    var strategy =
+        new ExponentialJitterPollingStrategy(Duration.ofMillis(100), Duration.ofMillis(1600));
+
+    assertThat(strategy.nextDelay(1)).isBetween(Duration.ofMillis(100), Duration.ofMillis(200));
+    assertThat(strategy.nextDelay(3)).isBetween(Duration.ofMillis(400), Duration.ofMillis(800));
+    assertThat(strategy.nextDelay(40)).isBetween(Duration.ofMillis(800), Duration.ofMillis(1600));
+  }
+
+  @Test
+  @DisplayName("Should predict run duration from size once enough runs were observed")
+  void testDurationModel() {
+    var model = new RunDurationModel(0.5, 3);
+    model.record("vault", 10, 300);
+    model.record("vault", 100, 1200);
+    assertThat(model.predict("vault", 50)).isEmpty();
+
+    model.record("vault", 10, 300);
+    model.record("vault", 100, 1200);
+
+    assertThat(model.predict("vault", 50).orElseThrow().toMillis()).isBetween(600L, 900L);
+    assertThat(model.predict("other-vault", 50)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should schedule the first check shortly before the learned completion time")
+  void testLearned() {
+    var model = new RunDurationModel(0.5, 1);
+    var first = new LearnedPollingStrategy(model, "vault", 4096, Duration.ofMillis(1500));
+    assertThat(first.initialDelay()).isZero();
+
+    first.onSuccess(
+        new SkyflowDetectRunStatusResponse(
+            "SUCCESS", null, null, null, 4.0, null, 2.0, null, null),
+        Duration.ofMillis(2500));
+
+    var next = new LearnedPollingStrategy(model, "vault", 4096, Duration.ofMillis(1500));
+    assertThat(next.initialDelay()).isEqualTo(Duration.ofMillis(1800));
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.polling;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.camunda.connector.api.error.ConnectorException;
+import io.camunda.connector.skyflow.http.SkyflowTransport;
+import io.camunda.connector.skyflow.http.SkyflowTransportRegistry;
+import io.camunda.connector.skyflow.http.SkyflowTransportSettings;
+import org.junit.jupiter.api.*;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class SkyflowRunCompletionEngineTest {
+
+  private static WireMockServer wireMockServer;
+  private SkyflowTransportRegistry transports;
+  private SkyflowRunCompletionEngine engine;
+
+  @BeforeAll
+  static void startWireMock() {
+    wireMockServer = new WireMockServer(0);
+    wireMockServer.start();
+  }
+
+  @AfterAll
+  static void stopWireMock() {
+    wireMockServer.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    wireMockServer.resetAll();
+    transports = new SkyflowTransportRegistry(SkyflowTransportSettings.defaults());
+    engine = new SkyflowRunCompletionEngine();
+  }
+
+  @AfterEach
+  void tearDown() {
+    engine.close();
+    transports.close();
+  }
+
+  @Test
+  @DisplayName("Should complete many runs without a thread per run")
+  void testManyConcurrentRuns() throws Exception {
+    wireMockServer.stubFor(
+        get(urlPathMatching("/v1/detect/runs/.*"))
+            .willReturn(okJson("{\"status\": \"SUCCESS\", \"output\": []}")));
+    int threadsBefore = Thread.activeCount();
+
+    var futures = new ArrayList<CompletableFuture<?>>();
+    for (int i = 0; i < 200; i++) {
+      futures.add(engine.track(runPoll("run-" + i, 5)));
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+    assertThat(Thread.activeCount() - threadsBefore).isLessThan(20);
+    await().atMost(Duration.ofSeconds(5)).until(() -> engine.pendingRuns() == 0);
+  }
+
+  @Test
+  @DisplayName("Should share one poll loop between callers of the same run")
+  void testSharedRun() throws Exception {
+    wireMockServer.stubFor(
+        get(urlPathEqualTo("/v1/detect/runs/shared"))
+            .inScenario("shared")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(okJson("{\"status\": \"PENDING\"}"))
+            .willSetStateTo("done"));
+    wireMockServer.stubFor(
+        get(urlPathEqualTo("/v1/detect/runs/shared"))
+            .inScenario("shared")
+            .whenScenarioStateIs("done")
+            .willReturn(okJson("{\"status\": \"SUCCESS\"}")));
+
+    var first = engine.track(runPoll("shared", 5));
+    var second = engine.track(runPoll("shared", 5));
+
+    assertThat(first.get(10, TimeUnit.SECONDS).response().status()).isEqualTo("SUCCESS");
+    assertThat(second.get(10, TimeUnit.SECONDS).response().status()).isEqualTo("SUCCESS");
+    wireMockServer.verify(2, getRequestedFor(urlPathEqualTo("/v1/detect/runs/shared")));
+  }
+
+  @Test
+  @DisplayName("Should time out each caller of a shared run after its own attempts")
+  void testSharedRunWithOwnAttempts() throws Exception {
+    for (var runId : new String[] {"watched-first", "awaited-first"}) {
+      wireMockServer.stubFor(
+          get(urlPathEqualTo("/v1/detect/runs/" + runId))
+              .inScenario(runId)
+              .whenScenarioStateIs(Scenario.STARTED)
+              .willReturn(okJson("{\"status\": \"IN_PROGRESS\"}")));
+      wireMockServer.stubFor(
+          get(urlPathEqualTo("/v1/detect/runs/" + runId))
+              .inScenario(runId)
+              .whenScenarioStateIs("done")
+              .willReturn(okJson("{\"status\": \"SUCCESS\"}")));
+    }
+
+    // a short DEIDENTIFY_AWAIT joins the long loop of the run completion watcher
+    var watcher = engine.track(runPoll("watched-first", 1000));
+    var awaiting = engine.track(runPoll("watched-first", 3));
+    assertThatThrownBy(() -> awaiting.get(10, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(ConnectorException.class)
+        .hasMessageContaining("did not complete after 3 attempts");
+    assertThat(watcher).isNotDone();
+
+    // the watcher joins the short loop of a DEIDENTIFY_AWAIT and outlives it
+    var shortLoop = engine.track(runPoll("awaited-first", 3));
+    var joined = engine.track(runPoll("awaited-first", 1000));
+    assertThatThrownBy(() -> shortLoop.get(10, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(ConnectorException.class);
+    int checks = statusChecks("awaited-first");
+    await().atMost(Duration.ofSeconds(5)).until(() -> statusChecks("awaited-first") > checks);
+    assertThat(joined).isNotDone();
+    assertThat(engine.pendingRuns()).isEqualTo(2);
+
+    wireMockServer.setScenarioState("watched-first", "done");
+    wireMockServer.setScenarioState("awaited-first", "done");
+    assertThat(watcher.get(10, TimeUnit.SECONDS).response().status()).isEqualTo("SUCCESS");
+    assertThat(joined.get(10, TimeUnit.SECONDS).response().status()).isEqualTo("SUCCESS");
+    await().atMost(Duration.ofSeconds(5)).until(() -> engine.pendingRuns() == 0);
+  }
+
+  @Test
+  @DisplayName("Should stop polling once every caller gave up")
+  void testCancellation() {
+    wireMockServer.stubFor(
+        get(urlPathEqualTo("/v1/detect/runs/abandoned"))
+            .willReturn(okJson("{\"status\": \"PENDING\"}")));
+
+    var future = engine.track(runPoll("abandoned", 1000));
+    future.cancel(true);
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> engine.pendingRuns() == 0);
+  }
+
+  @Test
+  @DisplayName("Should fail with SKYFLOW_POLL_TIMEOUT after max attempts")
+  void testTimeout() {
+    wireMockServer.stubFor(
+        get(urlPathEqualTo("/v1/detect/runs/slow"))
+            .willReturn(okJson("{\"status\": \"PENDING\"}")));
+
+    assertThatThrownBy(() -> engine.awaitCompletion(runPoll("slow", 3)))
+        .isInstanceOf(ConnectorException.class)
+        .hasMessageContaining("did not complete after 3 attempts");
+    wireMockServer.verify(3, getRequestedFor(urlPathEqualTo("/v1/detect/runs/slow")));
+  }
+
+  private static int statusChecks(String runId) {
+    return wireMockServer
+        .findAll(getRequestedFor(urlPathEqualTo("/v1/detect/runs/" + runId)))
+        .size();
+  }
+
+  private SkyflowRunCompletionEngine.RunPoll runPoll(String runId, int maxAttempts) {
+    String baseUrl = "http://localhost:" + wireMockServer.port();
+    SkyflowTransport transport = transports.forBaseUrl(baseUrl);
+    String uri = baseUrl + "/v1/detect/runs/" + runId + "?vault_id=vault-123";
+    return new SkyflowRunCompletionEngine.RunPoll(
+        uri,
+        "vault-123",
+        transport,
+        () -> HttpRequest.newBuilder().uri(URI.create(uri)).GET().build(),
+        new FixedPollingStrategy(Duration.ofMillis(10)),
+        maxAttempts);
+  }
+}
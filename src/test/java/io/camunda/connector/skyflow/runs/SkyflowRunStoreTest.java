@@ -0,0 +1,85 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.runs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkyflowRunStoreTest {
+
+  @TempDir Path directory;
+
+  @Test
+  @DisplayName("Should save, find and remove runs in memory")
+  void testInMemory() {
+    var store = new InMemorySkyflowRunStore(10, Duration.ofMinutes(1));
+
+    store.save("a", "run-1");
+    store.save("a", "run-2");
+
+    assertThat(store.find("a")).isEqualTo("run-2");
+    store.remove("a");
+    assertThat(store.find("a")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should expire and bound in-memory entries")
+  void testInMemoryExpiry() throws Exception {
+    var bounded = new InMemorySkyflowRunStore(2, Duration.ofMinutes(1));
+    bounded.save("a", "run-1");
+    bounded.save("b", "run-2");
+    bounded.save("c", "run-3");
+
+    var expiring = new InMemorySkyflowRunStore(10, Duration.ofMillis(20));
+    expiring.save("a", "run-1");
+    Thread.sleep(40);
+
+    assertThat(bounded.find("a")).isNull();
+    assertThat(bounded.find("c")).isEqualTo("run-3");
+    assertThat(bounded.size()).isEqualTo(2);
+    assertThat(expiring.find("a")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should keep runs in files across store instances")
+  void testFileStore() {
+    new FileSkyflowRunStore(directory, Duration.ofMinutes(1)).save("a", "run-1");
+
+    var reopened = new FileSkyflowRunStore(directory, Duration.ofMinutes(1));
+
+    assertThat(reopened.find("a")).isEqualTo("run-1");
+    assertThat(reopened.find("b")).isNull();
+    reopened.remove("a");
+    assertThat(reopened.find("a")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should expire and delete stale run files")
+  void testFileStoreExpiry() throws Exception {
+    var store = new FileSkyflowRunStore(directory, Duration.ofMinutes(1));
+    store.save("a", "run-1");
+    try (var files = Files.list(directory)) {
+      for (var file : files.toList()) {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(120)));
+      }
+    }
+
+    assertThat(store.find("a")).isNull();
+    try (var files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright Camunda Services GmbH and/or licensed to Camunda Services GmbH
+ * under one or more contributor license agreements. Licensed under a proprietary license.
+ * See the License.txt file for more information. You may not use this file
+ * except in compliance with the proprietary license.
+ */
+package io.camunda.connector.skyflow.runs;
+
+import io.camunda.connector.skyflow.metrics.MicrometerSkyflowMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkyflowRunWatchersTest {
+
+  @Test
+  @DisplayName("Should drop the oldest pending runs and count them")
+  void testDroppedRuns() {
+    var registry = new SimpleMeterRegistry();
+    var watchers = new SkyflowRunWatchers(2, new MicrometerSkyflowMetrics(registry));
+
+    watchers.started("vault", "run-1");
+    watchers.started("vault", "run-2");
+    watchers.started("vault", "run-3");
+    var handed = new ArrayList<String>();
+    watchers.subscribe("vault", handed::add);
+
+    assertThat(handed).containsExactly("run-2", "run-3");
+    assertThat(watchers.droppedRuns()).isEqualTo(1);
+    assertThat(registry.get("skyflow.runs.dropped").counter().count()).isEqualTo(1);
+  }
+}